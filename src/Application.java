@@ -1,11 +1,10 @@
-import controller.GameController;
 import view.InitialPageView;
 
 import javax.swing.*;
 
 /**
  * Application class acts as the main class which runs the program.
- * It will get an instance from the gameController and start the game.
+ * It opens the initial page, which creates a GameController for every game it starts.
  */
 public class Application {
 
@@ -14,9 +13,6 @@ public class Application {
      * @param args -
      */
     public static void main(String[] args) {
-        // start game
-//        GameController gameController = GameController.getInstance();
-//        gameController.startGame();
         // Create an instance of InitialPageView
         SwingUtilities.invokeLater(new Runnable() {
             @Override
@@ -0,0 +1,230 @@
+package book;
+
+import engine.SearchEngine;
+import engine.SearchLimits;
+import engine.SearchResult;
+import model.Move;
+import model.MoveGenerator;
+import model.Position;
+import model.Symmetry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * The BookBuilder class builds the OpeningBook offline from self-play. Every game opens with a few random moves
+ * so the games spread over the openings, and then the engine plays both sides until every token is set. Each
+ * position of the SET phase reached by a game is searched once, and its best move is recorded under the
+ * canonical hash with the number of games that reached it as its weight. Run it from the command line:
+ * <pre>
+ * java book.BookBuilder [-out opening.book] [-games 200] [-depth 8] [-random 4] [-seed 1]
+ * </pre>
+ */
+public class BookBuilder {
+    /**
+     * an integer represents the default number of self-play games
+     */
+    public static final int DEFAULT_GAMES = 200;
+
+    /**
+     * an integer represents the default depth of the search of a book position
+     */
+    public static final int DEFAULT_DEPTH = 8;
+
+    /**
+     * an integer represents the default number of random moves that open every game
+     */
+    public static final int DEFAULT_RANDOM_PLIES = 4;
+
+    /**
+     * instance of the SearchEngine class that searches the book positions
+     */
+    private final SearchEngine engine = new SearchEngine();
+
+    /**
+     * a Map that stores the record of every book position by canonical hash
+     */
+    private final Map<Long, Record> records = new HashMap<>();
+
+    /**
+     * an integer represents the depth of the search of a book position
+     */
+    private final int depth;
+
+    /**
+     * an integer represents the number of random moves that open every game
+     */
+    private final int randomPlies;
+
+    /**
+     * a SplittableRandom instance that picks the random moves
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Constructor
+     * @param depth the depth of the search of a book position
+     * @param randomPlies the number of random moves that open every game
+     * @param seed the seed of the random moves
+     */
+    public BookBuilder(int depth, int randomPlies, long seed) {
+        this.depth = depth;
+        this.randomPlies = randomPlies;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Play one self-play game through the SET phase and record its positions
+     */
+    public void playGame() {
+        Position position = new Position();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int ply = 0; OpeningBook.isBookPosition(position); ply++) {
+            int transform = Symmetry.getCanonicalTransform(position);
+            long hash = Symmetry.getHash(position, transform);
+            Record record = records.get(hash);
+            if (record == null) {
+                SearchResult result = engine.search(position, new SearchLimits(depth, 0));
+                if (result.getBestMove() == Move.NULL_MOVE) {
+                    return;
+                }
+                record = new Record(hash, Symmetry.transformMove(transform, result.getBestMove()),
+                                    result.getScore());
+                records.put(hash, record);
+            }
+            record.weight++;
+
+            int move;
+            if (ply < randomPlies) {
+                move = moves[random.nextInt(MoveGenerator.generate(position, moves))];
+            } else {
+                move = Symmetry.transformMove(Symmetry.inverse(transform), record.move);
+            }
+            position.makeMove(move);
+        }
+    }
+
+    /**
+     * Retrieve the number of book positions recorded so far
+     * @return the number of positions
+     */
+    public int getSize() {
+        return records.size();
+    }
+
+    /**
+     * Write the book. The file is written aside and then moved in place, so the book is always complete.
+     * @param file the file of the book
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path file) throws IOException {
+        List<Record> sorted = new ArrayList<>(records.values());
+        sorted.sort(Comparator.comparingLong(record -> record.hash));
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(OpeningBook.HEADER_SIZE + sorted.size() * OpeningBook.RECORD_SIZE);
+        buffer.putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putLong(sorted.size());
+        for (Record record : sorted) {
+            int score = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, record.score));
+            buffer.putLong(record.hash).putShort((short) record.move).putShort((short) score).putInt(record.weight);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Build a book from the command line
+     * @param args -out for the file of the book, -games for the number of games, -depth for the search depth,
+     *             -random for the number of random opening moves and -seed for the seed of the random moves
+     * @throws IOException if the book cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(OpeningBook.DEFAULT_FILE);
+        int games = DEFAULT_GAMES;
+        int depth = DEFAULT_DEPTH;
+        int randomPlies = DEFAULT_RANDOM_PLIES;
+        long seed = 1;
+
+        // parse arguments
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-out" -> file = Paths.get(args[++i]);
+                case "-games" -> games = Integer.parseInt(args[++i]);
+                case "-depth" -> depth = Integer.parseInt(args[++i]);
+                case "-random" -> randomPlies = Integer.parseInt(args[++i]);
+                case "-seed" -> seed = Long.parseLong(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        long start = System.nanoTime();
+        BookBuilder builder = new BookBuilder(depth, randomPlies, seed);
+        for (int game = 1; game <= games; game++) {
+            builder.playGame();
+            if (game % 10 == 0) {
+                System.out.printf("%d games, %d positions, %.1f s%n", game, builder.getSize(),
+                                  (System.nanoTime() - start) / 1e9);
+            }
+        }
+        builder.write(file);
+        System.out.printf("Opening book of %d positions written to %s in %.1f s%n", builder.getSize(), file,
+                          (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * The Record class holds the book move of one canonical position while the book is built
+     */
+    private static class Record {
+        /**
+         * a long represents the canonical hash of the position
+         */
+        private final long hash;
+
+        /**
+         * an integer represents the best move of the canonical form
+         */
+        private final int move;
+
+        /**
+         * an integer represents the score of the best move
+         */
+        private final int score;
+
+        /**
+         * an integer represents the number of games that reached the position
+         */
+        private int weight;
+
+        /**
+         * Constructor
+         * @param hash the canonical hash of the position
+         * @param move the best move of the canonical form
+         * @param score the score of the best move
+         */
+        private Record(long hash, int move, int score) {
+            this.hash = hash;
+            this.move = move;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package book;
+
+import model.GameState;
+import model.Move;
+import model.MoveGenerator;
+import model.Position;
+import model.Symmetry;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The OpeningBook class answers the moves of the SET phase from a book written by the BookBuilder. The book is
+ * keyed by the canonical hash of Symmetry, so one entry serves every symmetric position, and stores the move of
+ * the canonical form, which is mapped back to the position looked up. The file is memory mapped and holds fixed
+ * size records sorted by hash, found by binary search:
+ * <pre>
+ * header:  magic, version, number of records
+ * records: canonical hash (8 bytes), canonical move (2 bytes), score (2 bytes), weight (4 bytes)
+ * </pre>
+ * There is one record per hash, with the best move the BookBuilder found for the position and the number of
+ * self-play games that reached it as its weight. A book that is missing is empty, so the caller falls back to a
+ * search.
+ */
+public class OpeningBook {
+    /**
+     * a String represents the system property that overrides the default file of the book
+     */
+    public static final String FILE_PROPERTY = "book.file";
+
+    /**
+     * a String represents the default file of the book
+     */
+    public static final String DEFAULT_FILE = "opening.book";
+
+    /**
+     * an integer that identifies the file format
+     */
+    static final int MAGIC = 0x4E4D4D42;
+
+    /**
+     * an integer represents the version of the file format
+     */
+    static final int VERSION = 1;
+
+    /**
+     * an integer represents the number of bytes of the file header
+     */
+    static final int HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES;
+
+    /**
+     * an integer represents the number of bytes of a record
+     */
+    static final int RECORD_SIZE = 16;
+
+    /**
+     * a MappedByteBuffer instance that holds the file, null for an empty book
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * a long represents the number of records
+     */
+    private final long size;
+
+    /**
+     * Constructor. Uses the file of the system property FILE_PROPERTY, e.g. -Dbook.file=/data/mill.book
+     */
+    public OpeningBook() {
+        this(Paths.get(System.getProperty(FILE_PROPERTY, DEFAULT_FILE)));
+    }
+
+    /**
+     * Constructor. A file that is missing or cannot be read gives an empty book.
+     * @param file the file of the book
+     */
+    public OpeningBook(Path file) {
+        MappedByteBuffer mapped = null;
+        long records = 0;
+        if (Files.isRegularFile(file)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE || channel.size() < HEADER_SIZE) {
+                    throw new IOException("Not an opening book: " + file);
+                }
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                records = mapped.getLong(2 * Integer.BYTES);
+                if (mapped.getInt(0) != MAGIC || mapped.getInt(Integer.BYTES) != VERSION ||
+                    HEADER_SIZE + records * RECORD_SIZE != channel.size()) {
+                    throw new IOException("Not an opening book: " + file);
+                }
+            } catch (IOException e) {
+                System.out.println("Cannot read opening book: " + e.getMessage());
+                mapped = null;
+                records = 0;
+            }
+        }
+        this.buffer = mapped;
+        this.size = records;
+    }
+
+    /**
+     * Retrieve the book of the configured file shared by the whole process, so every computer player maps the
+     * file once. It is opened on first use.
+     * @return the shared OpeningBook instance
+     */
+    public static OpeningBook getShared() {
+        return SharedHolder.BOOK;
+    }
+
+    /**
+     * Retrieve the number of records
+     * @return the number of records, 0 for an empty book
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Determine if the book can hold a position: a SET phase position without a pending remove
+     * @param position the Position instance
+     * @return true if the position can be looked up, else false
+     */
+    public static boolean isBookPosition(Position position) {
+        return position.getState() != GameState.REMOVE && !position.isGameOver() &&
+               (position.getTokensToSet(Position.WHITE) != 0 || position.getTokensToSet(Position.BLACK) != 0);
+    }
+
+    /**
+     * Look up the book move of a position
+     * @param position the Position instance
+     * @return the encoded move, or Move.NULL_MOVE if the book has no move for the position
+     */
+    public int probe(Position position) {
+        if (buffer == null || !isBookPosition(position)) {
+            return Move.NULL_MOVE;
+        }
+        int transform = Symmetry.getCanonicalTransform(position);
+        long record = find(Symmetry.getHash(position, transform));
+        if (record < 0) {
+            return Move.NULL_MOVE;
+        }
+        int move = Symmetry.transformMove(Symmetry.inverse(transform), getMove(record));
+
+        // a hash collision must not play an illegal move
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(position, moves);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return move;
+            }
+        }
+        return Move.NULL_MOVE;
+    }
+
+    /**
+     * Follow the book moves from a position
+     * @param position the Position instance, left unchanged
+     * @param maxLength the most moves to follow
+     * @return the moves, which end early when the book has no move
+     */
+    public int[] getPrincipalVariation(Position position, int maxLength) {
+        int[] variation = new int[maxLength];
+        Position current = new Position(position);
+        int length = 0;
+        while (length < maxLength) {
+            int move = probe(current);
+            if (move == Move.NULL_MOVE) {
+                break;
+            }
+            variation[length++] = move;
+            current.makeMove(move);
+        }
+        return Arrays.copyOf(variation, length);
+    }
+
+    /**
+     * Retrieve the score stored with the book move of a position
+     * @param position the Position instance
+     * @param move the encoded book move returned by probe
+     * @return the score from the point of view of the side to move, 0 if the move is not in the book
+     */
+    public int getScore(Position position, int move) {
+        if (buffer == null || !isBookPosition(position)) {
+            return 0;
+        }
+        int transform = Symmetry.getCanonicalTransform(position);
+        long record = find(Symmetry.getHash(position, transform));
+        if (record < 0 || getMove(record) != Symmetry.transformMove(transform, move)) {
+            return 0;
+        }
+        return buffer.getShort(getOffset(record) + Long.BYTES + Short.BYTES);
+    }
+
+    /**
+     * Find the record of a hash by binary search
+     * @param hash the canonical hash
+     * @return the number of the record, -1 if the book has no record for the hash
+     */
+    private long find(long hash) {
+        long low = 0;
+        long high = size - 1;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            long middleHash = getHash(middle);
+            if (middleHash < hash) {
+                low = middle + 1;
+            } else if (middleHash > hash) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retrieve the hash of a record
+     * @param record the number of the record
+     * @return the canonical hash
+     */
+    private long getHash(long record) {
+        return buffer.getLong(getOffset(record));
+    }
+
+    /**
+     * Retrieve the canonical move of a record
+     * @param record the number of the record
+     * @return the encoded move of the canonical form
+     */
+    private int getMove(long record) {
+        return buffer.getShort(getOffset(record) + Long.BYTES) & 0x7FFF;
+    }
+
+    /**
+     * Retrieve the position of a record in the file
+     * @param record the number of the record
+     * @return the offset in bytes
+     */
+    private static int getOffset(long record) {
+        return (int) (HEADER_SIZE + record * RECORD_SIZE);
+    }
+
+    /**
+     * The SharedHolder class holds the shared book, created by the class loader the first time it is asked for
+     */
+    private static class SharedHolder {
+        /**
+         * instance of the OpeningBook class of the configured file
+         */
+        private static final OpeningBook BOOK = new OpeningBook();
+    }
+}
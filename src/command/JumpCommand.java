@@ -1,30 +1,45 @@
 package command;
 
-import model.Player;
+import model.Game;
 
 /**
  * The JumpCommand class implements the Command interface and its main responsibility is to execute
- * the jump token logic provided by the Player class.
+ * the jump token logic provided by the Game class.
  */
 public class JumpCommand implements Command {
     /**
-     * Player instance to execute the command
+     * Game instance to execute the command on
      */
-    private Player player;
+    private Game game;
+
+    /**
+     * an integer represents the index of the node of the token to jump
+     */
+    private int from;
+
+    /**
+     * an integer represents the index of the empty node to jump to
+     */
+    private int to;
 
     /**
      * Constructor
+     * @param game the Game instance to execute the command on
+     * @param from the index of the node of the token to jump
+     * @param to the index of the empty node to jump to
      */
-    public JumpCommand(Player player) {
-        this.player = player;
+    public JumpCommand(Game game, int from, int to) {
+        this.game = game;
+        this.from = from;
+        this.to = to;
     }
 
     /**
-     * Execute the jump command for the current player
+     * Execute the jump command for the player to move
      * @return true if the command has been successfully executed, else false
      */
     @Override
     public boolean execute() {
-        return player.jump();
+        return game.jump(from, to);
     }
 }
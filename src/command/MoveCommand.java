@@ -1,30 +1,45 @@
 package command;
 
-import model.Player;
+import model.Game;
 
 /**
  * The MoveCommand class implements the Command interface and its main responsibility
- * is to execute the move token logic provided by the Player class.
+ * is to execute the move token logic provided by the Game class.
  */
 public class MoveCommand implements Command {
     /**
-     * Player instance to execute the command
+     * Game instance to execute the command on
      */
-    private Player player;
+    private Game game;
+
+    /**
+     * an integer represents the index of the node of the token to move
+     */
+    private int from;
+
+    /**
+     * an integer represents the index of the adjacent empty node to move to
+     */
+    private int to;
 
     /**
      * Constructor
+     * @param game the Game instance to execute the command on
+     * @param from the index of the node of the token to move
+     * @param to the index of the adjacent empty node to move to
      */
-    public MoveCommand(Player player) {
-        this.player = player;
+    public MoveCommand(Game game, int from, int to) {
+        this.game = game;
+        this.from = from;
+        this.to = to;
     }
 
     /**
-     * Execute the move command for the current player
+     * Execute the move command for the player to move
      * @return true if the command has been successfully executed, else false
      */
     @Override
     public boolean execute() {
-        return player.move();
+        return game.move(from, to);
     }
 }
@@ -1,30 +1,38 @@
 package command;
 
-import model.Player;
+import model.Game;
 
 /**
  * The RemoveCommand class implements the Command interface and its main responsibility is to
- * execute the remove token logic provided by the Player class.
+ * execute the remove token logic provided by the Game class.
  */
 public class RemoveCommand implements Command {
     /**
-     * Player instance to execute the command
+     * Game instance to execute the command on
      */
-    private Player player;
+    private Game game;
+
+    /**
+     * an integer represents the index of the node of the opponent token to remove
+     */
+    private int index;
 
     /**
      * Constructor
+     * @param game the Game instance to execute the command on
+     * @param index the index of the node of the opponent token to remove
      */
-    public RemoveCommand(Player player) {
-        this.player = player;
+    public RemoveCommand(Game game, int index) {
+        this.game = game;
+        this.index = index;
     }
 
     /**
-     * Execute the remove command for the current player
+     * Execute the remove command for the player to move
      * @return true if the command has been successfully executed, else false
      */
     @Override
     public boolean execute() {
-        return player.remove();
+        return game.remove(index);
     }
 }
@@ -1,30 +1,38 @@
 package command;
 
-import model.Player;
+import model.Game;
 
 /**
  * The SetCommand class implements the Command interface and its main responsibility is to execute
- * the set token logic provided by the Player class.
+ * the set token logic provided by the Game class.
  */
 public class SetCommand implements Command {
     /**
-     * Player instance to execute the command
+     * Game instance to execute the command on
      */
-    private Player player;
+    private Game game;
+
+    /**
+     * an integer represents the index of the node to set
+     */
+    private int to;
 
     /**
      * Constructor
+     * @param game the Game instance to execute the command on
+     * @param to the index of the node to set
      */
-    public SetCommand(Player player) {
-        this.player = player;
+    public SetCommand(Game game, int to) {
+        this.game = game;
+        this.to = to;
     }
 
     /**
-     * Execute the set command for the current player
+     * Execute the set command for the player to move
      * @return true if the command has been successfully executed, else false
      */
     @Override
     public boolean execute() {
-        return player.set();
+        return game.set(to);
     }
 }
@@ -1,30 +1,32 @@
 package controller;
 
 import command.*;
-import memento.GameStateMemento;
+import engine.Difficulty;
+import engine.HintAnalyzer;
+import engine.SearchLimits;
+import engine.SearchResult;
 import model.*;
 import view.GameView;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseEvent;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * The Board and GameView of the game, as well as the processing of user interactions, are all managed by
- * the GameController class. The GameController class generates the game and executes the appropriate
- * actions in response to user clicks. The GameController also keeps a Command instance that serves as a
- * representation of the game's current state and aids in carrying out the appropriate logic. The
- * GameController keeps track of the node that is now being clicked in order to determine which node
- * is being clicked and execute the proper game logic.
+ * the GameController class. The rules are played on a Game, and the GameController is a client of it: it
+ * turns the user clicks into Command instances that play a set, move, jump or remove on the Game, and syncs
+ * the Board, the players and the messages with the Game afterwards. The GameController keeps track of the
+ * node that is now being clicked in order to determine which node is being clicked and execute the proper
+ * command. The Game keeps every turn as one complete move, the set, move or jump together with the remove of
+ * a mill, so a turn is undone in one step. Computer moves are played in one step as well by applyMove, without
+ * going through the commands and the REMOVE state.
  */
 public class GameController {
-    /**
-     * A singleton gameController instance
-     */
-    private static GameController gameController;
-
     /**
      * instance of the GameView class
      */
@@ -36,9 +38,9 @@ public class GameController {
     private Board board;
 
     /**
-     * instance of the GameState class to indicate the current game state
+     * instance of the Game class that plays the rules of the game
      */
-    private GameState currentState;
+    private final Game game = new Game();
 
     /**
      * instance of the Player class to indicate the current player to perform the command
@@ -81,25 +83,81 @@ public class GameController {
     private Player[] players = new Player[NUM_OF_PLAYERS];
 
     /**
-     * an Array List to stores the GameStateMemento instances
+     * a boolean to indicate if now playing with computer or not
      */
-    private List<GameStateMemento> gameStateMementos = new ArrayList<>();
+    private boolean playWithComputer = false;
 
     /**
-     * a boolean to indicate if now playing with computer or not
+     * instance of the Difficulty class the computer plays at, null for the default time-managed play
      */
-    private boolean playWithComputer = false;
+    private Difficulty difficulty;
 
+    /**
+     * an ExecutorService instance that computes the computer moves off the event dispatch thread
+     */
+    private final ExecutorService engineExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "engine");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /**
-     * Get the singleton instance of GameController
-     * @return GameController singleton instance
+     * a Future instance of the computer move being computed, null if the computer is not thinking
      */
-    public static GameController getInstance() {
-        if (gameController == null) {
-            gameController = new GameController();
-        }
-        return gameController;
+    private Future<?> computerTask;
+
+    /**
+     * instance of the SearchLimits class of the computer move being computed
+     */
+    private SearchLimits computerLimits;
+
+    /**
+     * an integer represents the id of the search whose result is the computer move being computed
+     */
+    private int computerSearchId;
+
+    /**
+     * a Future instance of the search running on the human's time, null if the computer is not pondering
+     */
+    private Future<?> ponderTask;
+
+    /**
+     * instance of the SearchLimits class of the search running on the human's time
+     */
+    private SearchLimits ponderLimits;
+
+    /**
+     * an integer represents the id of the search running on the human's time
+     */
+    private int ponderSearchId;
+
+    /**
+     * a long represents the hash of the position the computer is pondering, the position after the predicted
+     * human move
+     */
+    private long ponderHash;
+
+    /**
+     * instance of the ComputerPlayer class that is pondering, null if the computer is not pondering
+     */
+    private ComputerPlayer ponderingPlayer;
+
+    /**
+     * instance of the HintAnalyzer class that finds the best moves of the human player in the background
+     */
+    private final HintAnalyzer hintAnalyzer = new HintAnalyzer();
+
+    /**
+     * an integer that counts the searches submitted to the engine thread, so the result of a search that was
+     * cancelled or missed is dropped
+     */
+    private int searchCounter;
+
+    /**
+     * Constructor. Every window of the application has a GameController of its own, with its own board,
+     * players and Game, so several games can be open at once.
+     */
+    public GameController() {
     }
 
     /**
@@ -108,26 +166,27 @@ public class GameController {
     public void startGame(boolean playWithComputer) {
         // create board and game view
         board = new Board();
-        gameView = new GameView(false);
+        gameView = new GameView(this, false);
 
         // create players
         players[0] = new HumanPlayer(TokenColor.WHITE);
 
         if (playWithComputer){
-            players[1] = new ComputerPlayer(TokenColor.BLACK);
+            players[1] = new ComputerPlayer(TokenColor.BLACK, difficulty);
         }else{
             players[1] = new HumanPlayer(TokenColor.BLACK);
         }
 
         // set initial state and player
+        game.reset();
         currentPlayer = getFirstPlayer();
-        setCurrentState(GameState.SET);
 
         // initial message displayed
         gameView.setMessage("<html>Game starts and goooood luck! " + currentPlayer.getTokenType() + " to set.<html>");
 
         // set playWithComputer attribute depending on value of input argument
         this.playWithComputer = playWithComputer;
+        analyzeForHint();
     }
 
     /**
@@ -137,10 +196,11 @@ public class GameController {
     public void startTutorial() {
         // create board and gameView one
         board = new Board();
-        gameView = new GameView(true);
+        gameView = new GameView(this, true);
 
         players[0] = new HumanPlayer(TokenColor.WHITE);
         players[1] = new ComputerPlayer(TokenColor.BLACK);
+        game.reset();
         currentPlayer = getFirstPlayer();
 
         // Welcome message for tutorial
@@ -173,55 +233,34 @@ public class GameController {
      * game state.
      */
     private void identifyCommandToExecute() {
+        int index = clickedNode.getIndexOnBoard();
+
         // respond according to current game state
-        switch (currentState) {
+        switch (game.getState()) {
             case SET:
-                command = new SetCommand(currentPlayer);
+                command = new SetCommand(game, index);
                 break;
             case REMOVE:
-                command = new RemoveCommand(currentPlayer);
+                command = new RemoveCommand(game, index);
                 break;
             case MOVE:
-                command = null;
-                // no prior token has been selected
-                if (!currentPlayer.isComputer()) {
-                    if (board.getSelectedNode() == null) {
-                        if (clickedNode.isOccupied()) {
-                            board.setSelectedNode(clickedNode);;
-                            board.notifyObservers();
-                        }
-                    } else {
-                        if (board.getSelectedNode() == clickedNode){
-                            board.setSelectedNode(null);
-                        }
-                        else {
-                            command = new MoveCommand(currentPlayer);
-                        }
-                }
-                } else {
-                    command = new MoveCommand(currentPlayer);
-                }
-                break;
             case JUMP:
                 command = null;
                 // no prior token has been selected
-                if (!currentPlayer.isComputer()) {
-                    if (board.getSelectedNode() == null) {
-                        if (clickedNode.isOccupied()) {
-                            board.setSelectedNode(clickedNode);;
-                            board.notifyObservers();
-                        }
-                    } else {
-                        if (board.getSelectedNode() == clickedNode){
-                            board.setSelectedNode(null);
-                        }
-                        else {
-                            command = new JumpCommand(currentPlayer);
-                        }
+                if (board.getSelectedNode() == null) {
+                    if (clickedNode.isOccupied()) {
+                        board.setSelectedNode(clickedNode);
+                        board.notifyObservers();
                     }
                 } else {
-                    command = new JumpCommand(currentPlayer);
-//                }
+                    if (board.getSelectedNode() == clickedNode){
+                        board.setSelectedNode(null);
+                    }
+                    else {
+                        int from = board.getSelectedNode().getIndexOnBoard();
+                        command = game.getState() == GameState.MOVE ? new MoveCommand(game, from, index)
+                                                                    : new JumpCommand(game, from, index);
+                    }
                 }
                 break;
         }
@@ -229,76 +268,24 @@ public class GameController {
 
     /**
      * This method is responsible for updating the game state based on the current situation of the game.
-     * It executes the appropriate command and performs necessary verifications to determine the resulting
-     * game state.
+     * It executes the appropriate command on the Game and syncs the board, the players and the message with
+     * the resulting game state.
      */
     private void updateGameState() {
-        // used to store command execution status
-        boolean status = false;
-
-        // used to store if mill exists
-        boolean mill = false;
-
-        // 1. execute command
-        // 2. verify if mill exists after command execution
-        if (command != null) {
-            status = command.execute();
-            if (status) {
-                if (!currentPlayer.isComputer()){
-                    mill = board.isMillExists(clickedNode, currentPlayer);
-                } else{
-                    ComputerPlayer computerPlayer = (ComputerPlayer) currentPlayer;
-                    mill = board.isMillExists(computerPlayer.getExecutedNode(), currentPlayer);
-                    computerPlayer.setExecutedNode(null);
-                }
-            } else {
-                board.setSelectedNode(null);
-            }
+        // execute command, a failed command drops the selected token
+        if (command == null) {
+            return;
         }
-        System.out.println("Current state" + currentState);
-        System.out.println(getCurrentPlayer().getTokenColor());
-        System.out.println(board.getSelectedNode());
-
-        // 3. if mill exists and board has a removable token, switch to REMOVE state
-        // 4. if mill does not exist but command executes successfully, switch player
-        if (mill) {
-            if (board.hasRemovableToken(currentPlayer)) {
-                // save current game state to memento
-                System.out.println("mill" + currentPlayer.getTokenColor());
-                gameStateMementos.add(saveStateToMemento());
-                currentState = GameState.REMOVE;
-                gameView.setMessage(currentPlayer.getTokenType() + "'s turn to remove.");
-            } else {
-                switchPlayer();
-                gameView.setMessage("All tokens are in mill, remove not available. " + currentPlayer.getTokenType() + "'s turn now.");
-            }
-        } else if (status) {
-            // handle remove command execution
-            // retrieve previous game state from memento
-            if (gameStateMementos.size() > 0) {
-                restoreStateFromMemento(gameStateMementos.remove(gameStateMementos.size() - 1));
-            }
-            switchPlayer();
-            gameView.setMessage(currentPlayer.getTokenType() + "'s turn to set.");
+        if (!command.execute()) {
+            board.setSelectedNode(null);
+            return;
         }
+        syncWithGame();
 
-        if (currentState != GameState.REMOVE) {
-            // verify if the game is ready to transition to MOVE
-            if (isReadyToMove()) {
-                currentState = GameState.MOVE;
-                gameView.setMessage(currentPlayer.getTokenType() + "'s turn to move.");
-            }
-            // verify if the game is ready to transition to JUMP
-            if (isReadyToJump()) {
-                currentState = GameState.JUMP;
-                gameView.setMessage(currentPlayer.getTokenType() + "'s turn to jump.");
-            }
-            // verify if the game is ready to end
-            if (isReadyToEnd()) {
-                switchPlayer();
-                gameView.setMessage(currentPlayer.getTokenType() + " wins!");
-                showRematchOption();
-            }
+        if (game.getState() == GameState.REMOVE) {
+            gameView.setMessage(currentPlayer.getTokenType() + "'s turn to remove.");
+        } else {
+            showTurnMessage();
         }
     }
 
@@ -307,6 +294,11 @@ public class GameController {
      * @param event provides information about the specific mouse event that occurred
      */
     public void processClick(MouseEvent event) {
+        // ignore clicks while the computer is thinking or about to play, it plays its moves in one step
+        if (isComputerThinking() || currentPlayer.isComputer()) {
+            return;
+        }
+
         // get node at click position
         clickedNode = getNodeAtClickPos(event.getPoint());
 
@@ -314,104 +306,247 @@ public class GameController {
         if (clickedNode != null) {
             identifyCommandToExecute();
             updateGameState();
-            if (currentState == GameState.REMOVE){
-                identifyCommandToExecute();
-                updateGameState();
-            }
         }
     }
 
     /**
-     * This method is designed to handle the computer command based on the current game state and its
-     * situation. Similar to the processClick method, it invokes the identifyCommandToExecute and
-     * updateGameState methods to determine and execute the appropriate command.
+     * Play a complete move for the current player in one step: the set, move or jump and the remove it
+     * triggers are played on the Game at once and synced back to the board, the players and the current
+     * player, without going through the commands and the REMOVE state.
+     * @param move the encoded move
+     * @return true if the move is legal and has been played, else false
      */
-    public void processComputerCommand() {
-        if (currentPlayer.isComputer()){
-            identifyCommandToExecute();
-            updateGameState();
-            if (currentState == GameState.REMOVE){
-                identifyCommandToExecute();
-                updateGameState();
-            }
+    public boolean applyMove(int move) {
+        if (!game.applyMove(move)) {
+            return false;
+        }
+        syncWithGame();
+        showTurnMessage();
+        return true;
+    }
+
+    /**
+     * Show whose turn it is once a turn is over, or the winner and the rematch option if the game is over
+     */
+    private void showTurnMessage() {
+        if (game.isOver()) {
+            gameView.setMessage(getPlayer(game.getWinner()).getTokenType() + " wins!");
+            showRematchOption();
+        } else {
+            gameView.setMessage(currentPlayer.getTokenType() + "'s turn to " +
+                                game.getState().toString().toLowerCase() + ".");
+            analyzeForHint();
+        }
+    }
+
+    /**
+     * Undo the last complete move in one step, including the remove of a mill, or take back a turn waiting for
+     * its remove. The computer move being computed, if any, is dropped.
+     * @return true if a move has been undone, else false
+     */
+    public boolean undoMove() {
+        cancelComputerMove();
+        if (!game.undoMove()) {
+            return false;
         }
+        syncWithGame();
+        gameView.setMessage(currentPlayer.getTokenType() + "'s turn to " + game.getState().toString().toLowerCase() +
+                            ".");
+        analyzeForHint();
+        return true;
     }
 
+    /**
+     * Start the analysis of the hint of the current position in the background if a human is to move, so the
+     * hint is ready when it is asked for
+     */
+    private void analyzeForHint() {
+        if (!currentPlayer.isComputer() && !game.isOver()) {
+            hintAnalyzer.analyze(game.getPosition());
+        }
+    }
 
     /**
-     * Verify if the game should switch to MOVE. It achieves this by checking one conditions:
-     * the all the tokens for both players have been placed on the board
-     * @return true if the condition met, else false
+     * Retrieve the hint of the current position: the best moves with their scores, best first. The analysis
+     * is cached by position, so asking again for the same position never starts a new search.
+     * @return the future SearchResult instance of each move of the hint
      */
-    private boolean isReadyToMove() {
-        return players[0].getTokensToSet() == 0 && players[1].getTokensToSet() == 0;
+    public CompletableFuture<SearchResult[]> getHint() {
+        return hintAnalyzer.analyze(getPosition());
     }
 
     /**
-     * Verify if the game should switch to JUMP. It achieves this by checking two conditions:
-     * the number of tokens on the board must be equal to three, and the player must not be in the
-     * process of placing tokens.
-     * @return true if the condition met, else false
+     * This method is designed to handle the computer command based on the current game state and its
+     * situation. The move is computed on the engine thread from a snapshot of the game, and then played on
+     * the event dispatch thread by applyComputerMove, so the view keeps painting while the computer thinks.
+     * If the computer was pondering the position the human just reached (ponderhit), that search becomes the
+     * computer move and its clock starts now; any other ponder search is stopped and dropped.
      */
-    private boolean isReadyToJump() {
-        return currentState != GameState.SET && currentPlayer.getTokensOnBoard() == 3;
+    public void processComputerCommand() {
+        if (currentPlayer.isComputer() && !isComputerThinking()){
+            // the hint analysis of the human position is of no use anymore, leave the processor to the computer
+            hintAnalyzer.stop();
+            ComputerPlayer computerPlayer = (ComputerPlayer) currentPlayer;
+            Position position = getPosition();
+
+            if (ponderTask != null) {
+                if (ponderingPlayer == computerPlayer && ponderHash == position.getHash() && !ponderTask.isDone()) {
+                    computerTask = ponderTask;
+                    computerLimits = ponderLimits;
+                    computerSearchId = ponderSearchId;
+                    ponderTask = null;
+                    ponderingPlayer = null;
+                    computerLimits.ponderhit();
+                    gameView.setThinking(true);
+                    return;
+                }
+                stopPondering();
+            }
+
+            computerLimits = computerPlayer.newSearchLimits(false);
+            computerSearchId = ++searchCounter;
+            computerTask = submitSearch(computerSearchId, computerPlayer, position, computerLimits);
+            gameView.setThinking(true);
+        }
     }
 
     /**
-     * Verify if the token still has any legal move for the current player.
-     * @return true if there is at least one legal move else false
+     * Submit a search to the engine thread. Its result is handed to applyComputerMove on the event dispatch
+     * thread.
+     * @param searchId the id of the search
+     * @param computerPlayer the ComputerPlayer instance that searches
+     * @param position the Position instance to search, not shared with the board
+     * @param limits the SearchLimits instance of the search
+     * @return the Future instance of the search
+     */
+    private Future<?> submitSearch(int searchId, ComputerPlayer computerPlayer, Position position, SearchLimits limits) {
+        return engineExecutor.submit(() -> {
+            SearchResult result = null;
+            try {
+                result = computerPlayer.think(position, limits);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+            SearchResult searchResult = result;
+            SwingUtilities.invokeLater(() -> applyComputerMove(searchId, computerPlayer, position, searchResult));
+        });
+    }
+
+    /**
+     * Play a move computed on the engine thread. The set, move or jump and the remove it triggers are played
+     * in one step by applyMove on the event dispatch thread, so the view never paints half of the move. The move is dropped
+     * if it is not the result of the computer move being computed, which happens after a restart or a missed
+     * ponder search. Once the move is played, the computer ponders the reply it predicts for the human.
+     * @param searchId the id of the search
+     * @param computerPlayer the ComputerPlayer instance that computed the move
+     * @param position the Position instance that was searched
+     * @param result the SearchResult instance of the search, null if the search failed
      */
-    private boolean isThereLegalMove(){
-        // for each node
-        for (NodeTriplet nodeTriplet : board.getNodeTriplets()) {
-            for (Node node : nodeTriplet.getNodes()) {
-                // if the token color of the node is equal to the current player
-                if(node.getTokenColor() == currentPlayer.getTokenColor()){
-                    // check if any of the neighbor is empty
-                    for (Node neighbour : node.getNeighbors()){
-                        // if one of them is empty, it means there is at least one legal move
-                        if (neighbour.isEmpty()){
-                            return true;
-                        }
-                    }
+    private void applyComputerMove(int searchId, ComputerPlayer computerPlayer, Position position, SearchResult result) {
+        if (computerTask == null || searchId != computerSearchId) {
+            return;
+        }
+        computerTask = null;
+        computerLimits = null;
+        gameView.setThinking(false);
+
+        if (currentPlayer == computerPlayer){
+            // a failed search is replaced by the first legal move rather than searching on this thread
+            boolean played = result != null && applyMove(result.getBestMove());
+            if (!played) {
+                int[] legalMoves = game.getLegalMoves();
+                if (legalMoves.length > 0) {
+                    applyMove(legalMoves[0]);
                 }
             }
+            if (played && computerPlayer.isPonderEnabled()) {
+                startPondering(computerPlayer, position, result.getPrincipalVariation());
+            }
         }
-        // else no legal move at all
-        return false;
     }
 
     /**
-     * Verify if the game should end. It achieves this by checking two conditions:
-     * the number of tokens on the board for any player must be less than three, the player
-     * must not be in the process of placing tokens and the current player must not have
-     * any legal move to perform.
-     * @return true if the condition met, else false
+     * Search the position after the human reply predicted by the principal variation, while the human thinks
+     * @param computerPlayer the ComputerPlayer instance that ponders
+     * @param position the Position instance the principal variation starts from
+     * @param principalVariation the moves of the principal variation, the computer move first
      */
-    private boolean isReadyToEnd() {
-        if (currentState != GameState.SET && (players[0].getTokensOnBoard() < 3 || players[1].getTokensOnBoard() < 3 || !isThereLegalMove())) {
-            System.out.println("p1"+players[0].getTokensOnBoard());
-            System.out.println("p2"+players[1].getTokensOnBoard());
-            System.out.println(isThereLegalMove());
-            return true;
+    private void startPondering(ComputerPlayer computerPlayer, Position position, int[] principalVariation) {
+        if (principalVariation.length < 2 || currentPlayer.isComputer()) {
+            return;
+        }
+
+        // ponder only if the board is where the search expected it, e.g. not after a restart
+        Position ponderPosition = new Position();
+        ponderPosition.copyFrom(position);
+        ponderPosition.makeMove(principalVariation[0]);
+        if (ponderPosition.getHash() != getPosition().getHash()) {
+            return;
+        }
+        ponderPosition.makeMove(principalVariation[1]);
+        if (ponderPosition.isGameOver()) {
+            return;
         }
-        return false;
+
+        ponderingPlayer = computerPlayer;
+        ponderHash = ponderPosition.getHash();
+        ponderLimits = computerPlayer.newSearchLimits(true);
+        ponderSearchId = ++searchCounter;
+        ponderTask = submitSearch(ponderSearchId, computerPlayer, ponderPosition, ponderLimits);
     }
 
     /**
-     * Switch the player
+     * Stop the search running on the human's time, if any, and drop its result
      */
-    private void switchPlayer() {
-        if (currentPlayer == players[0]) {
-            currentPlayer = players[1];
-        } else {
-            currentPlayer = players[0];
+    private void stopPondering() {
+        if (ponderTask != null) {
+            ponderLimits.stop();
+            ponderTask.cancel(false);
+            ponderTask = null;
+            ponderLimits = null;
+            ponderingPlayer = null;
         }
     }
 
+    /**
+     * Stop the computer move being computed and the search running on the human's time, if any, and drop
+     * their results
+     */
+    private void cancelComputerMove() {
+        stopPondering();
+        if (computerTask != null) {
+            computerLimits.stop();
+            computerTask.cancel(false);
+            computerTask = null;
+            computerLimits = null;
+        }
+        if (gameView != null) {
+            gameView.setThinking(false);
+        }
+    }
+
+    /**
+     * Determine if the computer is computing a move
+     * @return true if the computer is thinking, else false
+     */
+    public boolean isComputerThinking() {
+        return computerTask != null;
+    }
+
+
+    /**
+     * Retrieve the player of a token color
+     * @param tokenColor token color of the player
+     * @return the Player instance with the token color
+     */
+    private Player getPlayer(TokenColor tokenColor) {
+        return players[0].getTokenColor() == tokenColor ? players[0] : players[1];
+    }
+
     /**
      * Presenting a dialog box to the user when the game has ended. This dialog box displays a message
-     * indicating that the game has ended and provides the option to initiate a rematch.
+     * indicating that the game has ended and provides the option to initiate a rematch. Declining closes the
+     * window of this game only.
      */
     private void showRematchOption() {
         String[] options = {"Yes", "Play With Computer", "No"};
@@ -433,7 +568,8 @@ public class GameController {
                 rebuild(true);
             }
         } else {
-            System.exit(0);
+            // only this game ends, the other games and the main menu stay open
+            dispose();
         }
     }
 
@@ -442,30 +578,63 @@ public class GameController {
      * the restart process.
      */
     public void restart() {
+        cancelComputerMove();
         board.resetBoard();
-        currentState = GameState.SET;
-        currentPlayer = players[0];
-        players[0].resetPlayerTokens();
-        players[1].resetPlayerTokens();
-        board.notifyObservers();
+        game.reset();
+        syncWithGame();
         gameView.setMessage("Game starts and goooood luck! " + currentPlayer.getTokenType() + " to set.");
+        analyzeForHint();
     }
 
     /**
      * Rebuild a game with options to play against computer or human
      */
     public void rebuild(boolean vsComputer) {
+        cancelComputerMove();
+
         // Close the current GameView
         gameView.close();
 
-        gameView = new GameView(false);
+        gameView = new GameView(this, false);
+        releaseEngine(players[1]);
         if (vsComputer) {
-            players[1] = new ComputerPlayer(TokenColor.BLACK);
+            players[1] = new ComputerPlayer(TokenColor.BLACK, difficulty);
         } else {
             players[1] = new HumanPlayer(TokenColor.BLACK);
         }
     }
 
+    /**
+     * Release everything this controller holds for its game: the computer move being computed is dropped, the
+     * hint analysis, the engine thread and the engines of the computer players are shut down and the window is
+     * closed. The controller cannot be used afterwards. It is called when the window of the game is closed.
+     */
+    public void dispose() {
+        if (engineExecutor.isShutdown()) {
+            return;
+        }
+        cancelComputerMove();
+        hintAnalyzer.shutdown();
+        for (Player player : players) {
+            releaseEngine(player);
+        }
+        engineExecutor.shutdown();
+        if (gameView != null) {
+            gameView.close();
+        }
+    }
+
+    /**
+     * Shut down the engine of a computer player that leaves the game. It is shut down on the engine thread,
+     * after the search it may still be finishing.
+     * @param player the Player instance, nothing is done for a human player
+     */
+    private void releaseEngine(Player player) {
+        if (player instanceof ComputerPlayer computerPlayer) {
+            engineExecutor.execute(computerPlayer::shutdown);
+        }
+    }
+
     /**
      * Return the board of this GameController instance
      * @return a board instance
@@ -515,27 +684,51 @@ public class GameController {
     }
 
     /**
-     * Setter of currentState
-     * @param currentState the GameState instance that represents the current state of the game
+     * Retrieve the Position of the current game
+     * @return a copy of the Position instance of the Game
      */
-    public void setCurrentState(GameState currentState) {
-        this.currentState = currentState;
+    public Position getPosition() {
+        return game.getPosition();
     }
 
     /**
-     * Save current game state inside a memento
-     * @return a GameStateMemento instance
+     * Start the game again from a Position and sync the board, the players and the current player with it
+     * @param position the Position instance to load
      */
-    private GameStateMemento saveStateToMemento() {
-        return new GameStateMemento(currentState);
+    public void loadPosition(Position position) {
+        cancelComputerMove();
+        game.load(position);
+        syncWithGame();
     }
 
     /**
-     * Restore previous game state using a memento object
-     * @param memento the GameStateMemento instance to restore previous game state
+     * Sync the board, the players and the current player with the position of the Game
      */
-    private void restoreStateFromMemento(GameStateMemento memento) {
-        this.currentState = memento.getGameState();
+    private void syncWithGame() {
+        Position position = game.getPosition();
+        board.setOccupancy(position.getOccupancy(Position.WHITE), position.getOccupancy(Position.BLACK));
+        board.setSelectedNode(null);
+        for (Player player : players) {
+            player.syncWithPosition(position);
+        }
+        currentPlayer = getPlayer(game.getSideToMove());
+        board.notifyObservers();
+    }
+
+    /**
+     * Return the gameRecord of this GameController instance
+     * @return a GameRecord instance
+     */
+    public GameRecord getGameRecord() {
+        return game.getRecord();
+    }
+
+    /**
+     * Return the game of this GameController instance
+     * @return a Game instance
+     */
+    public Game getGame() {
+        return game;
     }
 
     /**
@@ -543,7 +736,23 @@ public class GameController {
      * @return a GameState instance
      */
     public GameState getCurrentState() {
-        return currentState;
+        return game.getState();
+    }
+
+    /**
+     * Return the difficulty of this GameController instance
+     * @return a Difficulty instance, null for the default time-managed play
+     */
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Setter of difficulty. It applies to the computer players created from now on.
+     * @param difficulty the Difficulty instance the computer plays at, null for the default time-managed play
+     */
+    public void setDifficulty(Difficulty difficulty) {
+        this.difficulty = difficulty;
     }
 
     /**
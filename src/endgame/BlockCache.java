@@ -0,0 +1,83 @@
+package endgame;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The BlockCache class keeps the most recently used decompressed blocks of the packed endgame tables. It holds at
+ * most a fixed number of blocks for all the tables of a database together and drops the least recently used one
+ * when it is full, so the memory of the endgame databases stays bounded whatever their size on disk.
+ */
+public class BlockCache {
+    /**
+     * a String represents the system property that overrides the default number of cached blocks
+     */
+    public static final String SIZE_PROPERTY = "endgame.cacheBlocks";
+
+    /**
+     * an integer represents the default number of cached blocks
+     */
+    public static final int DEFAULT_SIZE_IN_BLOCKS = 256;
+
+    /**
+     * an integer represents the most blocks kept
+     */
+    private final int maxBlocks;
+
+    /**
+     * a LinkedHashMap in access order that stores the blocks by key
+     */
+    private final LinkedHashMap<Long, byte[]> blocks;
+
+    /**
+     * Constructor
+     * @param maxBlocks the most blocks kept
+     */
+    public BlockCache(int maxBlocks) {
+        if (maxBlocks <= 0) {
+            throw new IllegalArgumentException("The block cache needs room for at least 1 block");
+        }
+        this.maxBlocks = maxBlocks;
+        this.blocks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                return size() > BlockCache.this.maxBlocks;
+            }
+        };
+    }
+
+    /**
+     * Retrieve the configured number of cached blocks, DEFAULT_SIZE_IN_BLOCKS unless overridden by the system
+     * property SIZE_PROPERTY, e.g. -Dendgame.cacheBlocks=1024
+     * @return the number of blocks
+     */
+    public static int getConfiguredSizeInBlocks() {
+        return Integer.getInteger(SIZE_PROPERTY, DEFAULT_SIZE_IN_BLOCKS);
+    }
+
+    /**
+     * Retrieve a block and mark it as the most recently used
+     * @param key the key of the block
+     * @return the block, or null if it is not cached
+     */
+    public synchronized byte[] get(long key) {
+        return blocks.get(key);
+    }
+
+    /**
+     * Keep a block, dropping the least recently used one if the cache is full
+     * @param key the key of the block
+     * @param block the decompressed block
+     */
+    public synchronized void put(long key, byte[] block) {
+        blocks.put(key, block);
+    }
+
+    /**
+     * Return the maxBlocks of this BlockCache instance
+     * @return an integer represents the most blocks kept
+     */
+    public int getMaxBlocks() {
+        return maxBlocks;
+    }
+}
@@ -0,0 +1,252 @@
+package endgame;
+
+import model.GameState;
+import model.Move;
+import model.MoveGenerator;
+import model.Position;
+import model.Symmetry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The EndgameDatabase class answers the value of the positions of the MOVE and JUMP phases from the tables
+ * written by the EndgameGenerator, and picks the moves of perfect play from them. Tables are opened from their
+ * directory the first time they are needed: the compact files of PackedEndgameTable are memory mapped and share
+ * one BlockCache, so the memory used stays bounded. The generator adds the tables it is solving on the heap. A
+ * table that is missing makes its positions UNKNOWN, so the caller can fall back to a search.
+ */
+public class EndgameDatabase {
+    /**
+     * a String represents the system property that overrides the default directory of the tables
+     */
+    public static final String DIRECTORY_PROPERTY = "endgame.dir";
+
+    /**
+     * a String represents the default directory of the tables
+     */
+    public static final String DEFAULT_DIRECTORY = "endgame";
+
+    /**
+     * a Path instance represents the directory of the tables
+     */
+    private final Path directory;
+
+    /**
+     * instance of the BlockCache class shared by the compact files
+     */
+    private final BlockCache blockCache;
+
+    /**
+     * a Map that stores the tables opened so far by sub-database key, empty for a missing table
+     */
+    private final Map<Integer, Optional<EndgameLookup>> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor. Uses the directory of the system property DIRECTORY_PROPERTY, e.g. -Dendgame.dir=/data/mill
+     */
+    public EndgameDatabase() {
+        this(Paths.get(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY)));
+    }
+
+    /**
+     * Constructor
+     * @param directory the directory of the tables
+     */
+    public EndgameDatabase(Path directory) {
+        this(directory, BlockCache.getConfiguredSizeInBlocks());
+    }
+
+    /**
+     * Constructor
+     * @param directory the directory of the tables
+     * @param cacheBlocks the most decompressed blocks kept, more for the generator, which probes its dependencies
+     *                    all over
+     */
+    EndgameDatabase(Path directory, int cacheBlocks) {
+        this.directory = directory;
+        this.blockCache = new BlockCache(cacheBlocks);
+    }
+
+    /**
+     * Retrieve the database of the configured directory shared by the whole process, so every computer player
+     * maps the files once and probes through one BlockCache. It is opened on first use.
+     * @return the shared EndgameDatabase instance
+     */
+    public static EndgameDatabase getShared() {
+        return SharedHolder.DATABASE;
+    }
+
+    /**
+     * Return the directory of this EndgameDatabase instance
+     * @return a Path instance
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Retrieve the table of a sub-database, opening it on first use
+     * @param ownTokens the number of tokens of the side to move
+     * @param opponentTokens the number of tokens of the opponent
+     * @return the EndgameLookup instance, or null if it is not available
+     */
+    public EndgameLookup getTable(int ownTokens, int opponentTokens) {
+        Optional<EndgameLookup> table = tables.get(getKey(ownTokens, opponentTokens));
+        if (table != null) {
+            return table.orElse(null);
+        }
+        return tables.computeIfAbsent(getKey(ownTokens, opponentTokens), key -> {
+            if (!PackedEndgameTable.exists(directory, ownTokens, opponentTokens)) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(new PackedEndgameTable(directory, ownTokens, opponentTokens, blockCache));
+            } catch (IOException e) {
+                System.out.println("Cannot read endgame database: " + e.getMessage());
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    /**
+     * Keep a table in memory, e.g. one being generated
+     * @param table the EndgameTable instance
+     */
+    void putTable(EndgameTable table) {
+        tables.put(getKey(table.getOwnTokens(), table.getOpponentTokens()), Optional.of(table));
+    }
+
+    /**
+     * Forget a table, e.g. one generated and written to its directory. It is opened again from its directory
+     * when needed.
+     * @param ownTokens the number of tokens of the side to move
+     * @param opponentTokens the number of tokens of the opponent
+     */
+    void removeTable(int ownTokens, int opponentTokens) {
+        tables.remove(getKey(ownTokens, opponentTokens));
+    }
+
+    /**
+     * Look up the value of a position from the point of view of its side to move
+     * @param position the Position instance
+     * @return the value as encoded by EndgameTable, or EndgameTable.UNKNOWN if the position is not available
+     */
+    public short probe(Position position) {
+        if (position.getTokensToSet(Position.WHITE) != 0 || position.getTokensToSet(Position.BLACK) != 0 ||
+            position.getState() == GameState.REMOVE) {
+            return EndgameTable.UNKNOWN;
+        }
+        int color = position.getSideToMove();
+        int own = position.getOccupancy(color);
+        int opponent = position.getOccupancy(color ^ 1);
+        if (Integer.bitCount(own) < EndgameIndex.MIN_TOKENS) {
+            return EndgameTable.loss(0);
+        }
+        if (!EndgameIndex.isEndgame(position)) {
+            return EndgameTable.UNKNOWN;
+        }
+        EndgameLookup table = getTable(Integer.bitCount(own), Integer.bitCount(opponent));
+        if (table == null) {
+            return EndgameTable.UNKNOWN;
+        }
+        int transform = Symmetry.getCanonicalTransform(own, opponent);
+        return table.get(EndgameIndex.indexOf(Symmetry.transformMask(transform, own),
+                                              Symmetry.transformMask(transform, opponent)));
+    }
+
+    /**
+     * Determine if the table of a position holds the distances to the results
+     * @param position the Position instance
+     * @return true if the position is available with its distance, else false
+     */
+    public boolean hasDistances(Position position) {
+        if (!EndgameIndex.isEndgame(position)) {
+            return false;
+        }
+        int color = position.getSideToMove();
+        EndgameLookup table = getTable(position.getTokensOnBoard(color), position.getTokensOnBoard(color ^ 1));
+        return table != null && table.hasDistances();
+    }
+
+    /**
+     * Pick the move of perfect play: the fastest win, else a draw, else the slowest loss. A won position is only
+     * played from tables that hold the distances, since without them the fastest win cannot be told apart and
+     * the play could go round in circles.
+     * @param position the Position instance
+     * @return the encoded move, or Move.NULL_MOVE if there is no legal move, a move leads to a position that
+     * is not available or a win cannot be converted without distances
+     */
+    public int getBestMove(Position position) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(position, moves);
+        Position child = new Position();
+        int bestMove = Move.NULL_MOVE;
+        int bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            child.copyFrom(position);
+            child.makeMove(moves[i]);
+            short value = probe(child);
+            if (value == EndgameTable.UNKNOWN) {
+                return Move.NULL_MOVE;
+            }
+
+            // the value of the child is from the point of view of the opponent
+            int rank = EndgameTable.isLoss(value) ? Short.MAX_VALUE - EndgameTable.getDistance(value)
+                     : EndgameTable.isWin(value) ? Short.MIN_VALUE + EndgameTable.getDistance(value)
+                     : 0;
+            if (rank > bestRank) {
+                bestRank = rank;
+                bestMove = moves[i];
+            }
+        }
+        return bestRank > 0 && !hasDistances(position) ? Move.NULL_MOVE : bestMove;
+    }
+
+    /**
+     * Follow the moves of perfect play from a position
+     * @param position the Position instance, left unchanged
+     * @param maxLength the most moves to follow
+     * @return the moves, which end early when the game is over or a position is not available
+     */
+    public int[] getPrincipalVariation(Position position, int maxLength) {
+        int[] variation = new int[maxLength];
+        Position current = new Position(position);
+        int length = 0;
+        while (length < maxLength && !current.isGameOver()) {
+            int move = getBestMove(current);
+            if (move == Move.NULL_MOVE) {
+                break;
+            }
+            variation[length++] = move;
+            current.makeMove(move);
+        }
+        return Arrays.copyOf(variation, length);
+    }
+
+    /**
+     * Retrieve the key of a sub-database
+     * @param ownTokens the number of tokens of the side to move
+     * @param opponentTokens the number of tokens of the opponent
+     * @return the key
+     */
+    private static int getKey(int ownTokens, int opponentTokens) {
+        return ownTokens * (EndgameIndex.MAX_TOKENS + 1) + opponentTokens;
+    }
+
+    /**
+     * The SharedHolder class holds the shared database, created by the class loader the first time it is asked
+     * for
+     */
+    private static class SharedHolder {
+        /**
+         * instance of the EndgameDatabase class of the configured directory
+         */
+        private static final EndgameDatabase DATABASE = new EndgameDatabase();
+    }
+}
@@ -0,0 +1,317 @@
+package endgame;
+
+import model.MoveGenerator;
+import model.Position;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+/**
+ * The EndgameGenerator class solves the endgame databases by retrograde analysis. A move without a remove from
+ * a position with (own, opponent) tokens leads to (opponent, own), and a move with a remove to
+ * (opponent - 1, own), so the two sub-databases of a pair {a, b} are solved together once the pairs
+ * {a - 1, b} and {a, b - 1} are solved. Pairs with the same total number of tokens do not depend on each other
+ * and are solved in parallel.
+ * Only the canonical positions of Symmetry are indexed and solved, which is about a 16th of them.
+ * A pair is solved in passes: pass 0 marks the positions whose side to move has already lost, and pass k marks
+ * a position as won in k plies if a move leads to a loss in less than k plies, or as lost in k plies if every
+ * move leads to a win in less than k plies. Values set during a pass do not change what that pass decides, so
+ * each pass also runs in parallel over ranges of positions. Positions left when no pass changes anything are
+ * draws. Only the pair being solved is kept on the heap: the pairs it depends on are probed from their compact
+ * files, memory mapped by PackedEndgameTable. Every solved pair is written to its own files, the working format
+ * of EndgameTable and the compact file that the computer player probes, and a pair whose working files already
+ * exist is not solved again, so an interrupted generation resumes where it stopped. The compact files hold the
+ * distances unless -wdl asks for the results only, in which case the pairs solved afterwards still get exact
+ * results, but their distances only count the plies down to their dependencies. The decompressed blocks of the
+ * dependencies are kept in a BlockCache of -cache blocks. Run it from the command line:
+ * <pre>
+ * java endgame.EndgameGenerator [-dir endgame] [-max 9] [-threads N] [-wdl] [-cache 4096]
+ * </pre>
+ */
+public class EndgameGenerator {
+    /**
+     * an integer represents the default number of decompressed blocks of the dependencies kept while solving
+     */
+    public static final int DEFAULT_CACHE_BLOCKS = 4096;
+
+    /**
+     * an integer represents the number of canonical own placements handled by one parallel range of a pass
+     */
+    private static final int OWN_PLACEMENTS_PER_RANGE = 8;
+
+    /**
+     * instance of the EndgameDatabase class that probes the solved tables and holds the pair being solved
+     */
+    private final EndgameDatabase database;
+
+    /**
+     * a ForkJoinPool instance that runs the pairs and the passes
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * a boolean represents whether the compact files hold the distances besides the results
+     */
+    private final boolean withDistances;
+
+    /**
+     * Constructor
+     * @param directory the directory the tables are written to
+     * @param threads the number of threads
+     * @param withDistances true to write the distances to the compact files, false for the results only
+     * @param cacheBlocks the most decompressed blocks of the dependencies kept, e.g. DEFAULT_CACHE_BLOCKS
+     */
+    public EndgameGenerator(Path directory, int threads, boolean withDistances, int cacheBlocks) {
+        this.database = new EndgameDatabase(directory, cacheBlocks);
+        this.pool = new ForkJoinPool(threads);
+        this.withDistances = withDistances;
+    }
+
+    /**
+     * Solve every sub-database where both players have up to a number of tokens
+     * @param maxTokens the most tokens of a player, up to EndgameIndex.MAX_TOKENS
+     */
+    public void generate(int maxTokens) {
+        int min = EndgameIndex.MIN_TOKENS;
+        for (int total = 2 * min; total <= 2 * maxTokens; total++) {
+            // the pairs of a level only depend on the previous level
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int own = min; own <= maxTokens && own <= total - own; own++) {
+                int a = own;
+                int b = total - own;
+                if (b <= maxTokens) {
+                    tasks.add(pool.submit(() -> solvePair(a, b)));
+                }
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+
+            // the level before is not probed anymore, so its files can be unmapped
+            for (int a = min; a <= total - 1 - min; a++) {
+                database.removeTable(a, total - 1 - a);
+            }
+        }
+    }
+
+    /**
+     * Solve the sub-databases (a, b) and (b, a), unless they were solved before
+     * @param a the number of tokens of one player
+     * @param b the number of tokens of the other player
+     */
+    private void solvePair(int a, int b) {
+        Path directory = database.getDirectory();
+        if (EndgameTable.exists(directory, a, b) && EndgameTable.exists(directory, b, a)) {
+            System.out.println("Endgame " + a + "-" + b + " already solved");
+            writePacked(a, b);
+            writePacked(b, a);
+            return;
+        }
+
+        long start = System.nanoTime();
+        EndgameTable[] pair = a == b ? new EndgameTable[] {new EndgameTable(a, b)}
+                                     : new EndgameTable[] {new EndgameTable(a, b), new EndgameTable(b, a)};
+        for (EndgameTable table : pair) {
+            database.putTable(table);
+        }
+
+        // the longest distance reachable through a remove bounds the passes that can still change anything
+        int maxDependencyDistance = 0;
+        for (EndgameTable table : pair) {
+            int ownTokens = table.getOpponentTokens() - 1;
+            if (ownTokens >= EndgameIndex.MIN_TOKENS) {
+                EndgameLookup dependency = database.getTable(ownTokens, table.getOwnTokens());
+                if (dependency == null) {
+                    throw new IllegalStateException("Endgame " + ownTokens + "-" + table.getOwnTokens() + " is not solved");
+                }
+                maxDependencyDistance = Math.max(maxDependencyDistance, dependency.getMaxDistance());
+            }
+        }
+
+        for (int pass = 0; pass <= EndgameTable.MAX_DISTANCE; pass++) {
+            long changed = 0;
+            for (EndgameTable table : pair) {
+                changed += runPass(table, pass);
+            }
+            if (changed == 0 && pass > maxDependencyDistance) {
+                break;
+            }
+        }
+
+        try {
+            for (EndgameTable table : pair) {
+                table.save(directory);
+                PackedEndgameTable.write(table, directory, withDistances);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // the pair is probed from its compact files from now on
+        for (EndgameTable table : pair) {
+            database.removeTable(table.getOwnTokens(), table.getOpponentTokens());
+        }
+        System.out.printf("Endgame %d-%d solved in %.1f s%n", a, b, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Write the compact file of a solved table unless it already exists. The working file is only read for that.
+     * @param ownTokens the number of tokens of the side to move
+     * @param opponentTokens the number of tokens of the opponent
+     */
+    private void writePacked(int ownTokens, int opponentTokens) {
+        Path directory = database.getDirectory();
+        if (PackedEndgameTable.exists(directory, ownTokens, opponentTokens)) {
+            return;
+        }
+        try {
+            PackedEndgameTable.write(EndgameTable.load(directory, ownTokens, opponentTokens), directory,
+                                     withDistances);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Run one pass over a table in parallel
+     * @param table the EndgameTable instance
+     * @param pass the number of the pass
+     * @return the number of positions solved by the pass
+     */
+    private long runPass(EndgameTable table, int pass) {
+        int ownPlacements = EndgameIndex.getCanonicalOwnCount(table.getOwnTokens());
+        int ranges = (ownPlacements + OWN_PLACEMENTS_PER_RANGE - 1) / OWN_PLACEMENTS_PER_RANGE;
+        return IntStream.range(0, ranges).parallel().mapToLong(range -> {
+            int first = range * OWN_PLACEMENTS_PER_RANGE;
+            return runPass(table, pass, first, Math.min(ownPlacements, first + OWN_PLACEMENTS_PER_RANGE));
+        }).sum();
+    }
+
+    /**
+     * Run one pass over the positions of a range of canonical own placements
+     * @param table the EndgameTable instance
+     * @param pass the number of the pass
+     * @param firstOrdinal the number of the first own placement
+     * @param lastOrdinal the number after the last own placement
+     * @return the number of positions solved
+     */
+    private long runPass(EndgameTable table, int pass, int firstOrdinal, int lastOrdinal) {
+        int ownTokens = table.getOwnTokens();
+        int opponentTokens = table.getOpponentTokens();
+        long opponentPlacements = EndgameIndex.getOpponentCount(ownTokens, opponentTokens);
+        Position position = new Position();
+        Position child = new Position();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        long solved = 0;
+
+        for (int ordinal = firstOrdinal; ordinal < lastOrdinal; ordinal++) {
+            int own = EndgameIndex.getCanonicalOwn(ownTokens, ordinal);
+            long index = EndgameIndex.getFirstIndex(ownTokens, opponentTokens, ordinal);
+
+            // next to an own placement without symmetries every opponent placement is canonical
+            boolean symmetric = EndgameIndex.getFirstIndex(ownTokens, opponentTokens, ordinal + 1) - index <
+                                opponentPlacements;
+            int free = Position.FULL_MASK & ~own;
+            int bits = (1 << opponentTokens) - 1;
+            for (long opponentRank = 0; opponentRank < opponentPlacements; opponentRank++) {
+                int opponent = EndgameIndex.expand(bits, free);
+                if (!symmetric || EndgameIndex.isCanonical(own, opponent)) {
+                    if (table.get(index) == EndgameTable.DRAW) {
+                        EndgameIndex.setPosition(position, own, opponent);
+                        short value = pass == 0 ? solveLost(position) : solve(position, child, moves, pass);
+                        if (value != EndgameTable.DRAW) {
+                            table.set(index, value);
+                            solved++;
+                        }
+                    }
+                    index++;
+                }
+                if (opponentRank + 1 < opponentPlacements) {
+                    bits = EndgameIndex.nextCombination(bits);
+                }
+            }
+        }
+        return solved;
+    }
+
+    /**
+     * Solve a position in pass 0
+     * @param position the Position instance
+     * @return a loss in 0 plies if the side to move has already lost, else DRAW
+     */
+    private static short solveLost(Position position) {
+        return position.isLost(position.getSideToMove()) ? EndgameTable.loss(0) : EndgameTable.DRAW;
+    }
+
+    /**
+     * Solve a position in a pass after pass 0
+     * @param position the Position instance
+     * @param child the Position instance to apply the moves on
+     * @param moves the move buffer
+     * @param pass the number of the pass
+     * @return the value found by the pass, or DRAW if the pass cannot decide the position yet
+     */
+    private short solve(Position position, Position child, int[] moves, int pass) {
+        int count = MoveGenerator.generate(position, moves);
+        boolean allWin = true;
+        int maxWinDistance = 0;
+        for (int i = 0; i < count; i++) {
+            child.copyFrom(position);
+            child.makeMove(moves[i]);
+            short value = database.probe(child);
+            if (EndgameTable.isLoss(value)) {
+                if (EndgameTable.getDistance(value) < pass) {
+                    return EndgameTable.win(pass);
+                }
+                allWin = false;
+            } else if (EndgameTable.isWin(value)) {
+                maxWinDistance = Math.max(maxWinDistance, EndgameTable.getDistance(value));
+            } else {
+                allWin = false;
+            }
+        }
+        return allWin && maxWinDistance < pass ? EndgameTable.loss(pass) : EndgameTable.DRAW;
+    }
+
+    /**
+     * Run the generator from the command line
+     * @param args -dir for the directory of the tables, -max for the most tokens of a player, -threads for the
+     *             number of threads, -wdl to leave the distances out of the compact files and -cache for the
+     *             number of decompressed blocks kept
+     */
+    public static void main(String[] args) {
+        Path directory = Paths.get(EndgameDatabase.DEFAULT_DIRECTORY);
+        int maxTokens = EndgameIndex.MAX_TOKENS;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean withDistances = true;
+        int cacheBlocks = DEFAULT_CACHE_BLOCKS;
+
+        // parse arguments
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-dir" -> directory = Paths.get(args[++i]);
+                case "-max" -> maxTokens = Integer.parseInt(args[++i]);
+                case "-threads" -> threads = Integer.parseInt(args[++i]);
+                case "-wdl" -> withDistances = false;
+                case "-cache" -> cacheBlocks = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        if (maxTokens < EndgameIndex.MIN_TOKENS || maxTokens > EndgameIndex.MAX_TOKENS) {
+            throw new IllegalArgumentException("The most tokens must be between " + EndgameIndex.MIN_TOKENS +
+                                               " and " + EndgameIndex.MAX_TOKENS + ": " + maxTokens);
+        }
+
+        long start = System.nanoTime();
+        new EndgameGenerator(directory, threads, withDistances, cacheBlocks).generate(maxTokens);
+        System.out.printf("Endgame databases up to %d tokens solved in %.1f s%n", maxTokens,
+                          (System.nanoTime() - start) / 1e9);
+    }
+}
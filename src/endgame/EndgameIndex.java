@@ -0,0 +1,458 @@
+package endgame;
+
+import model.GameState;
+import model.Position;
+import model.Symmetry;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The EndgameIndex class maps the positions of the MOVE and JUMP phases to dense indexes. Positions are stored
+ * from the point of view of the side to move, so a sub-database is identified by the number of tokens of the
+ * side to move (own) and of the opponent, and a position with black to move is looked up with the colors
+ * swapped. Symmetric positions have the same value, so only the canonical form of Symmetry is indexed, which
+ * makes a sub-database about 16 times smaller than the number of its positions.
+ * A canonical position has an own placement that is the smallest of its images, so the canonical own placements
+ * are numbered in increasing order and each one owns a consecutive range of indexes for its opponent placements.
+ * Within that range the opponent tokens are ranked among the nodes left empty by the own tokens in
+ * colexicographic order, which is the numeric order of the masks. Most own placements are only mapped to
+ * themselves by the identity, so every opponent placement next to them is canonical and its rank is its offset
+ * in the range. The few own placements that some symmetry maps to themselves keep a rank table: a bit for every
+ * opponent placement that is canonical and the number of bits set before each word, so the offset is the number
+ * of canonical opponent placements of a lower rank. The layout of a sub-database is built the first time it is
+ * used.
+ */
+public final class EndgameIndex {
+    /**
+     * an integer represents the fewest tokens a player can have without having lost
+     */
+    public static final int MIN_TOKENS = Position.NUM_OF_TOKENS_TO_JUMP;
+
+    /**
+     * an integer represents the most tokens a player can have
+     */
+    public static final int MAX_TOKENS = Position.INIT_NUM_OF_TOKENS_TO_SET;
+
+    /**
+     * an integer represents the number of bytes of an occupancy mask
+     */
+    private static final int NUM_OF_MASK_BYTES = 3;
+
+    /**
+     * a two dimensional array that stores the binomial coefficients C(n, k) for n and k up to 24
+     */
+    private static final long[][] BINOMIAL = new long[Position.NUM_OF_NODES + 1][Position.NUM_OF_NODES + 1];
+
+    /**
+     * an AtomicReferenceArray that stores the OwnPlacements of each number of own tokens, null until they are
+     * first used
+     */
+    private static final AtomicReferenceArray<OwnPlacements> OWN_PLACEMENTS =
+            new AtomicReferenceArray<>(MAX_TOKENS + 1);
+
+    /**
+     * an AtomicReferenceArray that stores the Layout of each sub-database by key, null until it is first used
+     */
+    private static final AtomicReferenceArray<Layout> LAYOUTS = new AtomicReferenceArray<>((MAX_TOKENS + 1) *
+                                                                                           (MAX_TOKENS + 1));
+
+    static {
+        for (int n = 0; n <= Position.NUM_OF_NODES; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+    }
+
+    /**
+     * Constructor. Not meant to be instantiated.
+     */
+    private EndgameIndex() {
+    }
+
+    /**
+     * Retrieve a binomial coefficient
+     * @param n the number of elements, up to 24
+     * @param k the number of chosen elements
+     * @return C(n, k), zero if k is greater than n
+     */
+    public static long binomial(int n, int k) {
+        return k < 0 || k > n ? 0 : BINOMIAL[n][k];
+    }
+
+    /**
+     * Retrieve the number of canonical positions of a sub-database, which is the number of its indexes
+     * @param ownTokens the number of tokens of the side to move
+     * @param opponentTokens the number of tokens of the opponent
+     * @return the number of positions
+     */
+    public static long size(int ownTokens, int opponentTokens) {
+        Layout layout = getLayout(ownTokens, opponentTokens);
+        return layout.offsets[layout.placements.masks.length];
+    }
+
+    /**
+     * Retrieve the number of own placements that are the smallest of their images
+     * @param ownTokens the number of tokens of the side to move
+     * @return the number of canonical own placements
+     */
+    public static int getCanonicalOwnCount(int ownTokens) {
+        return getOwnPlacements(ownTokens).masks.length;
+    }
+
+    /**
+     * Retrieve a canonical own placement
+     * @param ownTokens the number of tokens of the side to move
+     * @param ordinal the number of the placement in increasing order, below getCanonicalOwnCount(ownTokens)
+     * @return the occupancy mask of the side to move
+     */
+    public static int getCanonicalOwn(int ownTokens, int ordinal) {
+        return getOwnPlacements(ownTokens).masks[ordinal];
+    }
+
+    /**
+     * Retrieve the first index of the positions of a canonical own placement. Its positions end where the ones
+     * of the next placement begin, and the last placement ends at the size of the sub-database.
+     * @param ownTokens the number of tokens of the side to move
+     * @param opponentTokens the number of tokens of the opponent
+     * @param ordinal the number of the own placement in increasing order, up to getCanonicalOwnCount(ownTokens)
+     * @return the index
+     */
+    public static long getFirstIndex(int ownTokens, int opponentTokens, int ordinal) {
+        return getLayout(ownTokens, opponentTokens).offsets[ordinal];
+    }
+
+    /**
+     * Retrieve the number of ways to place the tokens of the opponent next to a placement of the own tokens
+     * @param ownTokens the number of tokens of the side to move
+     * @param opponentTokens the number of tokens of the opponent
+     * @return the number of opponent placements
+     */
+    public static long getOpponentCount(int ownTokens, int opponentTokens) {
+        return binomial(Position.NUM_OF_NODES - ownTokens, opponentTokens);
+    }
+
+    /**
+     * Determine if a position belongs to the endgame databases: every token is set, no remove is pending and
+     * both players have between MIN_TOKENS and MAX_TOKENS tokens
+     * @param position the Position instance
+     * @return true if the position can be looked up, else false
+     */
+    public static boolean isEndgame(Position position) {
+        if (position.getTokensToSet(Position.WHITE) != 0 || position.getTokensToSet(Position.BLACK) != 0 ||
+            position.getState() == GameState.REMOVE) {
+            return false;
+        }
+        int white = position.getTokensOnBoard(Position.WHITE);
+        int black = position.getTokensOnBoard(Position.BLACK);
+        return white >= MIN_TOKENS && white <= MAX_TOKENS && black >= MIN_TOKENS && black <= MAX_TOKENS;
+    }
+
+    /**
+     * Retrieve the index of a canonical position in its sub-database
+     * @param own the occupancy mask of the side to move
+     * @param opponent the occupancy mask of the opponent
+     * @return the index
+     */
+    public static long indexOf(int own, int opponent) {
+        Layout layout = getLayout(Integer.bitCount(own), Integer.bitCount(opponent));
+        int ordinal = layout.placements.ordinals[(int) rank(own)];
+        if (ordinal < 0) {
+            throw new IllegalArgumentException("Not a canonical endgame position: " + own + ", " + opponent);
+        }
+        long rank = rank(opponent, Position.FULL_MASK & ~own);
+        long[] canonicalBits = layout.canonicalBits[ordinal];
+        if (canonicalBits == null) {
+            return layout.offsets[ordinal] + rank;
+        }
+
+        int word = (int) (rank >>> 6);
+        if ((canonicalBits[word] >>> rank & 1) == 0) {
+            throw new IllegalArgumentException("Not a canonical endgame position: " + own + ", " + opponent);
+        }
+        return layout.offsets[ordinal] + layout.canonicalRanks[ordinal][word] +
+               Long.bitCount(canonicalBits[word] & ((1L << rank) - 1));
+    }
+
+    /**
+     * Determine if a position is the canonical form of its symmetric images
+     * @param own the occupancy mask of the side to move
+     * @param opponent the occupancy mask of the opponent
+     * @return true if the position is canonical, else false
+     */
+    public static boolean isCanonical(int own, int opponent) {
+        return Symmetry.getCanonicalTransform(own, opponent) == Symmetry.IDENTITY;
+    }
+
+    /**
+     * Retrieve the colexicographic rank of a mask among the masks with the same number of bits
+     * @param mask the mask
+     * @return the rank
+     */
+    public static long rank(int mask) {
+        long rank = 0;
+        int k = 1;
+        for (; mask != 0; mask &= mask - 1, k++) {
+            rank += binomial(Integer.numberOfTrailingZeros(mask), k);
+        }
+        return rank;
+    }
+
+    /**
+     * Retrieve the colexicographic rank of a mask among the masks with the same number of bits on some free
+     * nodes, the rank of compress(mask, free) without packing the bits first
+     * @param mask the mask, a subset of free
+     * @param free the free nodes
+     * @return the rank
+     */
+    public static long rank(int mask, int free) {
+        long rank = 0;
+        int k = 1;
+        for (; mask != 0; mask &= mask - 1, k++) {
+            rank += binomial(Integer.bitCount(free & ((mask & -mask) - 1)), k);
+        }
+        return rank;
+    }
+
+    /**
+     * Retrieve the next mask with the same number of bits in colexicographic order
+     * @param mask the mask, not zero
+     * @return the next mask
+     */
+    public static int nextCombination(int mask) {
+        int lowest = mask & -mask;
+        int ripple = mask + lowest;
+        return ripple | ((mask ^ ripple) >>> 2) / lowest;
+    }
+
+    /**
+     * Pack the bits of a mask that lie on the free nodes into consecutive low bits
+     * @param mask the mask, a subset of free
+     * @param free the free nodes
+     * @return the packed bits
+     */
+    public static int compress(int mask, int free) {
+        int bits = 0;
+        for (int bit = 1; free != 0; free &= free - 1, bit <<= 1) {
+            if ((mask & free & -free) != 0) {
+                bits |= bit;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Spread consecutive low bits over the free nodes, the inverse of compress
+     * @param bits the packed bits
+     * @param free the free nodes
+     * @return the mask
+     */
+    public static int expand(int bits, int free) {
+        int mask = 0;
+        for (; bits != 0 && free != 0; free &= free - 1, bits >>>= 1) {
+            if ((bits & 1) != 0) {
+                mask |= free & -free;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Set up a position of the databases, with white as the side to move
+     * @param position the Position instance to overwrite
+     * @param own the occupancy mask of the side to move
+     * @param opponent the occupancy mask of the opponent
+     */
+    public static void setPosition(Position position, int own, int opponent) {
+        position.setOccupancy(own, opponent);
+        position.setTokensToSet(Position.WHITE, 0);
+        position.setTokensToSet(Position.BLACK, 0);
+        position.setSideToMove(Position.WHITE);
+        position.setState(position.getPhase(Position.WHITE));
+    }
+
+    /**
+     * Retrieve the own placements that are the smallest of their images, enumerating them on first use
+     * @param ownTokens the number of tokens of the side to move
+     * @return the OwnPlacements instance
+     */
+    private static OwnPlacements getOwnPlacements(int ownTokens) {
+        if (ownTokens < MIN_TOKENS || ownTokens > MAX_TOKENS) {
+            throw new IllegalArgumentException("Not a number of endgame tokens: " + ownTokens);
+        }
+        OwnPlacements placements = OWN_PLACEMENTS.get(ownTokens);
+        if (placements == null) {
+            // threads racing to enumerate the same placements find equal ones, and the first ones are kept
+            OWN_PLACEMENTS.compareAndSet(ownTokens, null, new OwnPlacements(ownTokens));
+            placements = OWN_PLACEMENTS.get(ownTokens);
+        }
+        return placements;
+    }
+
+    /**
+     * Retrieve the layout of a sub-database, building it on first use
+     * @param ownTokens the number of tokens of the side to move
+     * @param opponentTokens the number of tokens of the opponent
+     * @return the Layout instance
+     */
+    private static Layout getLayout(int ownTokens, int opponentTokens) {
+        if (opponentTokens < MIN_TOKENS || opponentTokens > MAX_TOKENS) {
+            throw new IllegalArgumentException("Not a number of endgame tokens: " + opponentTokens);
+        }
+        int key = ownTokens * (MAX_TOKENS + 1) + opponentTokens;
+        Layout layout = LAYOUTS.get(key);
+        if (layout == null) {
+            // threads racing to build the same layout build equal ones, and the first one is kept
+            LAYOUTS.compareAndSet(key, null, new Layout(ownTokens, opponentTokens));
+            layout = LAYOUTS.get(key);
+        }
+        return layout;
+    }
+
+    /**
+     * Retrieve the transforms other than the identity that map an own placement to itself
+     * @param own the occupancy mask of the side to move
+     * @return a mask with bit t set for every such transform t, zero if there is none
+     */
+    private static int getStabilizer(int own) {
+        int stabilizer = 0;
+        for (int transform = 1; transform < Symmetry.NUM_OF_TRANSFORMS; transform++) {
+            if (Symmetry.transformMask(transform, own) == own) {
+                stabilizer |= 1 << transform;
+            }
+        }
+        return stabilizer;
+    }
+
+    /**
+     * The OwnPlacements class holds the own placements of a number of tokens that are the smallest of their
+     * images, in increasing order and by colexicographic rank
+     */
+    private static final class OwnPlacements {
+        /**
+         * an array that stores the canonical own placements in increasing order
+         */
+        private final int[] masks;
+
+        /**
+         * an array that stores the ordinal in masks of every own placement by colexicographic rank, -1 if the
+         * placement is not canonical
+         */
+        private final int[] ordinals;
+
+        /**
+         * Constructor. Enumerates every own placement.
+         * @param ownTokens the number of tokens of the side to move
+         */
+        private OwnPlacements(int ownTokens) {
+            int placements = (int) binomial(Position.NUM_OF_NODES, ownTokens);
+            int[] canonical = new int[placements];
+            ordinals = new int[placements];
+            int count = 0;
+            int own = (1 << ownTokens) - 1;
+            for (int rank = 0; rank < placements; rank++) {
+                if (Symmetry.getCanonicalTransform(own, 0) == Symmetry.IDENTITY) {
+                    ordinals[rank] = count;
+                    canonical[count++] = own;
+                } else {
+                    ordinals[rank] = -1;
+                }
+                if (rank + 1 < placements) {
+                    own = nextCombination(own);
+                }
+            }
+            masks = Arrays.copyOf(canonical, count);
+        }
+    }
+
+    /**
+     * The Layout class holds how the canonical positions of a sub-database are numbered: the canonical own
+     * placements, the first index of each one and the rank tables of the own placements with symmetries
+     */
+    private static final class Layout {
+        /**
+         * instance of the OwnPlacements class of the number of own tokens, shared with OWN_PLACEMENTS
+         */
+        private final OwnPlacements placements;
+
+        /**
+         * an array that stores the first index of each own placement, followed by the size of the sub-database
+         */
+        private final long[] offsets;
+
+        /**
+         * a two dimensional array that stores for each own placement a bit per opponent rank that is canonical,
+         * null if every opponent placement is canonical
+         */
+        private final long[][] canonicalBits;
+
+        /**
+         * a two dimensional array that stores for each own placement the number of canonical opponent
+         * placements before each word of canonicalBits, null if every opponent placement is canonical
+         */
+        private final int[][] canonicalRanks;
+
+        /**
+         * Constructor. Enumerates the opponent placements of the own placements with symmetries.
+         * @param ownTokens the number of tokens of the side to move
+         * @param opponentTokens the number of tokens of the opponent
+         */
+        private Layout(int ownTokens, int opponentTokens) {
+            placements = getOwnPlacements(ownTokens);
+            int count = placements.masks.length;
+            long opponentPlacements = getOpponentCount(ownTokens, opponentTokens);
+            int words = (int) ((opponentPlacements + 63) >>> 6);
+            offsets = new long[count + 1];
+            canonicalBits = new long[count][];
+            canonicalRanks = new int[count][];
+            for (int ordinal = 0; ordinal < count; ordinal++) {
+                int own = placements.masks[ordinal];
+                int stabilizer = getStabilizer(own);
+                if (stabilizer == 0) {
+                    offsets[ordinal + 1] = offsets[ordinal] + opponentPlacements;
+                    continue;
+                }
+
+                // the packed opponent bits are spread over the free nodes a byte at a time
+                int free = Position.FULL_MASK & ~own;
+                int[][] spread = new int[NUM_OF_MASK_BYTES][256];
+                for (int part = 0; part < NUM_OF_MASK_BYTES; part++) {
+                    for (int value = 1; value < 256; value++) {
+                        spread[part][value] = spread[part][value & (value - 1)] |
+                                              expand((value & -value) << (8 * part), free);
+                    }
+                }
+
+                // an opponent placement is canonical unless a symmetry of the own placement makes it smaller
+                long[] bits = new long[words];
+                int opponentBits = (1 << opponentTokens) - 1;
+                for (long rank = 0; rank < opponentPlacements; rank++) {
+                    int opponent = spread[0][opponentBits & 0xFF] | spread[1][opponentBits >>> 8 & 0xFF] |
+                                   spread[2][opponentBits >>> 16];
+                    boolean canonical = true;
+                    for (int transforms = stabilizer; transforms != 0 && canonical; transforms &= transforms - 1) {
+                        int transform = Integer.numberOfTrailingZeros(transforms);
+                        canonical = Symmetry.transformMask(transform, opponent) >= opponent;
+                    }
+                    if (canonical) {
+                        bits[(int) (rank >>> 6)] |= 1L << rank;
+                    }
+                    if (rank + 1 < opponentPlacements) {
+                        opponentBits = nextCombination(opponentBits);
+                    }
+                }
+                int[] ranks = new int[words];
+                int canonicalCount = 0;
+                for (int word = 0; word < words; word++) {
+                    ranks[word] = canonicalCount;
+                    canonicalCount += Long.bitCount(bits[word]);
+                }
+                canonicalBits[ordinal] = bits;
+                canonicalRanks[ordinal] = ranks;
+                offsets[ordinal + 1] = offsets[ordinal] + canonicalCount;
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package endgame;
+
+/**
+ * The EndgameLookup interface is implemented by every form a sub-database can be read in, so the
+ * EndgameDatabase probes the tables being generated on the heap and the packed files the same way.
+ */
+public interface EndgameLookup {
+    /**
+     * Retrieve the value of a position
+     * @param index the index of the position
+     * @return the value as encoded by EndgameTable
+     */
+    short get(long index);
+
+    /**
+     * Retrieve the number of positions
+     * @return the number of positions
+     */
+    long getSize();
+
+    /**
+     * Retrieve the longest distance to a win or a loss
+     * @return the number of plies
+     */
+    int getMaxDistance();
+
+    /**
+     * Determine if the values hold the distance to the result. Without distances a win is reported as a win
+     * in 1 ply and a loss as a loss in 0 plies.
+     * @return true if the distances are exact, else false
+     */
+    boolean hasDistances();
+}
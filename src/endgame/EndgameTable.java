@@ -0,0 +1,321 @@
+package endgame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The EndgameTable class stores one sub-database: the value of every position with a given number of own and
+ * opponent tokens, from the point of view of the side to move. A value holds the result and the distance to it
+ * in plies: zero for a draw (or a position not solved yet), d for a win in d plies and -(d + 1) for a loss in d
+ * plies, so a position whose side to move has already lost is -1. Only the canonical positions have a slot, as
+ * numbered by EndgameIndex. Values are kept in pages of shorts, since the large sub-databases hold more
+ * positions than a Java array can.
+ */
+public class EndgameTable implements EndgameLookup {
+    /**
+     * a short represents a drawn position
+     */
+    public static final short DRAW = 0;
+
+    /**
+     * a short represents a position that is not in any available table
+     */
+    public static final short UNKNOWN = Short.MIN_VALUE;
+
+    /**
+     * an integer represents the longest distance a value can hold
+     */
+    public static final int MAX_DISTANCE = Short.MAX_VALUE - 1;
+
+    /**
+     * an integer that identifies the file format
+     */
+    private static final int MAGIC = 0x4E4D4D45;
+
+    /**
+     * an integer represents the version of the file format
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * an integer represents the number of bytes of the file header
+     */
+    private static final int HEADER_SIZE = 4 * Integer.BYTES + Long.BYTES;
+
+    /**
+     * an integer represents the base two logarithm of the number of values in a page
+     */
+    private static final int PAGE_BITS = 20;
+
+    /**
+     * an integer represents the number of values in a page
+     */
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    /**
+     * an integer represents the mask of the index of a value within its page
+     */
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    /**
+     * an integer represents the number of tokens of the side to move
+     */
+    private final int ownTokens;
+
+    /**
+     * an integer represents the number of tokens of the opponent
+     */
+    private final int opponentTokens;
+
+    /**
+     * a long represents the number of positions
+     */
+    private final long size;
+
+    /**
+     * a two dimensional array that stores the values page by page
+     */
+    private final short[][] pages;
+
+    /**
+     * Constructor. Creates a table where every position is a draw.
+     * @param ownTokens the number of tokens of the side to move
+     * @param opponentTokens the number of tokens of the opponent
+     */
+    public EndgameTable(int ownTokens, int opponentTokens) {
+        this.ownTokens = ownTokens;
+        this.opponentTokens = opponentTokens;
+        this.size = EndgameIndex.size(ownTokens, opponentTokens);
+        int numOfPages = (int) ((size + PAGE_SIZE - 1) >>> PAGE_BITS);
+        pages = new short[numOfPages][];
+        for (int page = 0; page < numOfPages; page++) {
+            pages[page] = new short[(int) Math.min(PAGE_SIZE, size - ((long) page << PAGE_BITS))];
+        }
+    }
+
+    /**
+     * Encode a win
+     * @param distance the number of plies to the win, at least 1
+     * @return the value
+     */
+    public static short win(int distance) {
+        return (short) distance;
+    }
+
+    /**
+     * Encode a loss
+     * @param distance the number of plies to the loss, 0 if the side to move has already lost
+     * @return the value
+     */
+    public static short loss(int distance) {
+        return (short) -(distance + 1);
+    }
+
+    /**
+     * Determine if a value is a win for the side to move
+     * @param value the value
+     * @return true if it is a win, else false
+     */
+    public static boolean isWin(short value) {
+        return value > 0;
+    }
+
+    /**
+     * Determine if a value is a loss for the side to move
+     * @param value the value
+     * @return true if it is a loss, else false
+     */
+    public static boolean isLoss(short value) {
+        return value < 0 && value != UNKNOWN;
+    }
+
+    /**
+     * Retrieve the distance of a value
+     * @param value the value of a win or a loss
+     * @return the number of plies to the result
+     */
+    public static int getDistance(short value) {
+        return value > 0 ? value : -value - 1;
+    }
+
+    /**
+     * Retrieve the value of a position
+     * @param index the index of the position
+     * @return the value
+     */
+    @Override
+    public short get(long index) {
+        return pages[(int) (index >>> PAGE_BITS)][(int) index & PAGE_MASK];
+    }
+
+    /**
+     * Store the value of a position
+     * @param index the index of the position
+     * @param value the value
+     */
+    public void set(long index, short value) {
+        pages[(int) (index >>> PAGE_BITS)][(int) index & PAGE_MASK] = value;
+    }
+
+    /**
+     * Retrieve the longest distance to a win or a loss in the table
+     * @return the number of plies
+     */
+    @Override
+    public int getMaxDistance() {
+        int maxDistance = 0;
+        for (short[] page : pages) {
+            for (short value : page) {
+                if (value != DRAW) {
+                    maxDistance = Math.max(maxDistance, getDistance(value));
+                }
+            }
+        }
+        return maxDistance;
+    }
+
+    /**
+     * Retrieve the number of tokens of the side to move
+     * @return the number of tokens
+     */
+    public int getOwnTokens() {
+        return ownTokens;
+    }
+
+    /**
+     * Retrieve the number of tokens of the opponent
+     * @return the number of tokens
+     */
+    public int getOpponentTokens() {
+        return opponentTokens;
+    }
+
+    /**
+     * Retrieve the number of positions
+     * @return the number of positions
+     */
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Determine if the values hold the distance to the result, which is always the case for a table in memory
+     * @return true
+     */
+    @Override
+    public boolean hasDistances() {
+        return true;
+    }
+
+    /**
+     * Retrieve the name of the file of a sub-database
+     * @param ownTokens the number of tokens of the side to move
+     * @param opponentTokens the number of tokens of the opponent
+     * @return the file name
+     */
+    public static String getFileName(int ownTokens, int opponentTokens) {
+        return "mill_" + ownTokens + "_" + opponentTokens + ".egt";
+    }
+
+    /**
+     * Write the table to a directory. The file is written aside and then moved in place, so a file with the
+     * name of a sub-database is always complete.
+     * @param directory the directory of the databases
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(getFileName(ownTokens, opponentTokens));
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(ownTokens).putInt(opponentTokens).putLong(size).flip();
+            writeFully(channel, header);
+
+            ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE * Short.BYTES);
+            for (short[] page : pages) {
+                buffer.clear();
+                buffer.asShortBuffer().put(page);
+                buffer.limit(page.length * Short.BYTES);
+                writeFully(channel, buffer);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a table from a directory
+     * @param directory the directory of the databases
+     * @param ownTokens the number of tokens of the side to move
+     * @param opponentTokens the number of tokens of the opponent
+     * @return the EndgameTable instance
+     * @throws IOException if the file cannot be read or does not hold the sub-database
+     */
+    public static EndgameTable load(Path directory, int ownTokens, int opponentTokens) throws IOException {
+        Path file = directory.resolve(getFileName(ownTokens, opponentTokens));
+        EndgameTable table = new EndgameTable(ownTokens, opponentTokens);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION || header.getInt() != ownTokens ||
+                header.getInt() != opponentTokens || header.getLong() != table.size) {
+                throw new IOException("Not the endgame database " + ownTokens + "-" + opponentTokens + ": " + file);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE * Short.BYTES);
+            for (short[] page : table.pages) {
+                buffer.clear();
+                buffer.limit(page.length * Short.BYTES);
+                readFully(channel, buffer);
+                buffer.flip();
+                buffer.asShortBuffer().get(page);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Determine if the file of a sub-database exists
+     * @param directory the directory of the databases
+     * @param ownTokens the number of tokens of the side to move
+     * @param opponentTokens the number of tokens of the opponent
+     * @return true if the file exists, else false
+     */
+    public static boolean exists(Path directory, int ownTokens, int opponentTokens) {
+        return Files.isRegularFile(directory.resolve(getFileName(ownTokens, opponentTokens)));
+    }
+
+    /**
+     * Write a buffer completely
+     * @param channel the channel to write to
+     * @param buffer the buffer to write
+     * @throws IOException if the channel cannot be written
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Fill a buffer completely
+     * @param channel the channel to read from
+     * @param buffer the buffer to fill
+     * @throws IOException if the channel cannot be read or ends early
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of an endgame database");
+            }
+        }
+    }
+}
@@ -0,0 +1,424 @@
+package endgame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The PackedEndgameTable class reads a sub-database from its compact file, which is what the computer player
+ * probes. The result of a position takes 2 bits (draw, win or loss), optionally followed by a side-table of the
+ * distances in 1 or 2 bytes, whichever the longest distance of the table needs. Positions are grouped into blocks
+ * of BLOCK_SIZE that are compressed one by one, and a block index of file offsets follows the header:
+ * <pre>
+ * header: magic, version, own tokens, opponent tokens, size, distance bytes, max distance, number of blocks
+ * index:  number of blocks + 1 offsets, block i spans [offset i, offset i + 1)
+ * blocks: deflated results (BLOCK_SIZE / 4 bytes) followed by the distances (BLOCK_SIZE * distance bytes)
+ * </pre>
+ * The file is memory mapped instead of read, so only the pages touched stay in memory, and decompressed blocks
+ * are kept in a BlockCache shared by the tables of a database.
+ */
+public class PackedEndgameTable implements EndgameLookup {
+    /**
+     * an integer represents the base two logarithm of the number of positions in a block
+     */
+    public static final int BLOCK_BITS = 14;
+
+    /**
+     * an integer represents the number of positions in a block
+     */
+    public static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+
+    /**
+     * an integer that identifies the file format
+     */
+    private static final int MAGIC = 0x4E4D4D50;
+
+    /**
+     * an integer represents the version of the file format
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * an integer represents the number of bytes of the file header
+     */
+    private static final int HEADER_SIZE = 7 * Integer.BYTES + Long.BYTES;
+
+    /**
+     * an integer represents the mask of the index of a position within its block
+     */
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+    /**
+     * an integer represents the number of bytes of the results of a block
+     */
+    private static final int RESULT_BYTES = BLOCK_SIZE / 4;
+
+    /**
+     * an integer represents the largest compressed block accepted, larger than any block the Deflater produces
+     */
+    private static final int MAX_COMPRESSED_BLOCK = RESULT_BYTES + 2 * BLOCK_SIZE + 1024;
+
+    /**
+     * an integer represents the base two logarithm of the number of bytes mapped by one segment
+     */
+    private static final int SEGMENT_BITS = 30;
+
+    /**
+     * an integer represents the 2-bit code of a draw
+     */
+    private static final int CODE_DRAW = 0;
+
+    /**
+     * an integer represents the 2-bit code of a win
+     */
+    private static final int CODE_WIN = 1;
+
+    /**
+     * an integer represents the 2-bit code of a loss
+     */
+    private static final int CODE_LOSS = 2;
+
+    /**
+     * a ThreadLocal that stores the Inflater instance of each probing thread
+     */
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
+    /**
+     * an integer represents the number of tokens of the side to move
+     */
+    private final int ownTokens;
+
+    /**
+     * an integer represents the number of tokens of the opponent
+     */
+    private final int opponentTokens;
+
+    /**
+     * a long represents the number of positions
+     */
+    private final long size;
+
+    /**
+     * an integer represents the number of bytes of a distance, 0 if the file only holds the results
+     */
+    private final int distanceBytes;
+
+    /**
+     * an integer represents the longest distance to a win or a loss in the table
+     */
+    private final int maxDistance;
+
+    /**
+     * an array that stores the mapped segments of the file. A segment overlaps the next one by the largest
+     * block, so a block always lies within the segment of its first byte.
+     */
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * instance of the BlockCache class that keeps the decompressed blocks
+     */
+    private final BlockCache cache;
+
+    /**
+     * a long represents the key of the first block of this table in the cache
+     */
+    private final long cacheKey;
+
+    /**
+     * Constructor. Maps the file of a sub-database.
+     * @param directory the directory of the databases
+     * @param ownTokens the number of tokens of the side to move
+     * @param opponentTokens the number of tokens of the opponent
+     * @param cache the BlockCache instance that keeps the decompressed blocks
+     * @throws IOException if the file cannot be read or does not hold the sub-database
+     */
+    public PackedEndgameTable(Path directory, int ownTokens, int opponentTokens, BlockCache cache) throws IOException {
+        this.ownTokens = ownTokens;
+        this.opponentTokens = opponentTokens;
+        this.size = EndgameIndex.size(ownTokens, opponentTokens);
+        this.cache = cache;
+        this.cacheKey = (long) (ownTokens * (EndgameIndex.MAX_TOKENS + 1) + opponentTokens) << 32;
+
+        Path file = directory.resolve(getFileName(ownTokens, opponentTokens));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IOException("Not the endgame database " + ownTokens + "-" + opponentTokens + ": " + file);
+            }
+            int numOfSegments = (int) (((fileSize - 1) >>> SEGMENT_BITS) + 1);
+            segments = new MappedByteBuffer[numOfSegments];
+            for (int i = 0; i < numOfSegments; i++) {
+                long start = (long) i << SEGMENT_BITS;
+                long length = Math.min(fileSize - start, (1L << SEGMENT_BITS) + MAX_COMPRESSED_BLOCK);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+        }
+
+        ByteBuffer header = segments[0];
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(8) != ownTokens ||
+            header.getInt(12) != opponentTokens || header.getLong(16) != size ||
+            header.getInt(32) != getNumOfBlocks(size)) {
+            throw new IOException("Not the endgame database " + ownTokens + "-" + opponentTokens + ": " + file);
+        }
+        distanceBytes = header.getInt(24);
+        maxDistance = header.getInt(28);
+    }
+
+    /**
+     * Retrieve the value of a position
+     * @param index the index of the position
+     * @return the value as encoded by EndgameTable
+     */
+    @Override
+    public short get(long index) {
+        long block = index >>> BLOCK_BITS;
+        byte[] data = cache.get(cacheKey | block);
+        if (data == null) {
+            data = readBlock(block);
+            cache.put(cacheKey | block, data);
+        }
+
+        int offset = (int) index & BLOCK_MASK;
+        int code = (data[offset >>> 2] >>> ((offset & 3) << 1)) & 3;
+        if (code == CODE_DRAW) {
+            return EndgameTable.DRAW;
+        }
+        int distance;
+        if (distanceBytes == 0) {
+            distance = code == CODE_WIN ? 1 : 0;
+        } else if (distanceBytes == 1) {
+            distance = data[RESULT_BYTES + offset] & 0xFF;
+        } else {
+            int at = RESULT_BYTES + 2 * offset;
+            distance = (data[at] & 0xFF) << 8 | (data[at + 1] & 0xFF);
+        }
+        return code == CODE_WIN ? EndgameTable.win(distance) : EndgameTable.loss(distance);
+    }
+
+    /**
+     * Read and decompress a block
+     * @param block the number of the block
+     * @return the decompressed block
+     */
+    private byte[] readBlock(long block) {
+        long start = readLong(HEADER_SIZE + block * Long.BYTES);
+        long end = readLong(HEADER_SIZE + (block + 1) * Long.BYTES);
+        ByteBuffer segment = segments[(int) (start >>> SEGMENT_BITS)];
+        ByteBuffer input = segment.slice((int) (start & ((1L << SEGMENT_BITS) - 1)), (int) (end - start));
+
+        byte[] data = new byte[RESULT_BYTES + BLOCK_SIZE * distanceBytes];
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(input);
+        try {
+            int length = 0;
+            while (length < data.length && !inflater.finished()) {
+                int inflated = inflater.inflate(data, length, data.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != data.length) {
+                throw new IllegalStateException("Truncated block " + block + " of endgame database " +
+                                                ownTokens + "-" + opponentTokens);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt block " + block + " of endgame database " +
+                                            ownTokens + "-" + opponentTokens, e);
+        }
+        return data;
+    }
+
+    /**
+     * Read a long from the mapped file
+     * @param position the position in the file
+     * @return the long
+     */
+    private long readLong(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].getLong((int) (position & ((1L << SEGMENT_BITS) - 1)));
+    }
+
+    /**
+     * Retrieve the longest distance to a win or a loss in the table
+     * @return the number of plies
+     */
+    @Override
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * Retrieve the number of positions
+     * @return the number of positions
+     */
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Determine if the file holds the distances besides the results
+     * @return true if the distances are exact, else false
+     */
+    @Override
+    public boolean hasDistances() {
+        return distanceBytes != 0;
+    }
+
+    /**
+     * Retrieve the number of tokens of the side to move
+     * @return the number of tokens
+     */
+    public int getOwnTokens() {
+        return ownTokens;
+    }
+
+    /**
+     * Retrieve the number of tokens of the opponent
+     * @return the number of tokens
+     */
+    public int getOpponentTokens() {
+        return opponentTokens;
+    }
+
+    /**
+     * Retrieve the name of the compact file of a sub-database
+     * @param ownTokens the number of tokens of the side to move
+     * @param opponentTokens the number of tokens of the opponent
+     * @return the file name
+     */
+    public static String getFileName(int ownTokens, int opponentTokens) {
+        return "mill_" + ownTokens + "_" + opponentTokens + ".pegt";
+    }
+
+    /**
+     * Determine if the compact file of a sub-database exists
+     * @param directory the directory of the databases
+     * @param ownTokens the number of tokens of the side to move
+     * @param opponentTokens the number of tokens of the opponent
+     * @return true if the file exists, else false
+     */
+    public static boolean exists(Path directory, int ownTokens, int opponentTokens) {
+        return Files.isRegularFile(directory.resolve(getFileName(ownTokens, opponentTokens)));
+    }
+
+    /**
+     * Write the compact file of a table. The file is written aside and then moved in place, so a file with the
+     * name of a sub-database is always complete.
+     * @param table the EndgameTable instance
+     * @param directory the directory of the databases
+     * @param withDistances true to write the distance side-table, false for the results only
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(EndgameTable table, Path directory, boolean withDistances) throws IOException {
+        int ownTokens = table.getOwnTokens();
+        int opponentTokens = table.getOpponentTokens();
+        long size = table.getSize();
+        int maxDistance = table.getMaxDistance();
+        int distanceBytes = !withDistances ? 0 : maxDistance <= 0xFF ? 1 : 2;
+        int numOfBlocks = getNumOfBlocks(size);
+        long[] offsets = new long[numOfBlocks + 1];
+
+        Files.createDirectories(directory);
+        Path file = directory.resolve(getFileName(ownTokens, opponentTokens));
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            byte[] data = new byte[RESULT_BYTES + BLOCK_SIZE * distanceBytes];
+            byte[] compressed = new byte[MAX_COMPRESSED_BLOCK];
+            long position = HEADER_SIZE + (long) offsets.length * Long.BYTES;
+            for (int block = 0; block < numOfBlocks; block++) {
+                packBlock(table, block, distanceBytes, data);
+                deflater.reset();
+                deflater.setInput(data);
+                deflater.finish();
+                int length = 0;
+                while (!deflater.finished()) {
+                    if (length == compressed.length) {
+                        throw new IOException("Block " + block + " of endgame database " + ownTokens + "-" +
+                                              opponentTokens + " does not compress");
+                    }
+                    length += deflater.deflate(compressed, length, compressed.length - length);
+                }
+                offsets[block] = position;
+                writeFully(channel, ByteBuffer.wrap(compressed, 0, length), position);
+                position += length;
+            }
+            offsets[numOfBlocks] = position;
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + offsets.length * Long.BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(ownTokens).putInt(opponentTokens).putLong(size)
+                  .putInt(distanceBytes).putInt(maxDistance).putInt(numOfBlocks);
+            for (long offset : offsets) {
+                header.putLong(offset);
+            }
+            header.flip();
+            writeFully(channel, header, 0);
+        } finally {
+            deflater.end();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Pack the values of a block into its uncompressed layout. Positions past the end of the table are stored as
+     * draws, since they are never looked up.
+     * @param table the EndgameTable instance
+     * @param block the number of the block
+     * @param distanceBytes the number of bytes of a distance
+     * @param data the array to fill
+     */
+    private static void packBlock(EndgameTable table, int block, int distanceBytes, byte[] data) {
+        Arrays.fill(data, (byte) 0);
+        long first = (long) block << BLOCK_BITS;
+        int count = (int) Math.min(BLOCK_SIZE, table.getSize() - first);
+        for (int offset = 0; offset < count; offset++) {
+            short value = table.get(first + offset);
+            if (value == EndgameTable.DRAW) {
+                continue;
+            }
+            int code = EndgameTable.isWin(value) ? CODE_WIN : CODE_LOSS;
+            data[offset >>> 2] |= (byte) (code << ((offset & 3) << 1));
+            int distance = EndgameTable.getDistance(value);
+            if (distanceBytes == 1) {
+                data[RESULT_BYTES + offset] = (byte) distance;
+            } else if (distanceBytes == 2) {
+                data[RESULT_BYTES + 2 * offset] = (byte) (distance >>> 8);
+                data[RESULT_BYTES + 2 * offset + 1] = (byte) distance;
+            }
+        }
+    }
+
+    /**
+     * Retrieve the number of blocks of a table
+     * @param size the number of positions
+     * @return the number of blocks
+     */
+    private static int getNumOfBlocks(long size) {
+        return (int) ((size + BLOCK_SIZE - 1) >>> BLOCK_BITS);
+    }
+
+    /**
+     * Write a buffer completely at a position of the file
+     * @param channel the channel to write to
+     * @param buffer the buffer to write
+     * @param position the position in the file
+     * @throws IOException if the channel cannot be written
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package engine;
+
+/**
+ * Difficulty is an enumeration of the levels of the computer player. A level is defined by a node budget, a depth
+ * cap and the noise added to the evaluation instead of the time to think, so a level plays equally strong on a
+ * slow and on a fast machine, and a game costs about the same number of nodes wherever it runs. The levels that
+ * play without noise also play from the opening book and the endgame databases.
+ */
+public enum Difficulty {
+    /**
+     * a constant that indicates the computer looks one move ahead and misjudges most positions
+     */
+    BEGINNER("Beginner", 1, 500, 150, false),
+
+    /**
+     * a constant that indicates the computer sees its own mills and misjudges many positions
+     */
+    EASY("Easy", 2, 5_000, 80, false),
+
+    /**
+     * a constant that indicates the computer sees short combinations and misjudges some positions
+     */
+    MEDIUM("Medium", 4, 50_000, 30, false),
+
+    /**
+     * a constant that indicates the computer searches deep without noise
+     */
+    HARD("Hard", 10, 500_000, 0, true),
+
+    /**
+     * a constant that indicates the computer searches as deep as its node budget allows without noise
+     */
+    EXPERT("Expert", SearchLimits.DEFAULT_MAX_DEPTH, 3_000_000, 0, true);
+
+    /**
+     * a String represents the name of the level shown to the player
+     */
+    private final String label;
+
+    /**
+     * an integer represents the deepest iteration of a search
+     */
+    private final int maxDepth;
+
+    /**
+     * a long represents the maximum number of nodes of a search
+     */
+    private final long maxNodes;
+
+    /**
+     * an integer represents the largest noise added to or subtracted from the evaluation
+     */
+    private final int evaluationNoise;
+
+    /**
+     * a boolean to indicate if the level plays from the opening book and the endgame databases
+     */
+    private final boolean knowledgeEnabled;
+
+    /**
+     * Constructor
+     * @param label the name of the level shown to the player
+     * @param maxDepth the deepest iteration of a search
+     * @param maxNodes the maximum number of nodes of a search
+     * @param evaluationNoise the largest noise added to or subtracted from the evaluation
+     * @param knowledgeEnabled true to play from the opening book and the endgame databases, else false
+     */
+    Difficulty(String label, int maxDepth, long maxNodes, int evaluationNoise, boolean knowledgeEnabled) {
+        this.label = label;
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+        this.evaluationNoise = evaluationNoise;
+        this.knowledgeEnabled = knowledgeEnabled;
+    }
+
+    /**
+     * Create the limits of the searches of this level. They have no time limit.
+     * @param noiseSeed the seed that decides the noise of each position, e.g. one per game
+     * @return a new SearchLimits instance
+     */
+    public SearchLimits newSearchLimits(long noiseSeed) {
+        SearchLimits limits = new SearchLimits(maxDepth, maxNodes);
+        limits.setEvaluationNoise(evaluationNoise, noiseSeed);
+        return limits;
+    }
+
+    /**
+     * Retrieve the deepest iteration of a search
+     * @return the maximum depth
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Retrieve the maximum number of nodes of a search
+     * @return the maximum number of nodes
+     */
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * Retrieve the largest noise added to or subtracted from the evaluation
+     * @return the noise, zero for none
+     */
+    public int getEvaluationNoise() {
+        return evaluationNoise;
+    }
+
+    /**
+     * Determine if the level plays from the opening book and the endgame databases
+     * @return true if it does, else false
+     */
+    public boolean isKnowledgeEnabled() {
+        return knowledgeEnabled;
+    }
+
+    /**
+     * Retrieve the name of the level shown to the player
+     * @return the name of the level
+     */
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,63 @@
+package engine;
+
+import model.Position;
+
+/**
+ * The Engine interface is implemented by every search the ComputerPlayer can choose its moves with. An engine is
+ * used by one thread at a time, but can be asked to stop from another thread.
+ */
+public interface Engine {
+    /**
+     * a String represents the system property that selects the engine of the ComputerPlayer
+     */
+    String TYPE_PROPERTY = "engine.type";
+
+    /**
+     * a String represents the type of the alpha-beta LazySmpSearch, the default engine
+     */
+    String ALPHA_BETA = "alphabeta";
+
+    /**
+     * a String represents the type of the Monte Carlo MctsSearch
+     */
+    String MCTS = "mcts";
+
+    /**
+     * Search for the best move of a position
+     * @param root the Position instance to search, left unchanged
+     * @param limits the SearchLimits instance that holds the budget of the search
+     * @return a SearchResult instance
+     */
+    SearchResult search(Position root, SearchLimits limits);
+
+    /**
+     * Ask the running search to stop as soon as possible
+     */
+    void stop();
+
+    /**
+     * Stop the threads of the engine. The engine must not be used afterwards.
+     */
+    void shutdown();
+
+    /**
+     * Create an engine of a type
+     * @param type ALPHA_BETA or MCTS
+     * @return a new Engine instance with the configured number of threads
+     */
+    static Engine create(String type) {
+        return switch (type) {
+            case ALPHA_BETA -> new LazySmpSearch();
+            case MCTS -> new MctsSearch();
+            default -> throw new IllegalArgumentException("Unknown engine type: " + type);
+        };
+    }
+
+    /**
+     * Create the engine selected by the system property TYPE_PROPERTY, e.g. -Dengine.type=mcts
+     * @return a new Engine instance, a LazySmpSearch unless another type is selected
+     */
+    static Engine createConfigured() {
+        return create(System.getProperty(TYPE_PROPERTY, ALPHA_BETA));
+    }
+}
@@ -0,0 +1,217 @@
+package engine;
+
+import model.GameState;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * The EvaluationWeights class holds the weight of every feature of the Evaluator in each phase of a player:
+ * SET, MOVE and JUMP. Weights can be read from a properties file with one key per phase and feature, e.g.
+ * <pre>
+ * move.mobility=4
+ * jump.openMill=25
+ * </pre>
+ * so they can be tuned without rebuilding; a key that is missing keeps its default weight.
+ */
+public class EvaluationWeights {
+    /**
+     * a String represents the system property that names the file of the weights used by default
+     */
+    public static final String FILE_PROPERTY = "engine.weights";
+
+    /**
+     * an integer represents the feature of the tokens on board and still to set
+     */
+    public static final int TOKEN = 0;
+
+    /**
+     * an integer represents the feature of the complete mills
+     */
+    public static final int CLOSED_MILL = 1;
+
+    /**
+     * an integer represents the feature of the mills with two own tokens and an empty node
+     */
+    public static final int OPEN_MILL = 2;
+
+    /**
+     * an integer represents the feature of the double mills: empty nodes shared by two open mills, and in the MOVE
+     * phase a token of a complete mill that can slide into an open mill
+     */
+    public static final int DOUBLE_MILL = 3;
+
+    /**
+     * an integer represents the feature of the slides to an empty neighbor
+     */
+    public static final int MOBILITY = 4;
+
+    /**
+     * an integer represents the feature of the tokens without an empty neighbor
+     */
+    public static final int BLOCKED = 5;
+
+    /**
+     * an integer represents the number of features
+     */
+    public static final int NUM_OF_FEATURES = 6;
+
+    /**
+     * an array that stores the name of each feature in the properties file
+     */
+    private static final String[] FEATURE_NAMES = {"token", "closedMill", "openMill", "doubleMill", "mobility",
+                                                   "blocked"};
+
+    /**
+     * an array that stores the name of each phase in the properties file
+     */
+    private static final String[] PHASE_NAMES = {"set", "move", "jump"};
+
+    /**
+     * a two dimensional array that stores the default weight of each feature in each phase
+     */
+    private static final int[][] DEFAULT_WEIGHTS = {
+            {100, 15, 10, 25, 1, -3},
+            {100, 20, 12, 40, 4, -6},
+            {100, 10, 25, 20, 0, 0}
+    };
+
+    /**
+     * a two dimensional array that stores the weight of each feature in each phase
+     */
+    private final int[][] weights = new int[PHASE_NAMES.length][];
+
+    /**
+     * Constructor. Creates the default weights.
+     */
+    public EvaluationWeights() {
+        for (int phase = 0; phase < weights.length; phase++) {
+            weights[phase] = DEFAULT_WEIGHTS[phase].clone();
+        }
+    }
+
+    /**
+     * Retrieve the weights of the file named by the system property FILE_PROPERTY, e.g.
+     * -Dengine.weights=weights.properties, or the default weights without it
+     * @return a new EvaluationWeights instance
+     */
+    public static EvaluationWeights getConfigured() {
+        String file = System.getProperty(FILE_PROPERTY);
+        if (file == null) {
+            return new EvaluationWeights();
+        }
+        try {
+            return load(Paths.get(file));
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Cannot read evaluation weights: " + e.getMessage());
+            return new EvaluationWeights();
+        }
+    }
+
+    /**
+     * Read weights from a properties file
+     * @param file the properties file
+     * @return a new EvaluationWeights instance
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a key is unknown or a weight is not an integer
+     */
+    public static EvaluationWeights load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        EvaluationWeights result = new EvaluationWeights();
+        for (String key : properties.stringPropertyNames()) {
+            int dot = key.indexOf('.');
+            int phase = dot < 0 ? -1 : indexOf(PHASE_NAMES, key.substring(0, dot));
+            int feature = dot < 0 ? -1 : indexOf(FEATURE_NAMES, key.substring(dot + 1));
+            if (phase < 0 || feature < 0) {
+                throw new IllegalArgumentException("Unknown evaluation weight: " + key);
+            }
+            result.weights[phase][feature] = Integer.parseInt(properties.getProperty(key).trim());
+        }
+        return result;
+    }
+
+    /**
+     * Write the weights to a properties file
+     * @param file the properties file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        Properties properties = new Properties();
+        for (int phase = 0; phase < weights.length; phase++) {
+            for (int feature = 0; feature < NUM_OF_FEATURES; feature++) {
+                properties.setProperty(PHASE_NAMES[phase] + "." + FEATURE_NAMES[feature],
+                                       Integer.toString(weights[phase][feature]));
+            }
+        }
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            properties.store(writer, "Evaluation weights");
+        }
+    }
+
+    /**
+     * Retrieve the weights of every feature in a phase
+     * @param phase SET, MOVE or JUMP
+     * @return the weights indexed by feature, not to be modified
+     */
+    public int[] getWeights(GameState phase) {
+        return weights[getPhaseIndex(phase)];
+    }
+
+    /**
+     * Retrieve the weight of a feature in a phase
+     * @param phase SET, MOVE or JUMP
+     * @param feature the feature, e.g. MOBILITY
+     * @return the weight
+     */
+    public int get(GameState phase, int feature) {
+        return weights[getPhaseIndex(phase)][feature];
+    }
+
+    /**
+     * Change the weight of a feature in a phase
+     * @param phase SET, MOVE or JUMP
+     * @param feature the feature, e.g. MOBILITY
+     * @param weight the weight
+     */
+    public void set(GameState phase, int feature, int weight) {
+        weights[getPhaseIndex(phase)][feature] = weight;
+    }
+
+    /**
+     * Retrieve the index of a phase in the weights
+     * @param phase SET, MOVE or JUMP
+     * @return the index
+     * @throws IllegalArgumentException if the state is not a phase
+     */
+    private static int getPhaseIndex(GameState phase) {
+        return switch (phase) {
+            case SET -> 0;
+            case MOVE -> 1;
+            case JUMP -> 2;
+            default -> throw new IllegalArgumentException("Not a phase: " + phase);
+        };
+    }
+
+    /**
+     * Find a name in an array of names
+     * @param names the names
+     * @param name the name to find
+     * @return the index of the name, -1 if it is not found
+     */
+    private static int indexOf(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,162 @@
+package engine;
+
+import model.BoardTopology;
+import model.GameState;
+import model.Position;
+
+/**
+ * The Evaluator class scores a position from the point of view of the side to move. It rewards tokens (on board
+ * and still to set), complete mills, open mills that need one more token, double mills, mobility and penalizes
+ * blocked tokens, each weighted by the EvaluationWeights of the phase of the player. The mill and mobility
+ * features are read from the counters the Position keeps up to date on every set, move, jump and remove, so
+ * scoring a leaf only combines a few masks instead of walking every mill and neighbor list. A noise that only
+ * depends on the hash of the position and a seed can be added to the score to weaken the play on purpose.
+ */
+public class Evaluator {
+    /**
+     * an integer represents the mask of the low bit of every 2-bit mill counter
+     */
+    private static final int LOW_BITS = 0x5555_5555;
+
+    /**
+     * instance of the EvaluationWeights class that weights the features
+     */
+    private final EvaluationWeights weights;
+
+    /**
+     * an integer represents the largest noise added to or subtracted from a score, zero for none
+     */
+    private int noise;
+
+    /**
+     * a long represents the seed that decides the noise of each position
+     */
+    private long noiseSeed;
+
+    /**
+     * Constructor. Uses the weights configured by the system property EvaluationWeights.FILE_PROPERTY.
+     */
+    public Evaluator() {
+        this(EvaluationWeights.getConfigured());
+    }
+
+    /**
+     * Constructor
+     * @param weights the EvaluationWeights instance that weights the features
+     */
+    public Evaluator(EvaluationWeights weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Return the weights of this Evaluator instance
+     * @return an EvaluationWeights instance
+     */
+    public EvaluationWeights getWeights() {
+        return weights;
+    }
+
+    /**
+     * Score a position from the point of view of the side to move
+     * @param position the Position instance
+     * @return the score
+     */
+    public int evaluate(Position position) {
+        int color = position.getSideToMove();
+        int score = evaluateSide(position, color) - evaluateSide(position, color ^ 1);
+        return noise == 0 ? score : score + getNoise(position.getHash());
+    }
+
+    /**
+     * Setter of noise and noiseSeed
+     * @param noise the largest noise added to or subtracted from a score, zero for none
+     * @param noiseSeed the seed that decides the noise of each position
+     */
+    public void setNoise(int noise, long noiseSeed) {
+        this.noise = noise;
+        this.noiseSeed = noiseSeed;
+    }
+
+    /**
+     * Compute the noise of a position, spread evenly between -noise and noise
+     * @param hash the Zobrist hash of the position
+     * @return the noise
+     */
+    private int getNoise(long hash) {
+        // SplitMix64 finalizer, so positions with close hashes get unrelated noise
+        long mixed = hash ^ noiseSeed;
+        mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+        mixed ^= mixed >>> 31;
+        return (int) Math.floorMod(mixed, 2L * noise + 1) - noise;
+    }
+
+    /**
+     * Score the features of one player
+     * @param position the Position instance
+     * @param color the color index of the player
+     * @return the score of the player
+     */
+    private int evaluateSide(Position position, int color) {
+        GameState phase = position.getPhase(color);
+        int[] weight = weights.getWeights(phase);
+        int own = position.getOccupancy(color);
+        int empty = position.getEmpty();
+        int counts = position.getMillCounts(color);
+        int opponentCounts = position.getMillCounts(color ^ 1);
+
+        // a counter of 3 is a complete mill, a counter of 2 without opponent token is an open mill
+        int closedMills = counts & counts >>> 1 & LOW_BITS;
+        int openMills = counts >>> 1 & ~counts & ~(opponentCounts | opponentCounts >>> 1) & LOW_BITS;
+
+        int score = (Integer.bitCount(own) + position.getTokensToSet(color)) * weight[EvaluationWeights.TOKEN] +
+                    Integer.bitCount(closedMills) * weight[EvaluationWeights.CLOSED_MILL] +
+                    Integer.bitCount(openMills) * weight[EvaluationWeights.OPEN_MILL] +
+                    position.getMobility(color) * weight[EvaluationWeights.MOBILITY];
+
+        if (openMills != 0 && weight[EvaluationWeights.DOUBLE_MILL] != 0) {
+            score += countDoubleMills(closedMills, openMills, empty, phase) * weight[EvaluationWeights.DOUBLE_MILL];
+        }
+        if (weight[EvaluationWeights.BLOCKED] != 0) {
+            int blocked = 0;
+            for (int tokens = own; tokens != 0; tokens &= tokens - 1) {
+                if ((BoardTopology.getNeighborMask(Integer.numberOfTrailingZeros(tokens)) & empty) == 0) {
+                    blocked++;
+                }
+            }
+            score += blocked * weight[EvaluationWeights.BLOCKED];
+        }
+        return score;
+    }
+
+    /**
+     * Count the double mills of a player: the empty nodes shared by two open mills, and in the MOVE phase the
+     * open mills that a token of a complete mill can close by sliding into them
+     * @param closedMills the low bit of the counter of every complete mill
+     * @param openMills the low bit of the counter of every open mill
+     * @param empty the empty nodes
+     * @param phase the phase of the player
+     * @return the number of double mills
+     */
+    private static int countDoubleMills(int closedMills, int openMills, int empty, GameState phase) {
+        int once = 0;
+        int twice = 0;
+        int doubleMills = 0;
+        for (int open = openMills; open != 0; open &= open - 1) {
+            int openMill = BoardTopology.getMillMask(Integer.numberOfTrailingZeros(open) >>> 1);
+            int target = openMill & empty;
+            twice |= once & target;
+            once |= target;
+
+            if (phase == GameState.MOVE) {
+                int sources = BoardTopology.getNeighborMask(Integer.numberOfTrailingZeros(target)) & ~openMill;
+                for (int closed = closedMills; closed != 0; closed &= closed - 1) {
+                    if ((BoardTopology.getMillMask(Integer.numberOfTrailingZeros(closed) >>> 1) & sources) != 0) {
+                        doubleMills++;
+                    }
+                }
+            }
+        }
+        return doubleMills + Integer.bitCount(twice);
+    }
+}
@@ -0,0 +1,224 @@
+package engine;
+
+import model.Position;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The HintAnalyzer class finds the best few moves of a position for the hint of a human player. Positions are
+ * analysed with a multi-PV search on a thread of its own, and each analysis is cached by the hash of its
+ * position, so asking again for the same position returns the same analysis, finished or still running, and
+ * never starts a new search. An analysis can be started speculatively as soon as the position is reached, so
+ * the hint is ready by the time it is asked for. Starting the analysis of another position stops the running
+ * one, whose result is of no use anymore, and drops it from the cache.
+ */
+public class HintAnalyzer {
+    /**
+     * a String represents the system property that overrides the default number of moves of a hint
+     */
+    public static final String LINES_PROPERTY = "hint.lines";
+
+    /**
+     * a String represents the system property that overrides the default time to search each move of a hint
+     */
+    public static final String MILLIS_PROPERTY = "hint.millis";
+
+    /**
+     * an integer represents the default number of moves of a hint
+     */
+    public static final int DEFAULT_LINES = 3;
+
+    /**
+     * an integer represents the default time to search each move of a hint, in milliseconds
+     */
+    public static final int DEFAULT_MILLIS = 300;
+
+    /**
+     * an integer represents the number of analyses kept in the cache
+     */
+    private static final int CACHE_SIZE = 64;
+
+    /**
+     * an integer represents the size of the transposition table of the analysis in MB
+     */
+    private static final int HASH_SIZE_IN_MB = 16;
+
+    /**
+     * instance of the SearchEngine class that analyses the positions
+     */
+    private final SearchEngine searchEngine = new SearchEngine(new TranspositionTable(HASH_SIZE_IN_MB));
+
+    /**
+     * an ExecutorService instance that runs the analyses one after the other
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hint");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    /**
+     * a Map that caches the analysis of each position by its hash, the least recently used dropped first
+     */
+    private final Map<Long, CompletableFuture<SearchResult[]>> cache =
+            new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, CompletableFuture<SearchResult[]>> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    /**
+     * an integer represents the number of moves of a hint
+     */
+    private final int numOfLines;
+
+    /**
+     * a long represents the time to search each move of a hint in milliseconds
+     */
+    private final long millisPerLine;
+
+    /**
+     * instance of the SearchLimits class of the analysis started last, null once it has finished
+     */
+    private SearchLimits runningLimits;
+
+    /**
+     * Constructor. Uses the configured number of moves and time per move.
+     */
+    public HintAnalyzer() {
+        this(getConfiguredLines(), getConfiguredMillis());
+    }
+
+    /**
+     * Constructor
+     * @param numOfLines the number of moves of a hint
+     * @param millisPerLine the time to search each move of a hint in milliseconds
+     */
+    public HintAnalyzer(int numOfLines, long millisPerLine) {
+        if (numOfLines < 1 || millisPerLine < 1) {
+            throw new IllegalArgumentException("Invalid hint analysis: " + numOfLines + " lines of " +
+                                               millisPerLine + "ms");
+        }
+        this.numOfLines = numOfLines;
+        this.millisPerLine = millisPerLine;
+    }
+
+    /**
+     * Retrieve the analysis of a position, starting it if it is neither cached nor running
+     * @param position the Position instance to analyse, copied so it can change afterwards
+     * @return the future SearchResult instance of each move, best first
+     */
+    public synchronized CompletableFuture<SearchResult[]> analyze(Position position) {
+        long hash = position.getHash();
+        CompletableFuture<SearchResult[]> analysis = cache.get(hash);
+        if (analysis != null) {
+            return analysis;
+        }
+
+        // the running analysis is for a position the game has left
+        stop();
+
+        Position copy = new Position();
+        copy.copyFrom(position);
+        SearchLimits limits = new SearchLimits(SearchLimits.DEFAULT_MAX_DEPTH, 0, millisPerLine / 2, millisPerLine);
+        CompletableFuture<SearchResult[]> future = new CompletableFuture<>();
+        cache.put(hash, future);
+        runningLimits = limits;
+        executor.execute(() -> run(hash, copy, limits, future));
+        return future;
+    }
+
+    /**
+     * Retrieve the finished analysis of a position without starting one
+     * @param position the Position instance
+     * @return the SearchResult instance of each move, best first, or null if the analysis is not cached or
+     *         has not finished
+     */
+    public synchronized SearchResult[] getAnalysis(Position position) {
+        CompletableFuture<SearchResult[]> analysis = cache.get(position.getHash());
+        return analysis != null && analysis.isDone() && !analysis.isCompletedExceptionally() ? analysis.join() : null;
+    }
+
+    /**
+     * Stop the running analysis, if any, e.g. to leave the processor to the computer player. Its result is
+     * dropped from the cache.
+     */
+    public synchronized void stop() {
+        if (runningLimits != null) {
+            runningLimits.stop();
+            runningLimits = null;
+        }
+    }
+
+    /**
+     * Stop the running analysis and the thread of the analyses
+     */
+    public void shutdown() {
+        stop();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Analyse a position on the thread of the analyses
+     * @param hash the hash of the position
+     * @param position the Position instance to analyse
+     * @param limits the SearchLimits instance of each move
+     * @param future the future to complete with the analysis
+     */
+    private void run(long hash, Position position, SearchLimits limits, CompletableFuture<SearchResult[]> future) {
+        SearchResult[] lines = null;
+        RuntimeException failure = null;
+        if (!limits.isStopped()) {
+            try {
+                lines = searchEngine.searchMultiPv(position, limits, numOfLines);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        // a stopped analysis is incomplete, so it is not kept for the next time the position is reached
+        synchronized (this) {
+            if (limits.isStopped() || failure != null) {
+                cache.remove(hash, future);
+            }
+            if (runningLimits == limits) {
+                runningLimits = null;
+            }
+        }
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        } else {
+            future.complete(lines != null ? lines : new SearchResult[0]);
+        }
+    }
+
+    /**
+     * Retrieve the number of moves of a hint
+     * @return the number of moves
+     */
+    public int getNumOfLines() {
+        return numOfLines;
+    }
+
+    /**
+     * Retrieve the number of moves of a hint configured by the system property LINES_PROPERTY
+     * @return the number of moves
+     */
+    public static int getConfiguredLines() {
+        return Integer.getInteger(LINES_PROPERTY, DEFAULT_LINES);
+    }
+
+    /**
+     * Retrieve the time to search each move of a hint configured by the system property MILLIS_PROPERTY
+     * @return the time in milliseconds
+     */
+    public static int getConfiguredMillis() {
+        return Integer.getInteger(MILLIS_PROPERTY, DEFAULT_MILLIS);
+    }
+}
@@ -0,0 +1,178 @@
+package engine;
+
+import model.Position;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The LazySmpSearch class searches a position with several SearchEngine instances in parallel (Lazy SMP). Every
+ * engine searches the whole tree on its own thread, and they only cooperate through one shared
+ * TranspositionTable, so the results of one thread shorten the searches of the others. The calling thread runs
+ * the main engine, whose result is returned; helper engines start on alternating depths so the threads diverge,
+ * and are stopped as soon as the main engine finishes. With a single thread the search is the plain
+ * SearchEngine search, which is deterministic under node and depth limits.
+ */
+public class LazySmpSearch implements Engine {
+    /**
+     * a String represents the system property that overrides the default number of threads
+     */
+    public static final String THREADS_PROPERTY = "engine.threads";
+
+    /**
+     * instance of the TranspositionTable class shared by every engine
+     */
+    private final TranspositionTable transpositionTable;
+
+    /**
+     * an array that stores one SearchEngine instance per thread, the first one runs on the calling thread
+     */
+    private final SearchEngine[] engines;
+
+    /**
+     * an ExecutorService instance that runs the helper engines, null with a single thread
+     */
+    private final ExecutorService executor;
+
+    /**
+     * an array that stores the pending result of each helper engine
+     */
+    private final Future<?>[] helpers;
+
+    /**
+     * Constructor. Creates a search with the configured number of threads and transposition table size.
+     */
+    public LazySmpSearch() {
+        this(getConfiguredThreads(), TranspositionTable.getConfiguredSizeInMb(),
+             TranspositionTable.isConfiguredSymmetric());
+    }
+
+    /**
+     * Constructor
+     * @param threads the number of search threads, 1 for a deterministic single-thread search
+     * @param hashSizeInMb the size of the shared transposition table in MB
+     */
+    public LazySmpSearch(int threads, int hashSizeInMb) {
+        this(threads, hashSizeInMb, false);
+    }
+
+    /**
+     * Constructor
+     * @param threads the number of search threads, 1 for a deterministic single-thread search
+     * @param hashSizeInMb the size of the shared transposition table in MB
+     * @param symmetricHash true to share one table entry between symmetric positions
+     */
+    public LazySmpSearch(int threads, int hashSizeInMb, boolean symmetricHash) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("The search needs at least 1 thread");
+        }
+        transpositionTable = new TranspositionTable(hashSizeInMb, symmetricHash);
+        engines = new SearchEngine[threads];
+        for (int i = 0; i < threads; i++) {
+            engines[i] = new SearchEngine(transpositionTable);
+        }
+        helpers = new Future<?>[threads - 1];
+        executor = threads == 1 ? null : Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Retrieve the configured number of threads, the number of available processors unless overridden by the
+     * system property THREADS_PROPERTY, e.g. -Dengine.threads=1
+     * @return the number of threads
+     */
+    public static int getConfiguredThreads() {
+        return Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Retrieve the number of search threads
+     * @return the number of threads
+     */
+    public int getThreads() {
+        return engines.length;
+    }
+
+    /**
+     * Return the transpositionTable shared by the engines of this LazySmpSearch instance
+     * @return a TranspositionTable instance
+     */
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    /**
+     * Search for the best move of a position with every thread
+     * @param root the Position instance to search, left unchanged
+     * @param limits the SearchLimits instance that holds the depth, node and time budget
+     * @return the SearchResult of the main engine, counting the nodes of every thread
+     */
+    @Override
+    public SearchResult search(Position root, SearchLimits limits) {
+        SearchEngine main = engines[0];
+        if (executor == null) {
+            return main.search(root, limits);
+        }
+
+        transpositionTable.newSearch();
+        limits.start();
+        for (int i = 0; i < helpers.length; i++) {
+            SearchEngine helper = engines[i + 1];
+            int startDepth = 1 + (i & 1);
+            Position helperRoot = new Position();
+            helperRoot.copyFrom(root);
+            helper.clearStop();
+            helpers[i] = executor.submit(() -> helper.search(helperRoot, limits, startDepth));
+        }
+
+        main.clearStop();
+        SearchResult result;
+        try {
+            result = main.search(root, limits, 1);
+        } finally {
+            for (int i = 1; i < engines.length; i++) {
+                engines[i].stop();
+            }
+        }
+
+        // wait for the helpers, so they are idle before the next search reuses them
+        long nodes = result.getNodes();
+        for (Future<?> helper : helpers) {
+            try {
+                nodes += ((SearchResult) helper.get()).getNodes();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A search helper failed", e.getCause());
+            }
+        }
+        return new SearchResult(result.getBestMove(), result.getScore(), result.getPrincipalVariation(),
+                                result.getDepth(), nodes, result.getElapsedMillis());
+    }
+
+    /**
+     * Ask the running search to stop as soon as possible
+     */
+    @Override
+    public void stop() {
+        for (SearchEngine engine : engines) {
+            engine.stop();
+        }
+    }
+
+    /**
+     * Stop the helper threads. The search must not be used afterwards.
+     */
+    @Override
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,581 @@
+package engine;
+
+import model.Move;
+import model.MoveGenerator;
+import model.Position;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The MctsSearch class finds the best move of a position with a Monte Carlo Tree Search. Every iteration walks
+ * down the tree choosing children by UCT, expands the leaf with all of its moves, plays the game out to the end
+ * and backs the result up the path. Playouts are random, or heavy when they prefer to close a mill and then to
+ * block a mill of the opponent, and they reuse per-thread buffers of the allocation-free MoveGenerator.
+ * All threads grow one shared tree (tree parallelism): a thread walking through a node adds a virtual loss to it
+ * until its result is backed up, so the other threads spread over other branches. The tree of the previous
+ * search is kept when the new root is one of its positions up to two plies deep, e.g. after the reply of the
+ * opponent. The search runs until the node budget of the SearchLimits is spent as playouts, the soft time is up
+ * or it is stopped; the depth limit does not apply, and a search without a playout or time budget runs until it
+ * is stopped, like a ponder search before its ponderhit. Run it from the command line to measure playouts per
+ * second:
+ * <pre>
+ * java engine.MctsSearch [-playouts N] [-millis N] [-threads N] [-heavy] [-position "..."]
+ * </pre>
+ */
+public class MctsSearch implements Engine {
+    /**
+     * a String represents the system property that selects heavy playouts, e.g. -Dmcts.heavy=true
+     */
+    public static final String HEAVY_PROPERTY = "mcts.heavy";
+
+    /**
+     * a String represents the system property that overrides the default maximum number of tree nodes
+     */
+    public static final String TREE_NODES_PROPERTY = "mcts.treeNodes";
+
+    /**
+     * an integer represents the default maximum number of tree nodes
+     */
+    public static final int DEFAULT_MAX_TREE_NODES = 2_000_000;
+
+    /**
+     * a double represents the exploration constant of UCT for results between 0 and 1
+     */
+    private static final double EXPLORATION = 1.0;
+
+    /**
+     * an integer represents the number of losses a thread adds to every node on its path
+     */
+    private static final int VIRTUAL_LOSS = 1;
+
+    /**
+     * an integer represents the longest playout, which is a draw when it ends there
+     */
+    private static final int MAX_PLAYOUT_PLIES = 200;
+
+    /**
+     * an integer represents the score of a position that always wins
+     */
+    private static final int SCORE_SCALE = 1000;
+
+    /**
+     * an integer represents the mask of the playout count at which the clock is read
+     */
+    private static final int CLOCK_CHECK_MASK = 63;
+
+    /**
+     * an integer represents the deepest position of the previous tree that is reused as the new root
+     */
+    private static final int REUSE_DEPTH = 2;
+
+    /**
+     * an integer represents the longest principal variation reported
+     */
+    private static final int MAX_PV_LENGTH = 64;
+
+    /**
+     * an integer represents the result of a drawn playout
+     */
+    private static final int DRAW = -1;
+
+    /**
+     * an array that marks a node without any move
+     */
+    private static final TreeNode[] NO_CHILDREN = new TreeNode[0];
+
+    /**
+     * a boolean represents whether the playouts are heavy
+     */
+    private final boolean heavyPlayouts;
+
+    /**
+     * an integer represents the maximum number of tree nodes, beyond which leaves are not expanded anymore
+     */
+    private final int maxTreeNodes;
+
+    /**
+     * an ExecutorService instance that runs the helper threads, null with a single thread
+     */
+    private final ExecutorService executor;
+
+    /**
+     * an array that stores the pending result of each helper thread
+     */
+    private final Future<?>[] helpers;
+
+    /**
+     * an AtomicInteger instance that counts the nodes of the tree
+     */
+    private final AtomicInteger treeSize = new AtomicInteger();
+
+    /**
+     * an AtomicLong instance that counts the playouts of the current search
+     */
+    private final AtomicLong playouts = new AtomicLong();
+
+    /**
+     * a long represents the seed of the random playouts of the next thread
+     */
+    private long seed = 1;
+
+    /**
+     * instance of the Position class at the root of the tree
+     */
+    private Position rootPosition;
+
+    /**
+     * instance of the TreeNode class at the root of the tree
+     */
+    private TreeNode root;
+
+    /**
+     * a boolean to indicate if the current search has to stop
+     */
+    private volatile boolean stopRequested;
+
+    /**
+     * Constructor. Creates a search with the configured number of threads, playouts and tree size.
+     */
+    public MctsSearch() {
+        this(LazySmpSearch.getConfiguredThreads(), Boolean.getBoolean(HEAVY_PROPERTY),
+             Integer.getInteger(TREE_NODES_PROPERTY, DEFAULT_MAX_TREE_NODES));
+    }
+
+    /**
+     * Constructor
+     * @param threads the number of search threads
+     * @param heavyPlayouts true for playouts that prefer mills, false for random playouts
+     * @param maxTreeNodes the maximum number of tree nodes
+     */
+    public MctsSearch(int threads, boolean heavyPlayouts, int maxTreeNodes) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("The search needs at least 1 thread");
+        }
+        this.heavyPlayouts = heavyPlayouts;
+        this.maxTreeNodes = maxTreeNodes;
+        helpers = new Future<?>[threads - 1];
+        executor = threads == 1 ? null : Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "mcts-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Search for the best move of a position with every thread
+     * @param position the Position instance to search, left unchanged
+     * @param limits the SearchLimits instance that holds the playout and time budget
+     * @return a SearchResult instance whose nodes are the playouts and whose best move is the most visited
+     */
+    @Override
+    public SearchResult search(Position position, SearchLimits limits) {
+        long start = System.nanoTime();
+        stopRequested = false;
+        limits.start();
+        playouts.set(0);
+        reuseTree(position);
+
+        for (int i = 0; i < helpers.length; i++) {
+            long helperSeed = seed++;
+            helpers[i] = executor.submit(() -> runWorker(limits, helperSeed));
+        }
+        try {
+            runWorker(limits, seed++);
+        } finally {
+            stopRequested = true;
+        }
+
+        // wait for the helpers, so they are idle before the next search reuses the tree
+        for (Future<?> helper : helpers) {
+            try {
+                helper.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A search helper failed", e.getCause());
+            }
+        }
+        return getResult(System.nanoTime() - start);
+    }
+
+    /**
+     * Ask the running search to stop as soon as possible. It returns the most visited move so far.
+     */
+    @Override
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Stop the helper threads. The search must not be used afterwards.
+     */
+    @Override
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Keep the subtree of the previous tree whose root is the position to search, else start a new tree
+     * @param position the Position instance to search
+     */
+    private void reuseTree(Position position) {
+        TreeNode node = root == null ? null : findNode(root, rootPosition, position, REUSE_DEPTH);
+        if (node == null) {
+            node = new TreeNode(Move.NULL_MOVE, null, position.getSideToMove() ^ 1);
+        }
+        node.parent = null;
+        root = node;
+        rootPosition = new Position(position);
+        treeSize.set(countNodes(root));
+    }
+
+    /**
+     * Find the node of a position below a node
+     * @param node the TreeNode instance to search from
+     * @param nodePosition the Position instance of the node
+     * @param target the Position instance to find
+     * @param depth the number of plies to search below the node
+     * @return the TreeNode instance of the target, or null if it is not found
+     */
+    private static TreeNode findNode(TreeNode node, Position nodePosition, Position target, int depth) {
+        if (nodePosition.equals(target)) {
+            return node;
+        }
+        TreeNode[] children = node.children;
+        if (depth == 0 || children == null) {
+            return null;
+        }
+        Position child = new Position();
+        for (TreeNode next : children) {
+            child.copyFrom(nodePosition);
+            child.makeMove(next.move);
+            TreeNode found = findNode(next, child, target, depth - 1);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Count the nodes of a tree
+     * @param node the TreeNode instance at the root of the tree
+     * @return the number of nodes
+     */
+    private static int countNodes(TreeNode node) {
+        int count = 1;
+        TreeNode[] children = node.children;
+        if (children != null) {
+            for (TreeNode child : children) {
+                count += countNodes(child);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Run iterations on the calling thread until the budget is spent or the search is stopped
+     * @param limits the SearchLimits instance of the search
+     * @param workerSeed the seed of the random playouts of the thread
+     */
+    private void runWorker(SearchLimits limits, long workerSeed) {
+        Position position = new Position();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        SplittableRandom random = new SplittableRandom(workerSeed);
+        long maxPlayouts = limits.getMaxNodes();
+        long maxMillis = limits.getSoftTimeMillis() > 0 ? limits.getSoftTimeMillis() : limits.getHardTimeMillis();
+
+        for (long count = 0; !stopRequested && !limits.isStopped(); count++) {
+            if ((maxPlayouts > 0 && playouts.get() >= maxPlayouts) ||
+                ((count & CLOCK_CHECK_MASK) == 0 && !limits.isPondering() && maxMillis > 0 &&
+                 limits.getElapsedMillis() >= maxMillis)) {
+                break;
+            }
+            iterate(position, moves, random);
+            playouts.incrementAndGet();
+        }
+    }
+
+    /**
+     * Run one iteration: select a leaf, expand it, play it out and back the result up
+     * @param position the Position instance of the thread
+     * @param moves the move buffer of the thread
+     * @param random the SplittableRandom instance of the thread
+     */
+    private void iterate(Position position, int[] moves, SplittableRandom random) {
+        position.copyFrom(rootPosition);
+        TreeNode node = root;
+
+        // select, expanding a leaf once it has been visited
+        while (true) {
+            TreeNode[] children = node.children;
+            if (children == null && (node == root || node.visits.get() > 0)) {
+                expand(node, position, moves);
+                children = node.children;
+            }
+            if (children == null || children.length == 0) {
+                break;
+            }
+            node = select(node, children);
+            node.virtualLosses.addAndGet(VIRTUAL_LOSS);
+            position.makeMove(node.move);
+        }
+
+        int winner = playout(position, moves, random);
+
+        // back up, each node counts the result for the player who made its move
+        for (TreeNode current = node; current != null; current = current.parent) {
+            if (current != root) {
+                current.virtualLosses.addAndGet(-VIRTUAL_LOSS);
+            }
+            current.points.addAndGet(winner == DRAW ? 1 : winner == current.mover ? 2 : 0);
+            current.visits.incrementAndGet();
+        }
+    }
+
+    /**
+     * Create the children of a node, unless another thread did or the tree is full
+     * @param node the TreeNode instance
+     * @param position the Position instance of the node
+     * @param moves the move buffer of the thread
+     */
+    private void expand(TreeNode node, Position position, int[] moves) {
+        synchronized (node) {
+            if (node.children != null) {
+                return;
+            }
+            if (position.isGameOver()) {
+                node.children = NO_CHILDREN;
+                return;
+            }
+            int count = MoveGenerator.generate(position, moves);
+            if (treeSize.addAndGet(count) > maxTreeNodes && node != root) {
+                treeSize.addAndGet(-count);
+                return;
+            }
+            TreeNode[] children = new TreeNode[count];
+            for (int i = 0; i < count; i++) {
+                children[i] = new TreeNode(moves[i], node, position.getSideToMove());
+            }
+            node.children = children;
+        }
+    }
+
+    /**
+     * Choose the child with the highest upper confidence bound. The virtual losses of a child count as visits
+     * without points.
+     * @param parent the TreeNode instance
+     * @param children the children of the node
+     * @return the chosen child
+     */
+    private static TreeNode select(TreeNode parent, TreeNode[] children) {
+        double logVisits = Math.log(Math.max(1, parent.visits.get()));
+        TreeNode best = children[0];
+        double bestBound = Double.NEGATIVE_INFINITY;
+        for (TreeNode child : children) {
+            int visits = child.visits.get() + child.virtualLosses.get();
+            if (visits == 0) {
+                return child;
+            }
+            double bound = child.points.get() / (2.0 * visits) + EXPLORATION * Math.sqrt(logVisits / visits);
+            if (bound > bestBound) {
+                bestBound = bound;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Play a position out to the end of the game
+     * @param position the Position instance to play on
+     * @param moves the move buffer of the thread
+     * @param random the SplittableRandom instance of the thread
+     * @return the color of the winner, or DRAW if the playout is too long
+     */
+    private int playout(Position position, int[] moves, SplittableRandom random) {
+        for (int ply = 0; ply < MAX_PLAYOUT_PLIES; ply++) {
+            if (position.isGameOver()) {
+                return position.getSideToMove() ^ 1;
+            }
+            int count = MoveGenerator.generate(position, moves);
+            int move = heavyPlayouts ? pickHeavy(position, moves, count, random) : moves[random.nextInt(count)];
+            position.makeMove(move);
+        }
+        return DRAW;
+    }
+
+    /**
+     * Pick the move of a heavy playout: a random move closing a mill, else a random move blocking a mill of the
+     * opponent, else a random move
+     * @param position the Position instance
+     * @param moves the move buffer
+     * @param count the number of moves in the buffer
+     * @param random the SplittableRandom instance of the thread
+     * @return the encoded move
+     */
+    private static int pickHeavy(Position position, int[] moves, int count, SplittableRandom random) {
+        int color = position.getSideToMove();
+        int threats = MoveOrdering.getMillThreats(position.getOccupancy(color ^ 1), position.getEmpty());
+        int bestRank = -1;
+        int candidates = 0;
+        int picked = moves[0];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int to = Move.getTo(move);
+            int rank = Move.hasRemove(move) ? 2 : to != Move.NONE && (threats & 1 << to) != 0 ? 1 : 0;
+            if (rank > bestRank) {
+                bestRank = rank;
+                candidates = 0;
+            }
+
+            // reservoir sampling among the moves of the best rank
+            if (rank == bestRank && random.nextInt(++candidates) == 0) {
+                picked = move;
+            }
+        }
+        return picked;
+    }
+
+    /**
+     * Build the result of the search from the tree
+     * @param elapsedNanos the time spent searching in nanoseconds
+     * @return a SearchResult instance
+     */
+    private SearchResult getResult(long elapsedNanos) {
+        TreeNode[] children = root.children;
+        if (children == null || children.length == 0) {
+            return new SearchResult(Move.NULL_MOVE, -SearchEngine.WIN_SCORE, new int[0], 0, playouts.get(),
+                                    elapsedNanos / 1_000_000);
+        }
+
+        int[] variation = new int[MAX_PV_LENGTH];
+        int length = 0;
+        TreeNode best = getMostVisited(children);
+        for (TreeNode node = best; node != null && length < MAX_PV_LENGTH; ) {
+            variation[length++] = node.move;
+            node = node.children == null || node.children.length == 0 ? null : getMostVisited(node.children);
+            if (node != null && node.visits.get() == 0) {
+                break;
+            }
+        }
+        int[] pv = new int[length];
+        System.arraycopy(variation, 0, pv, 0, length);
+
+        int visits = best.visits.get();
+        double mean = visits == 0 ? 0.5 : best.points.get() / (2.0 * visits);
+        int score = (int) Math.round((2 * mean - 1) * SCORE_SCALE);
+        return new SearchResult(best.move, score, pv, length, playouts.get(), elapsedNanos / 1_000_000);
+    }
+
+    /**
+     * Retrieve the most visited child
+     * @param children the children of a node, not empty
+     * @return the TreeNode instance
+     */
+    private static TreeNode getMostVisited(TreeNode[] children) {
+        TreeNode best = children[0];
+        for (TreeNode child : children) {
+            if (child.visits.get() > best.visits.get()) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The command line entry point
+     * @param args -playouts for the playout budget, -millis for the time budget, -threads for the number of
+     *             threads, -heavy for heavy playouts and -position for the position to search
+     */
+    public static void main(String[] args) {
+        long maxPlayouts = 0;
+        long millis = 5000;
+        int threads = LazySmpSearch.getConfiguredThreads();
+        boolean heavy = false;
+        Position position = new Position();
+
+        // parse arguments
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-playouts" -> maxPlayouts = Long.parseLong(args[++i]);
+                case "-millis" -> millis = Long.parseLong(args[++i]);
+                case "-threads" -> threads = Integer.parseInt(args[++i]);
+                case "-heavy" -> heavy = true;
+                case "-position" -> position = Position.parse(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        MctsSearch search = new MctsSearch(threads, heavy, DEFAULT_MAX_TREE_NODES);
+        SearchResult result = search.search(position, new SearchLimits(SearchLimits.DEFAULT_MAX_DEPTH, maxPlayouts,
+                                                                       maxPlayouts > 0 ? 0 : millis, 0));
+        search.shutdown();
+        System.out.println("Position: " + position);
+        System.out.println("Result:   " + result);
+        System.out.printf("%d playouts  %.0f playouts/s%n", result.getNodes(),
+                          result.getNodes() * 1000.0 / Math.max(1, result.getElapsedMillis()));
+    }
+
+    /**
+     * The TreeNode class holds one node of the shared tree: the move leading to it and its statistics, updated
+     * atomically by every thread
+     */
+    private static class TreeNode {
+        /**
+         * an integer represents the move leading to this node
+         */
+        private final int move;
+
+        /**
+         * an integer represents the color of the player who made the move
+         */
+        private final int mover;
+
+        /**
+         * instance of the TreeNode class above this node, null at the root
+         */
+        private TreeNode parent;
+
+        /**
+         * an array that stores the children of this node, null until the node is expanded
+         */
+        private volatile TreeNode[] children;
+
+        /**
+         * an AtomicInteger instance that counts the playouts through this node
+         */
+        private final AtomicInteger visits = new AtomicInteger();
+
+        /**
+         * an AtomicLong instance that sums the results for the mover in half points: 2 for a win, 1 for a draw
+         */
+        private final AtomicLong points = new AtomicLong();
+
+        /**
+         * an AtomicInteger instance that counts the threads currently below this node
+         */
+        private final AtomicInteger virtualLosses = new AtomicInteger();
+
+        /**
+         * Constructor
+         * @param move the move leading to the node
+         * @param parent the TreeNode instance above the node
+         * @param mover the color of the player who made the move
+         */
+        private TreeNode(int move, TreeNode parent, int mover) {
+            this.move = move;
+            this.parent = parent;
+            this.mover = mover;
+        }
+    }
+}
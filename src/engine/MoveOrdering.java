@@ -0,0 +1,190 @@
+package engine;
+
+import model.BoardTopology;
+import model.Move;
+import model.Position;
+
+/**
+ * The MoveOrdering class scores the moves of a position so the search tries the most promising moves first:
+ * the hash move, then moves that close a mill, then moves that block a mill of the opponent, then the killer
+ * moves of the ply, and finally the other moves by their history score. Killer moves and the history table are
+ * learned from the quiet moves that caused a beta cutoff.
+ */
+public class MoveOrdering {
+    /**
+     * an integer represents the score of the hash move
+     */
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+
+    /**
+     * an integer represents the score of a move that closes a mill
+     */
+    private static final int MILL_SCORE = 1 << 28;
+
+    /**
+     * an integer represents the bonus of a remove that breaks a mill the opponent is about to close
+     */
+    private static final int REMOVE_BLOCK_SCORE = 1 << 24;
+
+    /**
+     * an integer represents the score of a move that blocks a mill of the opponent
+     */
+    private static final int BLOCK_SCORE = 1 << 27;
+
+    /**
+     * an integer represents the score of the first killer move, the second killer scores one less
+     */
+    private static final int KILLER_SCORE = 1 << 26;
+
+    /**
+     * an integer represents the history score above which the whole table is halved
+     */
+    private static final int MAX_HISTORY = 1 << 24;
+
+    /**
+     * an integer represents the number of killer moves kept per ply
+     */
+    private static final int NUM_OF_KILLERS = 2;
+
+    /**
+     * a two dimensional array that stores the killer moves of each ply
+     */
+    private final int[][] killers;
+
+    /**
+     * a two dimensional array that stores the history score of each source (Move.NONE for a set) and destination
+     */
+    private final int[][] history = new int[Move.NONE + 1][BoardTopology.NUM_OF_NODES];
+
+    /**
+     * Constructor
+     * @param maxPly the deepest ply that keeps killer moves
+     */
+    public MoveOrdering(int maxPly) {
+        killers = new int[maxPly + 1][NUM_OF_KILLERS];
+    }
+
+    /**
+     * Prepare for a new search: forget the killer moves and age the history scores
+     */
+    public void newSearch() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = Move.NULL_MOVE;
+            plyKillers[1] = Move.NULL_MOVE;
+        }
+        ageHistory();
+    }
+
+    /**
+     * Score the moves of a position
+     * @param position the Position instance the moves were generated for
+     * @param ply the ply of the position
+     * @param moves the move buffer
+     * @param scores the buffer that receives the score of each move
+     * @param count the number of moves
+     * @param hashMove the move stored in the transposition table, Move.NULL_MOVE if none
+     */
+    public void scoreMoves(Position position, int ply, int[] moves, int[] scores, int count, int hashMove) {
+        int threats = getMillThreats(position.getOccupancy(position.getSideToMove() ^ 1), position.getEmpty());
+        int[] plyKillers = killers[ply];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int score;
+            if (move == hashMove) {
+                score = HASH_MOVE_SCORE;
+            } else if (Move.hasRemove(move)) {
+                score = MILL_SCORE;
+                if ((threats & 1 << Move.getRemove(move)) != 0) {
+                    score += REMOVE_BLOCK_SCORE;
+                }
+            } else if (Move.getTo(move) != Move.NONE && (threats & 1 << Move.getTo(move)) != 0) {
+                score = BLOCK_SCORE;
+            } else if (move == plyKillers[0]) {
+                score = KILLER_SCORE;
+            } else if (move == plyKillers[1]) {
+                score = KILLER_SCORE - 1;
+            } else {
+                score = history[Move.getFrom(move)][Move.getTo(move)];
+            }
+            scores[i] = score;
+        }
+    }
+
+    /**
+     * Bring the best scored move among the moves not tried yet to the given index
+     * @param moves the move buffer
+     * @param scores the scores of the moves
+     * @param index the index of the next move to try
+     * @param count the number of moves
+     * @return the move to try next
+     */
+    public static int pickNext(int[] moves, int[] scores, int index, int count) {
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves[best];
+        if (best != index) {
+            moves[best] = moves[index];
+            moves[index] = move;
+            int score = scores[best];
+            scores[best] = scores[index];
+            scores[index] = score;
+        }
+        return move;
+    }
+
+    /**
+     * Learn from a move that caused a beta cutoff. Moves that close a mill are already tried early, so only the
+     * other moves become killer moves and earn history score.
+     * @param ply the ply of the move
+     * @param depth the remaining depth at the ply
+     * @param move the encoded move
+     */
+    public void onCutoff(int ply, int depth, int move) {
+        if (Move.hasRemove(move) || Move.getTo(move) == Move.NONE) {
+            return;
+        }
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        int[] fromHistory = history[Move.getFrom(move)];
+        fromHistory[Move.getTo(move)] += depth * depth;
+        if (fromHistory[Move.getTo(move)] > MAX_HISTORY) {
+            ageHistory();
+        }
+    }
+
+    /**
+     * Halve every history score, so recent cutoffs outweigh old ones
+     */
+    private void ageHistory() {
+        for (int[] fromHistory : history) {
+            for (int to = 0; to < fromHistory.length; to++) {
+                fromHistory[to] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Find the nodes of the mills the opponent can close with one more token: two tokens of the opponent and an
+     * empty node
+     * @param opponent the tokens of the opponent
+     * @param empty the empty nodes
+     * @return the mask of every node on such a mill
+     */
+    static int getMillThreats(int opponent, int empty) {
+        int threats = 0;
+        for (int millIndex = 0; millIndex < BoardTopology.NUM_OF_MILLS; millIndex++) {
+            int mill = BoardTopology.getMillMask(millIndex);
+            if (Integer.bitCount(opponent & mill) == 2 && (empty & mill) != 0) {
+                threats |= mill;
+            }
+        }
+        return threats;
+    }
+}
@@ -0,0 +1,267 @@
+package engine;
+
+import model.Move;
+import model.MoveGenerator;
+import model.Position;
+import model.Tutorial;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The Perft class counts the leaf nodes of the game tree to a given depth, where one ply is one complete move
+ * (set, move or jump together with the remove of a closed mill). The node counts of known positions act as a
+ * regression gate for the MoveGenerator and the Position rules, and the time taken measures their speed.
+ * Run it from the command line:
+ * <pre>
+ * java engine.Perft [-depth N] [-tutorial K | -position "W.......B............... b SET 8/8"] [-divide] [-parallel]
+ * </pre>
+ * From the initial position the expected counts are 24, 552, 12144, 255024, 5140800 and 99274176 for depths
+ * 1 to 6.
+ */
+public class Perft {
+    /**
+     * an integer represents the deepest perft supported
+     */
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * an integer represents the default depth of the command line tool
+     */
+    private static final int DEFAULT_DEPTH = 5;
+
+    /**
+     * a two dimensional array that stores a move buffer for each ply
+     */
+    private final int[][] moves = new int[MAX_DEPTH][MoveGenerator.MAX_MOVES];
+
+    /**
+     * an array that stores a position for each ply, so that moves are applied without allocation
+     */
+    private final Position[] positions = new Position[MAX_DEPTH + 1];
+
+    /**
+     * Constructor
+     */
+    public Perft() {
+        for (int ply = 0; ply <= MAX_DEPTH; ply++) {
+            positions[ply] = new Position();
+        }
+    }
+
+    /**
+     * Count the leaf nodes of the game tree from a position
+     * @param position the Position instance to start from, left unchanged
+     * @param depth the number of plies to walk
+     * @return the number of leaf nodes
+     */
+    public long perft(Position position, int depth) {
+        if (depth < 0 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 0 and " + MAX_DEPTH);
+        }
+        positions[0].copyFrom(position);
+        return perft(0, depth);
+    }
+
+    /**
+     * Count the leaf nodes below the position of a ply
+     * @param ply the ply of the position in the positions array
+     * @param depth the number of plies left to walk
+     * @return the number of leaf nodes
+     */
+    private long perft(int ply, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        int[] buffer = moves[ply];
+        int count = MoveGenerator.generate(positions[ply], buffer);
+
+        // every move at the last ply is a leaf
+        if (depth == 1) {
+            return count;
+        }
+
+        long nodes = 0;
+        Position child = positions[ply + 1];
+        for (int i = 0; i < count; i++) {
+            child.copyFrom(positions[ply]);
+            child.makeMove(buffer[i]);
+            nodes += perft(ply + 1, depth - 1);
+        }
+        return nodes;
+    }
+
+    /**
+     * Count the leaf nodes below each legal move of a position
+     * @param position the Position instance to start from
+     * @param depth the number of plies to walk, at least one
+     * @param pool the ForkJoinPool to run the subtrees on, null to run them on the calling thread
+     * @return one entry per legal move, in generation order
+     */
+    public static List<DivideEntry> divide(Position position, int depth, ForkJoinPool pool) {
+        int[] rootMoves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(position, rootMoves);
+
+        List<SubtreeTask> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(new SubtreeTask(position, rootMoves[i], depth - 1));
+        }
+
+        if (pool != null) {
+            pool.invoke(new RecursiveTask<Void>() {
+                @Override
+                protected Void compute() {
+                    invokeAll(tasks);
+                    return null;
+                }
+            });
+        } else {
+            for (SubtreeTask task : tasks) {
+                task.invoke();
+            }
+        }
+
+        List<DivideEntry> entries = new ArrayList<>(count);
+        for (SubtreeTask task : tasks) {
+            entries.add(new DivideEntry(task.move, task.join()));
+        }
+        return entries;
+    }
+
+    /**
+     * The command line entry point
+     * @param args the command line arguments, see the class description
+     */
+    public static void main(String[] args) {
+        int depth = DEFAULT_DEPTH;
+        Position position = new Position();
+        boolean divide = false;
+        boolean parallel = false;
+
+        // parse arguments
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-depth" -> depth = Integer.parseInt(args[++i]);
+                case "-tutorial" -> {
+                    position = Tutorial.getTutorialPosition(Integer.parseInt(args[++i]));
+                    if (position == null) {
+                        throw new IllegalArgumentException("The tutorial has no position: " + args[i]);
+                    }
+                }
+                case "-position" -> position = Position.parse(args[++i]);
+                case "-divide" -> divide = true;
+                case "-parallel" -> parallel = true;
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        System.out.println("Position: " + position);
+        System.out.println("Hash:     " + Long.toHexString(position.getHash()));
+
+        // walk every depth up to the requested one, dividing on the last
+        ForkJoinPool pool = parallel ? ForkJoinPool.commonPool() : null;
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            List<DivideEntry> entries = divide(position, d, pool);
+            long elapsed = Math.max(1, System.nanoTime() - start);
+
+            long nodes = 0;
+            for (DivideEntry entry : entries) {
+                nodes += entry.getNodes();
+                if (divide && d == depth) {
+                    System.out.println("  " + Move.toString(entry.getMove()) + ": " + entry.getNodes());
+                }
+            }
+            System.out.printf("perft(%d) = %d  %.3f s  %.0f nodes/s%n",
+                    d, nodes, elapsed / 1e9, nodes * 1e9 / elapsed);
+        }
+    }
+
+    /**
+     * The DivideEntry class holds the number of leaf nodes below one root move
+     */
+    public static class DivideEntry {
+        /**
+         * an integer represents the encoded root move
+         */
+        private final int move;
+
+        /**
+         * a long represents the number of leaf nodes below the move
+         */
+        private final long nodes;
+
+        /**
+         * Constructor
+         * @param move the encoded root move
+         * @param nodes the number of leaf nodes below the move
+         */
+        public DivideEntry(int move, long nodes) {
+            this.move = move;
+            this.nodes = nodes;
+        }
+
+        /**
+         * Retrieve the encoded root move
+         * @return the encoded move
+         */
+        public int getMove() {
+            return move;
+        }
+
+        /**
+         * Retrieve the number of leaf nodes below the move
+         * @return the number of leaf nodes
+         */
+        public long getNodes() {
+            return nodes;
+        }
+    }
+
+    /**
+     * The SubtreeTask class counts the leaf nodes below one root move, with its own Perft buffers so that
+     * subtrees can be walked in parallel
+     */
+    private static class SubtreeTask extends RecursiveTask<Long> {
+        /**
+         * a long represents the version of the serialized form of the task
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * the Position instance after the root move
+         */
+        private final Position position;
+
+        /**
+         * an integer represents the encoded root move
+         */
+        private final int move;
+
+        /**
+         * an integer represents the number of plies left to walk
+         */
+        private final int depth;
+
+        /**
+         * Constructor
+         * @param root the Position instance before the root move
+         * @param move the encoded root move
+         * @param depth the number of plies left to walk
+         */
+        SubtreeTask(Position root, int move, int depth) {
+            this.position = new Position(root);
+            this.position.makeMove(move);
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            return new Perft().perft(position, depth);
+        }
+    }
+}
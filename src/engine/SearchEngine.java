@@ -0,0 +1,691 @@
+package engine;
+
+import model.Move;
+import model.MoveGenerator;
+import model.Position;
+import model.Symmetry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The SearchEngine class finds the best move of a position with a negamax alpha-beta search over complete moves,
+ * so a mill and the remove it triggers are searched as one ply. The search deepens one ply at a time until the
+ * depth limit is reached, the node budget runs out or the time is up, and always returns the best move of the
+ * deepest iteration it could trust. No new iteration starts after the soft time limit, which is halved once the
+ * best move has been stable for a few iterations, and the running iteration is aborted at the hard time limit.
+ * Moves are tried in the order of MoveOrdering. Positions are applied with copy-make on preallocated per-ply
+ * positions, so searching does not allocate. With a symmetric TranspositionTable a position is looked up by its
+ * canonical hash, and the stored move is mapped between the canonical form and the searched position.
+ * A leaf is not scored while a mill can close: a quiescence search keeps extending on mill-closing moves and on
+ * moves that block a mill of the opponent until the position is quiet or its own node budget runs out.
+ * A multi-PV search finds the best few moves one after the other, each search leaving out the root moves
+ * already found, so the later lines start from the transposition table filled by the earlier ones.
+ */
+public class SearchEngine implements Engine {
+    /**
+     * an integer represents the score of a won position, reduced by the number of plies to the win
+     */
+    public static final int WIN_SCORE = 100_000;
+
+    /**
+     * an integer represents the lowest score that still means a forced win
+     */
+    public static final int WIN_THRESHOLD = WIN_SCORE - 1_000;
+
+    /**
+     * an integer represents the score of a drawn position
+     */
+    public static final int DRAW_SCORE = 0;
+
+    /**
+     * an integer represents a score above any reachable score
+     */
+    private static final int INFINITY = WIN_SCORE + 1;
+
+    /**
+     * an integer represents the deepest ply the search can reach
+     */
+    static final int MAX_PLY = 64;
+
+    /**
+     * an integer represents the number of iterations with the same best move after which the best move is stable
+     */
+    private static final int STABLE_ITERATIONS = 3;
+
+    /**
+     * an integer represents the mask of the node count at which the clock is read
+     */
+    private static final int CLOCK_CHECK_MASK = 1023;
+
+    /**
+     * an integer represents the quiescence ordering score of a move that closes a mill and removes a threat
+     */
+    private static final int QUIESCENCE_REMOVE_BLOCK = 3;
+
+    /**
+     * an integer represents the quiescence ordering score of a move that closes a mill
+     */
+    private static final int QUIESCENCE_MILL = 2;
+
+    /**
+     * an integer represents the quiescence ordering score of a move that blocks a mill of the opponent
+     */
+    private static final int QUIESCENCE_BLOCK = 1;
+
+    /**
+     * instance of the Evaluator class used to score the leaves
+     */
+    private final Evaluator evaluator;
+
+    /**
+     * instance of the TranspositionTable class that caches results by position hash
+     */
+    private final TranspositionTable transpositionTable;
+
+    /**
+     * an array that stores the position of each ply
+     */
+    private final Position[] positions = new Position[MAX_PLY + 1];
+
+    /**
+     * a two dimensional array that stores the move buffer of each ply
+     */
+    private final int[][] moves = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+
+    /**
+     * a two dimensional array that stores the ordering score of each move of each ply
+     */
+    private final int[][] moveScores = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+
+    /**
+     * instance of the MoveOrdering class that holds the killer moves and the history table
+     */
+    private final MoveOrdering moveOrdering = new MoveOrdering(MAX_PLY);
+
+    /**
+     * an array that stores the hash of the position of each ply, used to detect repetitions
+     */
+    private final long[] hashes = new long[MAX_PLY + 1];
+
+    /**
+     * a two dimensional array that stores the principal variation found at each ply
+     */
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+
+    /**
+     * an array that stores the length of the principal variation at each ply
+     */
+    private final int[] pvLength = new int[MAX_PLY + 1];
+
+    /**
+     * a long represents the number of nodes visited by the current search
+     */
+    private long nodes;
+
+    /**
+     * a long represents the node budget of the current search, zero for no limit
+     */
+    private long maxNodes;
+
+    /**
+     * an integer represents the number of nodes the running quiescence search may still visit
+     */
+    private int quiescenceNodesLeft;
+
+    /**
+     * instance of the SearchLimits class of the current search
+     */
+    private SearchLimits limits;
+
+    /**
+     * a boolean to indicate if the current iteration ran out of budget
+     */
+    private boolean aborted;
+
+    /**
+     * a boolean to indicate if another thread asked the current search to stop
+     */
+    private volatile boolean stopRequested;
+
+    /**
+     * Constructor. Creates an engine with its own transposition table of the configured size.
+     */
+    public SearchEngine() {
+        this(new TranspositionTable(TranspositionTable.getConfiguredSizeInMb(),
+                                    TranspositionTable.isConfiguredSymmetric()));
+    }
+
+    /**
+     * Constructor
+     * @param transpositionTable the TranspositionTable instance to cache results in
+     */
+    public SearchEngine(TranspositionTable transpositionTable) {
+        this(transpositionTable, new Evaluator());
+    }
+
+    /**
+     * Constructor
+     * @param transpositionTable the TranspositionTable instance to cache results in
+     * @param evaluator the Evaluator instance used to score the leaves, not shared with another engine
+     */
+    public SearchEngine(TranspositionTable transpositionTable, Evaluator evaluator) {
+        this.transpositionTable = transpositionTable;
+        this.evaluator = evaluator;
+        for (int ply = 0; ply <= MAX_PLY; ply++) {
+            positions[ply] = new Position();
+        }
+    }
+
+    /**
+     * Return the transpositionTable of this SearchEngine instance
+     * @return a TranspositionTable instance
+     */
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    /**
+     * Search for the best move of a position
+     * @param root the Position instance to search, left unchanged
+     * @param limits the SearchLimits instance that holds the depth, node and time budget
+     * @return a SearchResult instance
+     */
+    @Override
+    public SearchResult search(Position root, SearchLimits limits) {
+        transpositionTable.newSearch();
+        clearStop();
+        limits.start();
+        return search(root, limits, 1);
+    }
+
+    /**
+     * Search for the best few moves of a position, each with its own score and principal variation. Every line
+     * is a search of its own with the full budget of the limits, whose clock restarts for each line, and no
+     * deeper than the first line so the scores can be compared.
+     * @param root the Position instance to search, left unchanged
+     * @param limits the SearchLimits instance that holds the depth, node and time budget of each line
+     * @param numOfLines the maximum number of lines to find
+     * @return the SearchResult instance of each line, best first, fewer if the position has fewer moves
+     */
+    public SearchResult[] searchMultiPv(Position root, SearchLimits limits, int numOfLines) {
+        transpositionTable.newSearch();
+        clearStop();
+        List<SearchResult> lines = new ArrayList<>();
+        int[] excludedMoves = new int[numOfLines];
+        int maxDepth = limits.getMaxDepth();
+        for (int line = 0; line < numOfLines && !stopRequested && !limits.isStopped(); line++) {
+            limits.start();
+            SearchResult result = search(root, limits, 1, excludedMoves, line);
+            if (result.getBestMove() == Move.NULL_MOVE) {
+                break;
+            }
+            lines.add(result);
+            excludedMoves[line] = result.getBestMove();
+
+            // scores are only comparable at the same depth, so no line goes deeper than the best one
+            if (line == 0 && result.getDepth() > 0) {
+                limits.setMaxDepth(result.getDepth());
+            }
+        }
+        limits.setMaxDepth(maxDepth);
+
+        // a line that ran out of time before the depth of the best one may still score higher
+        lines.sort((first, second) -> Integer.compare(second.getScore(), first.getScore()));
+        return lines.toArray(new SearchResult[0]);
+    }
+
+    /**
+     * Search for the best move of a position without starting a new age of the transposition table, so several
+     * engines can search the same position on a shared table. An earlier stop request is not cleared and the
+     * clock of the limits is not started.
+     * @param root the Position instance to search, left unchanged
+     * @param limits the SearchLimits instance that holds the depth, node and time budget
+     * @param startDepth the depth of the first iteration
+     * @return a SearchResult instance
+     */
+    SearchResult search(Position root, SearchLimits limits, int startDepth) {
+        return search(root, limits, startDepth, null, 0);
+    }
+
+    /**
+     * Search for the best move of a position among the root moves that are not excluded
+     * @param root the Position instance to search, left unchanged
+     * @param limits the SearchLimits instance that holds the depth, node and time budget
+     * @param startDepth the depth of the first iteration
+     * @param excludedMoves the root moves not to search, may be null if none is excluded
+     * @param numOfExcluded the number of excluded moves in excludedMoves
+     * @return a SearchResult instance, with Move.NULL_MOVE as best move if no root move is left
+     */
+    private SearchResult search(Position root, SearchLimits limits, int startDepth, int[] excludedMoves,
+                                int numOfExcluded) {
+        long start = System.nanoTime();
+        nodes = 0;
+        maxNodes = limits.getMaxNodes();
+        this.limits = limits;
+        aborted = false;
+        moveOrdering.newSearch();
+        evaluator.setNoise(limits.getEvaluationNoise(), limits.getNoiseSeed());
+
+        positions[0].copyFrom(root);
+        hashes[0] = root.getHash();
+        int[] rootMoves = moves[0];
+        int rootCount = excludeMoves(rootMoves, MoveGenerator.generate(root, rootMoves), excludedMoves,
+                                     numOfExcluded);
+        if (rootCount == 0) {
+            return new SearchResult(Move.NULL_MOVE, -WIN_SCORE, new int[0], 0, 0, elapsedMillis(start));
+        }
+
+        // order the root moves once, later iterations only bring the best move to the front
+        int rootTransform = getTableTransform(root);
+        long rootEntry = transpositionTable.probe(Symmetry.getHash(root, rootTransform));
+        int rootHashMove = rootEntry != 0 ? Symmetry.transformMove(Symmetry.inverse(rootTransform),
+                                                                   TranspositionTable.getMove(rootEntry))
+                                          : Move.NULL_MOVE;
+        moveOrdering.scoreMoves(root, 0, rootMoves, moveScores[0], rootCount, rootHashMove);
+        for (int i = 0; i < rootCount; i++) {
+            MoveOrdering.pickNext(rootMoves, moveScores[0], i, rootCount);
+        }
+        pv[0][0] = Move.NULL_MOVE;
+
+        int bestMove = rootMoves[0];
+        int bestScore = evaluator.evaluate(root);
+        int[] bestPv = {bestMove};
+        int completedDepth = 0;
+        int stableIterations = 0;
+        int maxDepth = Math.min(Math.max(1, limits.getMaxDepth()), MAX_PLY - 1);
+
+        for (int depth = Math.min(startDepth, maxDepth); depth <= maxDepth; depth++) {
+            int score = searchRoot(depth, rootCount);
+
+            // a partial iteration is only trusted once the previous best move has been searched completely,
+            // since any root move replacing it afterwards was searched completely as well
+            if (aborted) {
+                if (pvLength[0] > 0) {
+                    bestMove = pv[0][0];
+                    bestScore = score;
+                    bestPv = copyPv();
+                }
+                break;
+            }
+
+            stableIterations = pv[0][0] == bestMove ? stableIterations + 1 : 0;
+            bestMove = pv[0][0];
+            bestScore = score;
+            bestPv = copyPv();
+            completedDepth = depth;
+
+            // a forced result will not change with more depth
+            if (Math.abs(score) >= WIN_THRESHOLD) {
+                break;
+            }
+
+            // do not start an iteration that is unlikely to finish, and stop earlier once the best move is stable
+            long softTimeMillis = limits.getSoftTimeMillis();
+            if (stableIterations >= STABLE_ITERATIONS) {
+                softTimeMillis /= 2;
+            }
+            if (!limits.isPondering() && softTimeMillis > 0 && limits.getElapsedMillis() >= softTimeMillis) {
+                break;
+            }
+        }
+
+        return new SearchResult(bestMove, bestScore, bestPv, completedDepth, nodes, elapsedMillis(start));
+    }
+
+    /**
+     * Ask the running search to stop as soon as possible. It returns the best move it could trust so far.
+     */
+    @Override
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Stop the threads of the engine, which searches on the calling thread and has none
+     */
+    @Override
+    public void shutdown() {
+    }
+
+    /**
+     * Forget an earlier stop request before a new search starts
+     */
+    void clearStop() {
+        stopRequested = false;
+    }
+
+    /**
+     * Search every root move, trying the best move of the previous iteration first
+     * @param depth the depth of the iteration
+     * @param rootCount the number of root moves
+     * @return the score of the best root move completely searched, -INFINITY if none
+     */
+    private int searchRoot(int depth, int rootCount) {
+        int[] rootMoves = moves[0];
+        int alpha = -INFINITY;
+        pvLength[0] = 0;
+
+        // bring the previous best move to the front
+        moveToFront(rootMoves, rootCount, pv[0][0]);
+
+        for (int i = 0; i < rootCount; i++) {
+            int move = rootMoves[i];
+            Position child = positions[1];
+            child.copyFrom(positions[0]);
+            child.makeMove(move);
+            hashes[1] = child.getHash();
+
+            int score = -negamax(1, depth - 1, -INFINITY, -alpha);
+            if (aborted) {
+                break;
+            }
+            if (score > alpha) {
+                alpha = score;
+                updatePv(0, move);
+            }
+        }
+        return alpha;
+    }
+
+    /**
+     * Negamax alpha-beta search below the root
+     * @param ply the ply of the position in the positions array
+     * @param depth the number of plies left to search
+     * @param alpha the lower bound of the window
+     * @param beta the upper bound of the window
+     * @return the score from the point of view of the side to move
+     */
+    private int negamax(int ply, int depth, int alpha, int beta) {
+        pvLength[ply] = ply;
+        Position position = positions[ply];
+
+        // count the node and enforce the node budget, the hard time limit and stop requests
+        if (countNode()) {
+            return 0;
+        }
+
+        // the side to move has lost
+        if (position.isGameOver()) {
+            return -WIN_SCORE + ply;
+        }
+        if (isRepetition(ply)) {
+            return DRAW_SCORE;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(position);
+        }
+        if (depth <= 0) {
+            quiescenceNodesLeft = limits.getMaxQuiescenceNodes();
+            return quiescence(ply, alpha, beta);
+        }
+
+        // use the stored result if it is deep enough, else its best move
+        int transform = getTableTransform(position);
+        long key = Symmetry.getHash(position, transform);
+        int originalAlpha = alpha;
+        int hashMove = Move.NULL_MOVE;
+        long entry = transpositionTable.probe(key);
+        if (entry != 0) {
+            hashMove = Symmetry.transformMove(Symmetry.inverse(transform), TranspositionTable.getMove(entry));
+            if (TranspositionTable.getDepth(entry) >= depth) {
+                int score = scoreFromTable(TranspositionTable.getScore(entry), ply);
+                int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT ||
+                    (bound == TranspositionTable.BOUND_LOWER && score >= beta) ||
+                    (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] buffer = moves[ply];
+        int[] scores = moveScores[ply];
+        int count = MoveGenerator.generate(position, buffer);
+        moveOrdering.scoreMoves(position, ply, buffer, scores, count, hashMove);
+        int bestScore = -INFINITY;
+        int bestMove = Move.NULL_MOVE;
+        Position child = positions[ply + 1];
+
+        for (int i = 0; i < count; i++) {
+            int move = MoveOrdering.pickNext(buffer, scores, i, count);
+            child.copyFrom(position);
+            child.makeMove(move);
+            hashes[ply + 1] = child.getHash();
+
+            int score = -negamax(ply + 1, depth - 1, -beta, -alpha);
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        moveOrdering.onCutoff(ply, depth, move);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                  : bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT
+                  : TranspositionTable.BOUND_UPPER;
+        transpositionTable.store(key, Symmetry.transformMove(transform, bestMove), scoreToTable(bestScore, ply),
+                                 depth, bound);
+        return bestScore;
+    }
+
+    /**
+     * Quiescence search below a leaf. The side to move may stand pat on the evaluation, or try the moves that
+     * close a mill and the moves that block a mill the opponent threatens to close, until none is left or the
+     * quiescence node budget runs out.
+     * @param ply the ply of the position in the positions array
+     * @param alpha the lower bound of the window
+     * @param beta the upper bound of the window
+     * @return the score from the point of view of the side to move
+     */
+    private int quiescence(int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        Position position = positions[ply];
+        int bestScore = evaluator.evaluate(position);
+        if (bestScore >= beta || quiescenceNodesLeft <= 0 || ply >= MAX_PLY - 1) {
+            return bestScore;
+        }
+        alpha = Math.max(alpha, bestScore);
+
+        // keep the tactical moves only, mills that also remove a threatening token first
+        int threats = MoveOrdering.getMillThreats(position.getOccupancy(position.getSideToMove() ^ 1),
+                                                  position.getEmpty());
+        int[] buffer = moves[ply];
+        int[] scores = moveScores[ply];
+        int count = 0;
+        int generated = MoveGenerator.generate(position, buffer);
+        for (int i = 0; i < generated; i++) {
+            int move = buffer[i];
+            int score;
+            if (Move.hasRemove(move)) {
+                score = (threats & 1 << Move.getRemove(move)) != 0 ? QUIESCENCE_REMOVE_BLOCK : QUIESCENCE_MILL;
+            } else if (Move.getTo(move) != Move.NONE && (threats & 1 << Move.getTo(move)) != 0) {
+                score = QUIESCENCE_BLOCK;
+            } else {
+                continue;
+            }
+            buffer[count] = move;
+            scores[count++] = score;
+        }
+        Position child = positions[ply + 1];
+
+        for (int i = 0; i < count && quiescenceNodesLeft > 0; i++) {
+            int move = MoveOrdering.pickNext(buffer, scores, i, count);
+            quiescenceNodesLeft--;
+            if (countNode()) {
+                return 0;
+            }
+            child.copyFrom(position);
+            child.makeMove(move);
+
+            // a mill can leave the opponent without a move or with too few tokens
+            int score = child.isGameOver() ? WIN_SCORE - (ply + 1) : -quiescence(ply + 1, -beta, -alpha);
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Count a node and enforce the node budget, the hard time limit and stop requests
+     * @return true if the current iteration ran out of budget, else false
+     */
+    private boolean countNode() {
+        nodes++;
+        if ((maxNodes > 0 && nodes >= maxNodes) ||
+            ((nodes & CLOCK_CHECK_MASK) == 0 &&
+             (stopRequested || limits.isStopped() || limits.isHardTimeUp()))) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    /**
+     * Retrieve the transform under which a position is stored in the transposition table
+     * @param position the Position instance
+     * @return the canonical transform with a symmetric table, else Symmetry.IDENTITY
+     */
+    private int getTableTransform(Position position) {
+        return transpositionTable.isSymmetric() ? Symmetry.getCanonicalTransform(position) : Symmetry.IDENTITY;
+    }
+
+    /**
+     * Remove excluded moves from a move buffer, keeping the order of the other moves
+     * @param buffer the move buffer
+     * @param count the number of moves in the buffer
+     * @param excludedMoves the moves to remove, may be null if none is excluded
+     * @param numOfExcluded the number of moves in excludedMoves
+     * @return the number of moves left in the buffer
+     */
+    private static int excludeMoves(int[] buffer, int count, int[] excludedMoves, int numOfExcluded) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            boolean excluded = false;
+            for (int j = 0; j < numOfExcluded && !excluded; j++) {
+                excluded = buffer[i] == excludedMoves[j];
+            }
+            if (!excluded) {
+                buffer[kept++] = buffer[i];
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Move a move to the front of a move buffer, if the buffer contains it
+     * @param buffer the move buffer
+     * @param count the number of moves in the buffer
+     * @param move the encoded move
+     */
+    private static void moveToFront(int[] buffer, int count, int move) {
+        if (move == Move.NULL_MOVE) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            if (buffer[i] == move) {
+                System.arraycopy(buffer, 0, buffer, 1, i);
+                buffer[0] = move;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Convert a score into the form stored in the transposition table, where a win is counted from the stored
+     * position rather than from the root
+     * @param score the score relative to the root
+     * @param ply the ply of the position
+     * @return the score to store
+     */
+    private static int scoreToTable(int score, int ply) {
+        if (score >= WIN_THRESHOLD) {
+            return score + ply;
+        }
+        if (score <= -WIN_THRESHOLD) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Convert a score stored in the transposition table back into a score relative to the root
+     * @param score the stored score
+     * @param ply the ply of the position
+     * @return the score relative to the root
+     */
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= WIN_THRESHOLD) {
+            return score - ply;
+        }
+        if (score <= -WIN_THRESHOLD) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Determine if the position of a ply already occurred earlier on the search path with the same side to move
+     * @param ply the ply of the position
+     * @return true if the position repeats, else false
+     */
+    private boolean isRepetition(int ply) {
+        long hash = hashes[ply];
+        for (int i = ply - 2; i >= 0; i -= 2) {
+            if (hashes[i] == hash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Store a move followed by the principal variation of the next ply as the principal variation of a ply
+     * @param ply the ply of the move
+     * @param move the encoded move
+     */
+    private void updatePv(int ply, int move) {
+        pv[ply][ply] = move;
+        int length = pvLength[ply + 1];
+        System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, length - (ply + 1));
+        pvLength[ply] = Math.max(length, ply + 1);
+    }
+
+    /**
+     * Copy the principal variation of the root
+     * @return the moves of the principal variation
+     */
+    private int[] copyPv() {
+        int[] copy = new int[pvLength[0]];
+        System.arraycopy(pv[0], 0, copy, 0, pvLength[0]);
+        return copy;
+    }
+
+    /**
+     * Compute the time elapsed since a start time
+     * @param start the start time in nanoseconds
+     * @return the time elapsed in milliseconds
+     */
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
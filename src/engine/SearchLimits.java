@@ -0,0 +1,300 @@
+package engine;
+
+/**
+ * The SearchLimits class holds the budget of a single search: the deepest iteration to complete, the maximum
+ * number of nodes to visit and the time to think. No new iteration starts once the soft time limit has passed,
+ * and the running iteration is aborted at the hard time limit. A limit of zero means the limit is not applied.
+ * It also lets other threads control the search it is used for: stop it, or start its clock on a ponderhit
+ * when it was started as a ponder search, which ignores the time limits until then. The clock starts when the
+ * search starts, and a stop request is never cleared, so a fresh copy should be used for every search.
+ * The quiescence search below each leaf has its own node budget, apart from the node budget of the search.
+ * The limits also hold the noise added to the evaluation, which weakens the search on purpose for the easier
+ * Difficulty levels.
+ */
+public class SearchLimits {
+    /**
+     * an integer represents the default deepest iteration
+     */
+    public static final int DEFAULT_MAX_DEPTH = 60;
+
+    /**
+     * a long represents the default maximum number of nodes
+     */
+    public static final long DEFAULT_MAX_NODES = 0;
+
+    /**
+     * a long represents the default time after which no new iteration starts, in milliseconds
+     */
+    public static final long DEFAULT_SOFT_TIME_MILLIS = 500;
+
+    /**
+     * a long represents the default time at which the search stops, in milliseconds
+     */
+    public static final long DEFAULT_HARD_TIME_MILLIS = 1000;
+
+    /**
+     * an integer represents the default maximum number of nodes of the quiescence search below a leaf
+     */
+    public static final int DEFAULT_MAX_QUIESCENCE_NODES = 64;
+
+    /**
+     * an integer represents the deepest iteration to complete
+     */
+    private int maxDepth;
+
+    /**
+     * a long represents the maximum number of nodes to visit, zero for no limit
+     */
+    private long maxNodes;
+
+    /**
+     * a long represents the time after which no new iteration starts in milliseconds, zero for no limit
+     */
+    private long softTimeMillis;
+
+    /**
+     * a long represents the time at which the search stops in milliseconds, zero for no limit
+     */
+    private long hardTimeMillis;
+
+    /**
+     * an integer represents the maximum number of nodes of the quiescence search below a leaf, zero to disable it
+     */
+    private int maxQuiescenceNodes = DEFAULT_MAX_QUIESCENCE_NODES;
+
+    /**
+     * an integer represents the largest noise added to or subtracted from the evaluation, zero for none
+     */
+    private int evaluationNoise;
+
+    /**
+     * a long represents the seed that decides the noise of each position
+     */
+    private long noiseSeed;
+
+    /**
+     * a long represents the System.nanoTime() from which the time limits are counted
+     */
+    private volatile long startNanos;
+
+    /**
+     * a boolean to indicate if the search is pondering, so the time limits do not apply yet
+     */
+    private volatile boolean pondering;
+
+    /**
+     * a boolean to indicate if another thread asked the search to stop
+     */
+    private volatile boolean stopped;
+
+    /**
+     * Constructor. Creates the default limits used by the ComputerPlayer.
+     */
+    public SearchLimits() {
+        this(DEFAULT_MAX_DEPTH, DEFAULT_MAX_NODES, DEFAULT_SOFT_TIME_MILLIS, DEFAULT_HARD_TIME_MILLIS);
+    }
+
+    /**
+     * Constructor. Creates limits without a time limit.
+     * @param maxDepth the deepest iteration to complete
+     * @param maxNodes the maximum number of nodes to visit, zero for no limit
+     */
+    public SearchLimits(int maxDepth, long maxNodes) {
+        this(maxDepth, maxNodes, 0, 0);
+    }
+
+    /**
+     * Constructor
+     * @param maxDepth the deepest iteration to complete
+     * @param maxNodes the maximum number of nodes to visit, zero for no limit
+     * @param softTimeMillis the time after which no new iteration starts, zero for no limit
+     * @param hardTimeMillis the time at which the search stops, zero for no limit
+     */
+    public SearchLimits(int maxDepth, long maxNodes, long softTimeMillis, long hardTimeMillis) {
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+        this.softTimeMillis = softTimeMillis;
+        this.hardTimeMillis = hardTimeMillis;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Copy constructor. Copies the budget of another SearchLimits instance, but not its clock or stop request.
+     * @param other the SearchLimits instance to copy
+     * @param pondering true to create the limits of a ponder search, else false
+     */
+    public SearchLimits(SearchLimits other, boolean pondering) {
+        this(other.maxDepth, other.maxNodes, other.softTimeMillis, other.hardTimeMillis);
+        this.maxQuiescenceNodes = other.maxQuiescenceNodes;
+        this.evaluationNoise = other.evaluationNoise;
+        this.noiseSeed = other.noiseSeed;
+        this.pondering = pondering;
+    }
+
+    /**
+     * Start the clock of the search, unless it is pondering
+     */
+    public void start() {
+        if (!pondering) {
+            startNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Turn a ponder search into a normal search: its clock starts now and the time limits apply
+     */
+    public void ponderhit() {
+        startNanos = System.nanoTime();
+        pondering = false;
+    }
+
+    /**
+     * Determine if the search is pondering
+     * @return true if the time limits do not apply yet, else false
+     */
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    /**
+     * Retrieve the time since the clock started
+     * @return the time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Determine if the hard time limit has passed
+     * @return true if the search must stop now, else false
+     */
+    public boolean isHardTimeUp() {
+        return !pondering && hardTimeMillis > 0 && System.nanoTime() - startNanos >= hardTimeMillis * 1_000_000;
+    }
+
+    /**
+     * Ask the search to stop as soon as possible. It returns the best move it could trust so far.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Determine if the search was asked to stop
+     * @return true if stop was called, else false
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Retrieve the deepest iteration to complete
+     * @return the maximum depth
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Setter of maxDepth
+     * @param maxDepth the deepest iteration to complete
+     */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Retrieve the maximum number of nodes to visit
+     * @return the maximum number of nodes, zero for no limit
+     */
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * Setter of maxNodes
+     * @param maxNodes the maximum number of nodes to visit, zero for no limit
+     */
+    public void setMaxNodes(long maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Retrieve the time after which no new iteration starts
+     * @return the time in milliseconds, zero for no limit
+     */
+    public long getSoftTimeMillis() {
+        return softTimeMillis;
+    }
+
+    /**
+     * Setter of softTimeMillis
+     * @param softTimeMillis the time after which no new iteration starts, zero for no limit
+     */
+    public void setSoftTimeMillis(long softTimeMillis) {
+        this.softTimeMillis = softTimeMillis;
+    }
+
+    /**
+     * Retrieve the time at which the search stops
+     * @return the time in milliseconds, zero for no limit
+     */
+    public long getHardTimeMillis() {
+        return hardTimeMillis;
+    }
+
+    /**
+     * Setter of hardTimeMillis
+     * @param hardTimeMillis the time at which the search stops, zero for no limit
+     */
+    public void setHardTimeMillis(long hardTimeMillis) {
+        this.hardTimeMillis = hardTimeMillis;
+    }
+
+    /**
+     * Retrieve the maximum number of nodes of the quiescence search below a leaf
+     * @return the maximum number of nodes, zero if the quiescence search is disabled
+     */
+    public int getMaxQuiescenceNodes() {
+        return maxQuiescenceNodes;
+    }
+
+    /**
+     * Setter of maxQuiescenceNodes
+     * @param maxQuiescenceNodes the maximum number of nodes of the quiescence search below a leaf, zero to
+     *                           disable it
+     */
+    public void setMaxQuiescenceNodes(int maxQuiescenceNodes) {
+        this.maxQuiescenceNodes = maxQuiescenceNodes;
+    }
+
+    /**
+     * Retrieve the largest noise added to or subtracted from the evaluation
+     * @return the noise, zero for none
+     */
+    public int getEvaluationNoise() {
+        return evaluationNoise;
+    }
+
+    /**
+     * Retrieve the seed that decides the noise of each position
+     * @return the seed
+     */
+    public long getNoiseSeed() {
+        return noiseSeed;
+    }
+
+    /**
+     * Setter of evaluationNoise and noiseSeed. The noise of a position only depends on its hash and the seed, so
+     * it stays the same within a search and between the searches that use the same seed.
+     * @param evaluationNoise the largest noise added to or subtracted from the evaluation, zero for none
+     * @param noiseSeed the seed that decides the noise of each position
+     */
+    public void setEvaluationNoise(int evaluationNoise, long noiseSeed) {
+        if (evaluationNoise < 0) {
+            throw new IllegalArgumentException("Invalid evaluation noise: " + evaluationNoise);
+        }
+        this.evaluationNoise = evaluationNoise;
+        this.noiseSeed = noiseSeed;
+    }
+}
@@ -0,0 +1,120 @@
+package engine;
+
+import model.Move;
+
+/**
+ * The SearchResult class holds the outcome of a search: the best move found, its score from the point of view
+ * of the side to move, the principal variation, the depth of the last completed iteration and the number of
+ * nodes visited.
+ */
+public class SearchResult {
+    /**
+     * an integer represents the best move found
+     */
+    private final int bestMove;
+
+    /**
+     * an integer represents the score of the best move from the point of view of the side to move
+     */
+    private final int score;
+
+    /**
+     * an array that stores the principal variation, starting with the best move
+     */
+    private final int[] principalVariation;
+
+    /**
+     * an integer represents the depth of the last completed iteration
+     */
+    private final int depth;
+
+    /**
+     * a long represents the number of nodes visited
+     */
+    private final long nodes;
+
+    /**
+     * a long represents the time spent searching in milliseconds
+     */
+    private final long elapsedMillis;
+
+    /**
+     * Constructor
+     * @param bestMove the best move found
+     * @param score the score of the best move
+     * @param principalVariation the principal variation, starting with the best move
+     * @param depth the depth of the last completed iteration
+     * @param nodes the number of nodes visited
+     * @param elapsedMillis the time spent searching in milliseconds
+     */
+    public SearchResult(int bestMove, int score, int[] principalVariation, int depth, long nodes, long elapsedMillis) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.principalVariation = principalVariation;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Retrieve the best move found
+     * @return the encoded move, or Move.NULL_MOVE if the side to move has no legal move
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * Retrieve the score of the best move from the point of view of the side to move
+     * @return the score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Retrieve the principal variation
+     * @return the moves of the principal variation, starting with the best move
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    /**
+     * Retrieve the depth of the last completed iteration
+     * @return the depth reached
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Retrieve the number of nodes visited
+     * @return the number of nodes
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Retrieve the time spent searching
+     * @return the time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("depth ").append(depth)
+               .append(" score ").append(score)
+               .append(" nodes ").append(nodes)
+               .append(" time ").append(elapsedMillis).append("ms")
+               .append(" pv");
+        for (int move : principalVariation) {
+            builder.append(' ').append(Move.toString(move));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,273 @@
+package engine;
+
+import model.Move;
+
+import java.util.Arrays;
+
+/**
+ * The TranspositionTable class caches search results by Zobrist hash in one preallocated long array, so its
+ * memory use is fixed by the size given in MB. The table is split into buckets of two entries: the first keeps
+ * the deepest result (depth-preferred) and the second takes every other result (always-replace).
+ * Each entry is two longs, the packed data and the hash XORed with the data. A probe only accepts an entry whose
+ * two words XOR back to the probed hash, so a torn entry written concurrently by another thread is rejected and
+ * the table can be shared by search threads without locks.
+ * The packed data holds the best move (bits 0-14), the depth (bits 15-22), the bound (bits 23-24), the search
+ * age (bits 25-31) and the score (bits 32-63).
+ * A symmetric table is keyed by the canonical hash of Symmetry instead, so the 16 symmetric images of a position
+ * share one entry and the stored move is the move of the canonical form; see SearchEngine.
+ */
+public class TranspositionTable {
+    /**
+     * an integer represents the default size of the table in MB
+     */
+    public static final int DEFAULT_SIZE_IN_MB = 16;
+
+    /**
+     * a String represents the system property that overrides the default size in MB
+     */
+    public static final String SIZE_PROPERTY = "engine.hashMb";
+
+    /**
+     * a String represents the system property that makes the configured table symmetric
+     */
+    public static final String SYMMETRY_PROPERTY = "engine.symmetricHash";
+
+    /**
+     * an integer that marks an empty entry
+     */
+    public static final int BOUND_NONE = 0;
+
+    /**
+     * an integer that marks a score equal to the value of the position
+     */
+    public static final int BOUND_EXACT = 1;
+
+    /**
+     * an integer that marks a score below or equal to the value of the position (fail high)
+     */
+    public static final int BOUND_LOWER = 2;
+
+    /**
+     * an integer that marks a score above or equal to the value of the position (fail low)
+     */
+    public static final int BOUND_UPPER = 3;
+
+    /**
+     * an integer represents the number of longs in a bucket: two entries of two longs
+     */
+    private static final int LONGS_PER_BUCKET = 4;
+
+    /**
+     * an integer represents the number of bytes in a bucket
+     */
+    private static final int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+
+    /**
+     * an integer represents the mask of the age, which wraps around
+     */
+    private static final int AGE_MASK = 0x7F;
+
+    /**
+     * an array that stores every bucket of the table
+     */
+    private final long[] table;
+
+    /**
+     * a long represents the mask that maps a hash to a bucket
+     */
+    private final long bucketMask;
+
+    /**
+     * a boolean represents whether the table is keyed by the canonical hash of the positions
+     */
+    private final boolean symmetric;
+
+    /**
+     * an integer represents the age of the current search, used to replace results of older searches
+     */
+    private volatile int age;
+
+    /**
+     * Constructor
+     * @param sizeInMb the size of the table in MB, rounded down to a power of two number of buckets
+     */
+    public TranspositionTable(int sizeInMb) {
+        this(sizeInMb, false);
+    }
+
+    /**
+     * Constructor
+     * @param sizeInMb the size of the table in MB, rounded down to a power of two number of buckets
+     * @param symmetric true to key the table by the canonical hash of the positions
+     */
+    public TranspositionTable(int sizeInMb, boolean symmetric) {
+        if (sizeInMb <= 0) {
+            throw new IllegalArgumentException("The transposition table needs at least 1 MB");
+        }
+        long buckets = Long.highestOneBit((long) sizeInMb * 1024 * 1024 / BYTES_PER_BUCKET);
+        if (buckets * LONGS_PER_BUCKET > Integer.MAX_VALUE - 8) {
+            buckets = Integer.highestOneBit((Integer.MAX_VALUE - 8) / LONGS_PER_BUCKET);
+        }
+        table = new long[(int) (buckets * LONGS_PER_BUCKET)];
+        bucketMask = buckets - 1;
+        this.symmetric = symmetric;
+    }
+
+    /**
+     * Retrieve the configured size of the table, DEFAULT_SIZE_IN_MB unless overridden by the system property
+     * SIZE_PROPERTY, e.g. -Dengine.hashMb=256
+     * @return the size in MB
+     */
+    public static int getConfiguredSizeInMb() {
+        return Integer.getInteger(SIZE_PROPERTY, DEFAULT_SIZE_IN_MB);
+    }
+
+    /**
+     * Determine if the configured table is symmetric, which it is not unless the system property
+     * SYMMETRY_PROPERTY is set, e.g. -Dengine.symmetricHash=true
+     * @return true for a symmetric table, else false
+     */
+    public static boolean isConfiguredSymmetric() {
+        return Boolean.getBoolean(SYMMETRY_PROPERTY);
+    }
+
+    /**
+     * Return the symmetric of this TranspositionTable instance
+     * @return a boolean represents whether the table is keyed by the canonical hash of the positions
+     */
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+
+    /**
+     * Retrieve the size of the table
+     * @return the size in bytes
+     */
+    public long getSizeInBytes() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    /**
+     * Start a new search, so that results of previous searches become the first to be replaced
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /**
+     * Clear every entry of the table
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+    }
+
+    /**
+     * Look up the result stored for a hash
+     * @param hash the Zobrist hash of the position
+     * @return the packed data, or 0 if no valid entry is stored for the hash
+     */
+    public long probe(long hash) {
+        int index = (int) (hash & bucketMask) * LONGS_PER_BUCKET;
+        for (int entry = index; entry < index + LONGS_PER_BUCKET; entry += 2) {
+            long data = table[entry + 1];
+            if ((table[entry] ^ data) == hash && data != 0) {
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Store the result of a search for a hash
+     * @param hash the Zobrist hash of the position
+     * @param move the best move found, Move.NULL_MOVE if none
+     * @param score the score of the position
+     * @param depth the depth searched
+     * @param bound BOUND_EXACT, BOUND_LOWER or BOUND_UPPER
+     */
+    public void store(long hash, int move, int score, int depth, int bound) {
+        int index = (int) (hash & bucketMask) * LONGS_PER_BUCKET;
+        int currentAge = age;
+
+        // keep the best move already known for the position if none was found this time
+        long deepData = table[index + 1];
+        boolean deepMatches = (table[index] ^ deepData) == hash;
+        long otherData = table[index + 3];
+        boolean otherMatches = (table[index + 2] ^ otherData) == hash;
+        if (move == Move.NULL_MOVE) {
+            move = deepMatches ? getMove(deepData) : otherMatches ? getMove(otherData) : Move.NULL_MOVE;
+        }
+        long data = pack(move, score, depth, bound, currentAge);
+
+        // the depth-preferred entry takes the result if it is as deep, from an older search or the same position
+        if (deepData == 0 || deepMatches || depth >= getDepth(deepData) || getAge(deepData) != currentAge) {
+            table[index] = hash ^ data;
+            table[index + 1] = data;
+        } else {
+            table[index + 2] = hash ^ data;
+            table[index + 3] = data;
+        }
+    }
+
+    /**
+     * Pack a result into one long
+     * @param move the best move
+     * @param score the score
+     * @param depth the depth searched
+     * @param bound the bound of the score
+     * @param age the age of the search
+     * @return the packed data
+     */
+    private static long pack(int move, int score, int depth, int bound, int age) {
+        return (move & 0x7FFFL)
+               | (long) (Math.max(0, Math.min(depth, 0xFF))) << 15
+               | (long) (bound & 0x3) << 23
+               | (long) (age & AGE_MASK) << 25
+               | (long) score << 32;
+    }
+
+    /**
+     * Retrieve the best move of packed data
+     * @param data the packed data
+     * @return the encoded move
+     */
+    public static int getMove(long data) {
+        return (int) (data & 0x7FFF);
+    }
+
+    /**
+     * Retrieve the depth of packed data
+     * @param data the packed data
+     * @return the depth searched
+     */
+    public static int getDepth(long data) {
+        return (int) (data >>> 15 & 0xFF);
+    }
+
+    /**
+     * Retrieve the bound of packed data
+     * @param data the packed data
+     * @return BOUND_NONE, BOUND_EXACT, BOUND_LOWER or BOUND_UPPER
+     */
+    public static int getBound(long data) {
+        return (int) (data >>> 23 & 0x3);
+    }
+
+    /**
+     * Retrieve the age of packed data
+     * @param data the packed data
+     * @return the age of the search that stored the data
+     */
+    private static int getAge(long data) {
+        return (int) (data >>> 25 & AGE_MASK);
+    }
+
+    /**
+     * Retrieve the score of packed data
+     * @param data the packed data
+     * @return the score
+     */
+    public static int getScore(long data) {
+        return (int) (data >> 32);
+    }
+}
@@ -1,6 +1,5 @@
 package model;
 
-import controller.GameController;
 import observer.Observer;
 
 import java.util.ArrayList;
@@ -8,6 +7,8 @@ import java.util.List;
 
 /**
  * The Board class is an integral part of the game system as it creates and assigns indexes to all the nodes.
+ * It shows the tokens of a Game to the view, together with the node selected by the user; the rules are played
+ * on the Game, and the board is synced with its position after every step.
  * 0----------1---------2
  * |  8-------9------10 |
  * |  |  16--17--18  |  |
@@ -38,14 +39,9 @@ public class Board {
     private static final int NUM_OF_NODE_TRIPLETS_ACROSS_RINGS = 4;
 
     /**
-     * an integer represents the distance between nodes on the board
+     * an integer represents the distance between the nodes of the outer ring on the board
      */
-    private static int distBetweenNodes = 3;
-
-    /**
-     * an integer represents the node triplet index
-     */
-    private static int nodeTripletIndex = 0;
+    private static final int OUTER_DIST_BETWEEN_NODES = 3;
 
     /**
      * an Array List to stores the Observer instances
@@ -57,6 +53,11 @@ public class Board {
      */
     private NodeTriplet[] nodeTriplets;
 
+    /**
+     * an array that stores the Node instances by their index on board
+     */
+    private Node[] nodes;
+
     /**
      * instance of the Node class to indicate the selected node
      */
@@ -67,6 +68,7 @@ public class Board {
      */
     public Board() {
         nodeTriplets = new NodeTriplet[NUM_OF_NODE_TRIPLETS];
+        nodes = new Node[BoardTopology.NUM_OF_NODES];
         setupNodeTriplets();
     }
 
@@ -78,6 +80,14 @@ public class Board {
         observers.add(observer);
     }
 
+    /**
+     * Detach the observer instance, e.g. the view of a closed window
+     * @param observer to be detached
+     */
+    public void detach(Observer observer) {
+        observers.remove(observer);
+    }
+
     /**
      * Notify the observer instance by calling the update method for each observer
      */
@@ -91,11 +101,16 @@ public class Board {
      * Set up the node triplets on the board
      */
     private void setupNodeTriplets() {
+        // the counters are local, so every board indexes its own nodes from 0
+        int distBetweenNodes = OUTER_DIST_BETWEEN_NODES;
+        int nodeTripletIndex = 0;
+        int nodeIndex = 0;
+
         // within ring
         for (int i = 0; i < NUM_OF_RINGS; i++) {
 
             // create top left node
-            Node topLeft = new Node(i, i);
+            Node topLeft = new Node(i, i, nodeIndex++);
 
             // create temp node to hold last node in previous node triplet
             Node temp = null;
@@ -117,14 +132,14 @@ public class Board {
                 }
 
                 // handle second node
-                second = createNode(j, first);
+                second = createNode(j, first, distBetweenNodes, nodeIndex++);
 
                 // handle third node
                 // at left of the ring
                 if (j == NUM_OF_NODE_TRIPLETS_IN_A_RING - 1) {
                     third = topLeft;
                 } else {
-                    third = createNode(j, second);
+                    third = createNode(j, second, distBetweenNodes, nodeIndex++);
                 }
 
                 // insert 3 nodes into node triplet
@@ -164,15 +179,24 @@ public class Board {
             middleIndex++;
             innerIndex++;
         }
+
+        // register nodes by their index for O(1) lookups
+        for (NodeTriplet nodeTriplet : nodeTriplets) {
+            for (Node node : nodeTriplet.getNodes()) {
+                nodes[node.getIndexOnBoard()] = node;
+            }
+        }
     }
 
     /**
      * Create a node based on given direction
      * @param direction an integer to represents the direction
      * @param prevNode a Node instance to indicate the previous node
+     * @param distBetweenNodes the distance between the nodes of the ring
+     * @param indexOnBoard the index of the new node on board
      * @return the new node created
      */
-    private Node createNode(int direction, Node prevNode) {
+    private Node createNode(int direction, Node prevNode, int distBetweenNodes, int indexOnBoard) {
         switch (direction) {
             // 0 - right
             // 1 - bottom
@@ -180,13 +204,13 @@ public class Board {
             // 3 - top
 
             case 0:
-                return new Node(prevNode.getX() + distBetweenNodes, prevNode.getY());
+                return new Node(prevNode.getX() + distBetweenNodes, prevNode.getY(), indexOnBoard);
             case 1:
-                return new Node(prevNode.getX(), prevNode.getY() + distBetweenNodes);
+                return new Node(prevNode.getX(), prevNode.getY() + distBetweenNodes, indexOnBoard);
             case 2:
-                return new Node(prevNode.getX() - distBetweenNodes, prevNode.getY());
+                return new Node(prevNode.getX() - distBetweenNodes, prevNode.getY(), indexOnBoard);
             case 3:
-                return new Node(prevNode.getX(), prevNode.getY() - distBetweenNodes);
+                return new Node(prevNode.getX(), prevNode.getY() - distBetweenNodes, indexOnBoard);
             default:
                 return null;
         }
@@ -206,9 +230,6 @@ public class Board {
      * Reset the board's node triplet. This method is called when the user decided to perform a rematch.
      */
     public void resetBoard() {
-        distBetweenNodes = 3;
-        nodeTripletIndex = 0;
-        Node.resetIndexOnBoardCounter();
         setupNodeTriplets();
     }
 
@@ -238,84 +259,37 @@ public class Board {
 
 
     /**
-     * Verify if mill exists
-     * @param node current node to checked
-     * @param player current player to perform the command
-     * @return true if mill exists, else false
+     * Build the occupancy mask of a player, where bit i is set if the node with index i holds a token of the
+     * given color
+     * @param tokenColor token color of the player
+     * @return the occupancy mask of the player
      */
-    public boolean isMillExists(Node node, Player player) {
-        for (NodeTriplet nodeTriplet : nodeTriplets) {
-            if (nodeTriplet.getPlayerColorIfMill() == player.getTokenColor() &&
-                nodeTriplet.containsNode(node)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    public boolean isMillOnBoard(Player player){
-        for (NodeTriplet nodeTriplet : nodeTriplets) {
-            if (nodeTriplet.getPlayerColorIfMill() == player.getTokenColor()) {
-                return true;
+    public int getOccupancy(TokenColor tokenColor) {
+        int mask = 0;
+        for (Node node : nodes) {
+            if (node.getTokenColor() == tokenColor) {
+                mask |= 1 << node.getIndexOnBoard();
             }
         }
-        return false;
+        return mask;
     }
 
     /**
-     * Determine if a player can remove any tokens from the opponent, there might be a possibility
-     * where all of them are in mill.
-     * @param currentPlayer current player to perform the command
-     * @return true if has removable token, else false
+     * Sync the tokens on board with the occupancy masks of both players
+     * @param white the occupancy mask of the white player
+     * @param black the occupancy mask of the black player
      */
-    public boolean hasRemovableToken(Player currentPlayer) {
-        // retrieve opponent player
-        Player opponent = getOpponentPlayer(currentPlayer);
-
-        // determine if there is any token removable from opponent
-        for (NodeTriplet nodeTriplet : nodeTriplets) {
-            for (Node node : nodeTriplet.getNodes()) {
-                if (node.getTokenColor() == opponent.getTokenColor()) {
-                    // verify if opponent token is in mill
-                    if (!isMillExists(node, opponent)) {
-                        return true;
-                    }
-                }
+    public void setOccupancy(int white, int black) {
+        for (Node node : nodes) {
+            int bit = 1 << node.getIndexOnBoard();
+            if ((white & bit) != 0) {
+                node.setTokenColor(TokenColor.WHITE);
+            } else if ((black & bit) != 0) {
+                node.setTokenColor(TokenColor.BLACK);
+            } else {
+                node.setTokenColor(null);
             }
         }
-        return false;
-    }
-
-    /**
-     * Retrieve opponent player
-     * @param currentPlayer current player to perform the command
-     * @return the Player instance that represents the opponent player
-     */
-    public Player getOpponentPlayer(Player currentPlayer) {
-        // retrieve game controller
-        GameController gameController = GameController.getInstance();
-
-        if (currentPlayer.getTokenColor() == TokenColor.WHITE) {
-            return gameController.getSecondPlayer();
-        } else {
-            return gameController.getFirstPlayer();
-        }
-    }
-
-    /**
-     * Retrieve player based on token color
-     * @param tokenColor token color of the player
-     * @return the Player with the token color
-     */
-    public Player getPlayerFromTokenColor(TokenColor tokenColor) {
-        // retrieve game controller
-        GameController gameController = GameController.getInstance();
-
-        if (tokenColor == TokenColor.WHITE) {
-            return gameController.getFirstPlayer();
-        } else {
-            return gameController.getSecondPlayer();
-        }
     }
 
     /**
@@ -324,55 +298,19 @@ public class Board {
      * @return the Node instance represents the node at a given index
      */
     public Node getNodeFromIndex(int index) {
-        for (NodeTriplet nodeTriplet : nodeTriplets) {
-            if (nodeTriplet.getFirstNode().getIndexOnBoard() == index) {
-                return nodeTriplet.getFirstNode();
-            }
-            if (nodeTriplet.getSecondNode().getIndexOnBoard() == index) {
-                return nodeTriplet.getSecondNode();
-            }
-            if (nodeTriplet.getThirdNode().getIndexOnBoard() == index) {
-                return nodeTriplet.getThirdNode();
-            }
+        if (index < 0 || index >= nodes.length) {
+            return null;
         }
-        return null;
-    }
-
-    /**
-     * Remove node by a given index
-     * @param index an integer represents the index
-     * @return true if the node is removed, else false
-     */
-    public boolean removeTokenFromIndex(int index) {
-        for (NodeTriplet nodeTriplet : nodeTriplets) {
-            if (nodeTriplet.getFirstNode().getIndexOnBoard() == index) {
-                nodeTriplet.getFirstNode().setTokenColor(null);
-                notifyObservers();
-                return true;
-            }
-            if (nodeTriplet.getSecondNode().getIndexOnBoard() == index) {
-                nodeTriplet.getSecondNode().setTokenColor(null);
-                notifyObservers();
-                return true;
-            }
-            if (nodeTriplet.getThirdNode().getIndexOnBoard() == index) {
-                nodeTriplet.getThirdNode().setTokenColor(null);
-                notifyObservers();
-                return true;
-            }
-        }
-        return false;
+        return nodes[index];
     }
 
     /**
      * reset selected nodes from being highlighted
      */
     public void resetSelectedNodes() {
-        for (NodeTriplet nodeTriplet : nodeTriplets) {
-            for (Node node : nodeTriplet.getNodes()) {
-                if (node.isSelected()) {
-                    node.setSelected(false);
-                }
+        for (Node node : nodes) {
+            if (node.isSelected()) {
+                node.setSelected(false);
             }
         }
     }
@@ -0,0 +1,227 @@
+package model;
+
+/**
+ * The BoardTopology class holds static lookup tables indexed by the index of a node on the board. They are built
+ * once, following the same ring and across-ring layout as the node triplets created by the Board, so that the
+ * neighbors of a node, the two mills containing a node and the coordinates of a node are all O(1) lookups.
+ * 0----------1---------2
+ * |  8-------9------10 |
+ * |  |  16--17--18  |  |
+ * 7  15 23      19  11 3
+ * |  |  22--21--20  |  |
+ * |  14-----13------12 |
+ * 6----------5---------4
+ */
+public final class BoardTopology {
+    /**
+     * an integer represents the number of nodes on the board
+     */
+    public static final int NUM_OF_NODES = 24;
+
+    /**
+     * an integer represents the number of mills (node triplets) on the board
+     */
+    public static final int NUM_OF_MILLS = 16;
+
+    /**
+     * an integer represents the number of rings on the board
+     */
+    private static final int NUM_OF_RINGS = 3;
+
+    /**
+     * an integer represents the number of node triplets in a ring on the board
+     */
+    private static final int NUM_OF_NODE_TRIPLETS_IN_A_RING = 4;
+
+    /**
+     * an integer represents the number of nodes in a ring on the board
+     */
+    private static final int NUM_OF_NODES_IN_A_RING = 8;
+
+    /**
+     * the node indexes of each mill, in the same order as Board.getNodeTriplets()
+     */
+    private static final int[][] MILL_NODES = new int[NUM_OF_MILLS][];
+
+    /**
+     * the mask of each mill, in the same order as Board.getNodeTriplets()
+     */
+    private static final int[] MILL_MASKS = new int[NUM_OF_MILLS];
+
+    /**
+     * the indexes of the two mills containing each node
+     */
+    private static final int[][] MILLS_OF_NODE = new int[NUM_OF_NODES][2];
+
+    /**
+     * the indexes of the neighbors of each node
+     */
+    private static final int[][] NEIGHBORS = new int[NUM_OF_NODES][];
+
+    /**
+     * the mask of the neighbors of each node
+     */
+    private static final int[] NEIGHBOR_MASKS = new int[NUM_OF_NODES];
+
+    /**
+     * the x coordinate of each node
+     */
+    private static final int[] X = new int[NUM_OF_NODES];
+
+    /**
+     * the y coordinate of each node
+     */
+    private static final int[] Y = new int[NUM_OF_NODES];
+
+    static {
+        int millIndex = 0;
+        int distBetweenNodes = 3;
+
+        // within ring
+        for (int ring = 0; ring < NUM_OF_RINGS; ring++) {
+            int base = ring * NUM_OF_NODES_IN_A_RING;
+
+            // walk the ring clockwise from the top left node: right, bottom, left, top
+            int x = ring, y = ring;
+            for (int step = 0; step < NUM_OF_NODES_IN_A_RING; step++) {
+                X[base + step] = x;
+                Y[base + step] = y;
+                switch (step / 2) {
+                    case 0 -> x += distBetweenNodes;
+                    case 1 -> y += distBetweenNodes;
+                    case 2 -> x -= distBetweenNodes;
+                    default -> y -= distBetweenNodes;
+                }
+            }
+
+            for (int side = 0; side < NUM_OF_NODE_TRIPLETS_IN_A_RING; side++) {
+                int first = base + side * 2;
+                int third = base + (side * 2 + 2) % NUM_OF_NODES_IN_A_RING;
+                addMill(millIndex++, first, first + 1, third);
+            }
+
+            distBetweenNodes--;
+        }
+
+        // across rings
+        for (int side = 0; side < NUM_OF_NODE_TRIPLETS_IN_A_RING; side++) {
+            int outer = side * 2 + 1;
+            addMill(millIndex++, outer, outer + NUM_OF_NODES_IN_A_RING, outer + 2 * NUM_OF_NODES_IN_A_RING);
+        }
+
+        // every node lies in exactly two mills
+        int[] millsFound = new int[NUM_OF_NODES];
+        for (int mill = 0; mill < NUM_OF_MILLS; mill++) {
+            for (int node : MILL_NODES[mill]) {
+                MILLS_OF_NODE[node][millsFound[node]++] = mill;
+            }
+        }
+
+        // neighbor indexes from neighbor masks
+        for (int index = 0; index < NUM_OF_NODES; index++) {
+            int mask = NEIGHBOR_MASKS[index];
+            NEIGHBORS[index] = new int[Integer.bitCount(mask)];
+            for (int i = 0; mask != 0; i++) {
+                NEIGHBORS[index][i] = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+            }
+        }
+    }
+
+    /**
+     * Constructor. Not meant to be instantiated.
+     */
+    private BoardTopology() {
+    }
+
+    /**
+     * Register a mill and connect its middle node with the two outer nodes
+     * @param millIndex index of the mill
+     * @param first index of the first node
+     * @param second index of the second (middle) node
+     * @param third index of the third node
+     */
+    private static void addMill(int millIndex, int first, int second, int third) {
+        MILL_NODES[millIndex] = new int[]{first, second, third};
+        MILL_MASKS[millIndex] = (1 << first) | (1 << second) | (1 << third);
+        NEIGHBOR_MASKS[second] |= (1 << first) | (1 << third);
+        NEIGHBOR_MASKS[first] |= 1 << second;
+        NEIGHBOR_MASKS[third] |= 1 << second;
+    }
+
+    /**
+     * Retrieve the node indexes of a mill
+     * @param millIndex index of the mill
+     * @return an array of three node indexes
+     */
+    public static int[] getMillNodes(int millIndex) {
+        return MILL_NODES[millIndex];
+    }
+
+    /**
+     * Retrieve the mask of a mill
+     * @param millIndex index of the mill
+     * @return the mask of the mill
+     */
+    public static int getMillMask(int millIndex) {
+        return MILL_MASKS[millIndex];
+    }
+
+    /**
+     * Retrieve the indexes of the two mills containing a node
+     * @param index index of the node
+     * @return an array of two mill indexes
+     */
+    public static int[] getMillsOfNode(int index) {
+        return MILLS_OF_NODE[index];
+    }
+
+    /**
+     * Retrieve the indexes of the neighbors of a node
+     * @param index index of the node
+     * @return an array of neighbor indexes
+     */
+    public static int[] getNeighbors(int index) {
+        return NEIGHBORS[index];
+    }
+
+    /**
+     * Retrieve the neighbor mask of a node
+     * @param index index of the node
+     * @return the mask of the neighbors of the node
+     */
+    public static int getNeighborMask(int index) {
+        return NEIGHBOR_MASKS[index];
+    }
+
+    /**
+     * Retrieve the x coordinate of a node
+     * @param index index of the node
+     * @return the x coordinate of the node
+     */
+    public static int getX(int index) {
+        return X[index];
+    }
+
+    /**
+     * Retrieve the y coordinate of a node
+     * @param index index of the node
+     * @return the y coordinate of the node
+     */
+    public static int getY(int index) {
+        return Y[index];
+    }
+
+    /**
+     * Verify if the tokens in a mask complete a mill through a node
+     * @param own the occupancy mask of a player
+     * @param index index of the node
+     * @return true if mill exists, else false
+     */
+    public static boolean isMillAt(int own, int index) {
+        int[] mills = MILLS_OF_NODE[index];
+        int first = MILL_MASKS[mills[0]];
+        int second = MILL_MASKS[mills[1]];
+        return (own & first) == first || (own & second) == second;
+    }
+}
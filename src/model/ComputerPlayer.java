@@ -1,218 +1,240 @@
 package model;
 
-import controller.GameController;
-import observer.Observer;
+import book.OpeningBook;
+import endgame.EndgameDatabase;
+import endgame.EndgameTable;
+import engine.Difficulty;
+import engine.Engine;
+import engine.LazySmpSearch;
+import engine.SearchEngine;
+import engine.SearchLimits;
+import engine.SearchResult;
+import engine.TranspositionTable;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ComputerPlayer will inherit the Player class. It searches the Position of the current game on every core with
+ * its Engine, the alpha-beta LazySmpSearch or the Monte Carlo MctsSearch, for the best complete move (source,
+ * destination and the opponent token to remove if a mill is closed), which is played in one step on the Game,
+ * the remove included. Once every token is set, positions covered by the
+ * EndgameDatabase are played perfectly from the database instead, and the SET phase is played from the
+ * OpeningBook as long as it knows the position. With a Difficulty level the computer plays on a node budget
+ * with a single deterministic thread instead, so its strength does not depend on the machine.
+ */
+public class ComputerPlayer extends Player{
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+    /**
+     * instance of the Engine used to choose the moves, null until the first search, which creates the engine
+     * selected by the system property Engine.TYPE_PROPERTY unless one has been set
+     */
+    private Engine searchEngine;
 
-public class ComputerPlayer extends Player{
+    /**
+     * an integer represents the number of moves of perfect play reported as the principal variation
+     */
+    private static final int ENDGAME_VARIATION_LENGTH = 8;
 
+    /**
+     * an integer represents the number of book moves reported as the principal variation
+     */
+    private static final int BOOK_VARIATION_LENGTH = 8;
 
     /**
-     * a node instance to represent the executed node by computer player
+     * instance of the OpeningBook class used to play the SET phase without searching, shared with other players
      */
-    private Node executedNode;
+    private final OpeningBook openingBook;
 
     /**
-     * Constructor
+     * instance of the EndgameDatabase class used to play the MOVE and JUMP phases perfectly, shared with other
+     * players
+     */
+    private final EndgameDatabase endgameDatabase;
+
+    /**
+     * instance of the SearchLimits class that holds the depth, node and time budget of each search
+     */
+    private SearchLimits searchLimits = new SearchLimits();
+
+    /**
+     * instance of the Difficulty class of this computer player, null for the default time-managed play
+     */
+    private Difficulty difficulty;
+
+    /**
+     * a boolean to indicate if this computer player plays from the opening book and the endgame databases
+     */
+    private boolean knowledgeEnabled = true;
+
+    /**
+     * instance of the SearchResult class that holds the outcome of the last search
+     */
+    private volatile SearchResult lastSearchResult;
+
+    /**
+     * a boolean to indicate if this computer player searches the predicted position on the opponent's time
+     */
+    private boolean ponderEnabled = true;
+
+    /**
+     * Constructor. Plays from the opening book and the endgame database shared by the whole process.
      * @param tokenColor the token color of the computer player
      */
     public ComputerPlayer(TokenColor tokenColor) {
-        super(tokenColor);
+        this(tokenColor, null);
     }
 
     /**
-     * Perform the set logic for this computer player
-     * @return true if set command has been executed, else false
+     * Constructor. Plays from the opening book and the endgame database shared by the whole process.
+     * @param tokenColor the token color of the computer player
+     * @param difficulty the Difficulty level to play at, null for the default time-managed play
      */
-    @Override
-    public boolean set() {
-        // retrieve game controller
-        GameController gameController = GameController.getInstance();
-
-        // retrieve node triplets from board
-        Board board = gameController.getBoard();
-        NodeTriplet[] nodeTriplets = board.getNodeTriplets();
-
-        ArrayList<Node> emptyNodes = ValidGenerator.getNodesForSet();
-        // get a random empty node from the empty nodes
-        Random rand = new Random();
-        Node randomEmptyNode = emptyNodes.get(rand.nextInt(emptyNodes.size()));
-
-        // get set index
-        int setIndex = randomEmptyNode.getIndexOnBoard();
-
-        // search for node with targeted setIndex
-        for (NodeTriplet nodeTriplet : nodeTriplets) {
-            for (Node node : nodeTriplet.getNodes()) {
-                int boardIndex = node.getIndexOnBoard();
-                boolean indexEmpty = node.isEmpty();
-                if (boardIndex==setIndex && indexEmpty) {
-                    TokenColor playerColor = getTokenColor();
-                    node.setTokenColor(playerColor);
-                    updateTokensCountOnSet();
-                    board.notifyObservers();
-                    executedNode = node;
-                    return true;
-                }
-            }
-        }
-        return false;
+    public ComputerPlayer(TokenColor tokenColor, Difficulty difficulty) {
+        this(tokenColor, difficulty, OpeningBook.getShared(), EndgameDatabase.getShared());
     }
 
     /**
-     * Perform the move logic for this computer player
-     * @return true if move command has been executed, else false
+     * Constructor
+     * @param tokenColor the token color of the computer player
+     * @param difficulty the Difficulty level to play at, null for the default time-managed play
+     * @param openingBook the OpeningBook instance used to play the SET phase, e.g. OpeningBook.getShared()
+     * @param endgameDatabase the EndgameDatabase instance used to play the MOVE and JUMP phases, e.g.
+     *                        EndgameDatabase.getShared()
      */
-    @Override
-    public boolean move() {
-        // retrieve game controller
-        GameController gameController = GameController.getInstance();
-
-        // retrieve node triplets from board
-        Board board = gameController.getBoard();
-
-        // retrieve occupied node
-        ArrayList <Node> occupiedNodes = new ArrayList<>();
-        for(NodeTriplet nodeTriplet : board.getNodeTriplets()){
-            for (Node node : nodeTriplet.getNodes()) {
-                // if the token color of the node is equal to the current player
-                if(node.getTokenColor() == gameController.getCurrentPlayer().getTokenColor()){
-                    // check if any of the neighbor is empty
-                    for (Node neighbour : node.getNeighbors()){
-                        // if one of them is empty, it means there is at least one empty neighbor
-                        if (neighbour.isEmpty()){
-                            occupiedNodes.add(node);
-                        }
-                    }
-                }
-            }
-        }
-        // get a random empty node from the empty nodes
-        // retrieve src node
-        Random rand = new Random();
-        Node src = occupiedNodes.get(rand.nextInt(occupiedNodes.size()));
-
-        // retrieve all empty neighbor nodes
-        ArrayList <Node> emptyNeighborNodes = new ArrayList<>();
-        for(Node neighbor : src.getNeighbors()){
-            if (neighbor.isEmpty()){
-                emptyNeighborNodes.add(neighbor);
-            }
-        }
-
-        // get a random empty neighbor from the empty neighbors
-        // retrieve dest node
-        Node dest = emptyNeighborNodes.get(rand.nextInt(emptyNeighborNodes.size()));
-
-        boolean destIsEmpty = dest.isEmpty();
-        ArrayList<Node> srcNeighbors = src.getNeighbors();
-        TokenColor srcTokenColor = src.getTokenColor();
-        Player currentPlayer = gameController.getCurrentPlayer();
-        TokenColor currentPlayerTokenColor = currentPlayer.getTokenColor();
-
-        // move token from src to dest
-        if (destIsEmpty && srcNeighbors.contains(dest) && srcTokenColor == currentPlayerTokenColor) {
-            dest.setTokenColor(srcTokenColor);
-            src.setTokenColor(null);
-            board.setSelectedNode(null);
-            board.notifyObservers();
-            executedNode = dest;
-            return true;
+    public ComputerPlayer(TokenColor tokenColor, Difficulty difficulty, OpeningBook openingBook,
+                          EndgameDatabase endgameDatabase) {
+        super(tokenColor);
+        this.openingBook = openingBook;
+        this.endgameDatabase = endgameDatabase;
+        if (difficulty != null) {
+            setDifficulty(difficulty);
         }
-        return false;
     }
 
     /**
-     * Perform the remove logic for this computer player
-     * @return true if remove command has been executed, else false
+     * Play at a Difficulty level: the searches use its node budget, depth cap and evaluation noise without a
+     * time limit, on a single thread and without pondering, so the level plays the same on every machine and
+     * costs a predictable number of nodes. The noise is seeded once per call, so it differs from game to game.
+     * @param difficulty the Difficulty level to play at
      */
-    @Override
-    public boolean remove() {
-
-        // retrieve game controller
-        GameController gameController = GameController.getInstance();
+    public void setDifficulty(Difficulty difficulty) {
+        this.difficulty = difficulty;
+        setSearchLimits(difficulty.newSearchLimits(ThreadLocalRandom.current().nextLong()));
+        setSearchEngine(new LazySmpSearch(1, TranspositionTable.getConfiguredSizeInMb(),
+                                          TranspositionTable.isConfiguredSymmetric()));
+        knowledgeEnabled = difficulty.isKnowledgeEnabled();
+        ponderEnabled = false;
+    }
 
-        // retrieve board
-        Board board = gameController.getBoard();
+    /**
+     * Return the difficulty of this ComputerPlayer instance
+     * @return a Difficulty instance, null for the default time-managed play
+     */
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
 
-        ArrayList <Node> removableTokens = ValidGenerator.getNodesForRemove();
+    /**
+     * Shut down the engine of this computer player and release its threads and transposition table. It must
+     * not be searching. A later search creates the configured engine again.
+     */
+    public synchronized void shutdown() {
+        if (searchEngine != null) {
+            searchEngine.shutdown();
+            searchEngine = null;
+        }
+    }
 
-        // get a random empty node from the empty nodes
-        // retrieve removeToken node
-        Random rand = new Random();
-        Node removeToken = removableTokens.get(rand.nextInt(removableTokens.size()));
+    /**
+     * Create the limits of one search from the searchLimits of this computer player. The limits can be used
+     * from another thread to stop the search, or to start its clock if it is a ponder search.
+     * @param pondering true for a ponder search, which ignores the time limits until its ponderhit
+     * @return a new SearchLimits instance
+     */
+    public SearchLimits newSearchLimits(boolean pondering) {
+        return new SearchLimits(searchLimits, pondering);
+    }
 
-        if (removeToken != null) {
-            // get remove index
-            int removeIndex = removeToken.getIndexOnBoard();
-            return board.removeTokenFromIndex(removeIndex);
+    /**
+     * Search a position without touching the board, so it can run on another thread than the one that plays
+     * the move
+     * @param position the Position instance to search, not shared with the board
+     * @param limits the SearchLimits instance of this search, created by newSearchLimits
+     * @return a SearchResult instance
+     */
+    public SearchResult think(Position position, SearchLimits limits) {
+        SearchResult result = null;
+        if (knowledgeEnabled) {
+            result = probeBook(position);
+            if (result == null) {
+                result = probeEndgame(position);
+            }
+        }
+        if (result == null) {
+            result = getSearchEngine().search(position, limits);
+        }
+        if (!limits.isPondering()) {
+            lastSearchResult = result;
         }
+        return result;
+    }
 
-        return false;
+    /**
+     * Look up the book move of a position in the opening book
+     * @param position the Position instance to look up
+     * @return a SearchResult instance of depth 0, or null if the book has no move for the position
+     */
+    private SearchResult probeBook(Position position) {
+        long start = System.nanoTime();
+        int[] variation = openingBook.getPrincipalVariation(position, BOOK_VARIATION_LENGTH);
+        if (variation.length == 0) {
+            return null;
+        }
+        return new SearchResult(variation[0], openingBook.getScore(position, variation[0]), variation, 0, 0,
+                                (System.nanoTime() - start) / 1_000_000);
     }
 
     /**
-     * Perform the jump logic for this computer player
-     * @return true if jump command has been executed, else false
+     * Look up the move of perfect play in the endgame database
+     * @param position the Position instance to look up
+     * @return a SearchResult instance of depth 0, or null if the database does not cover the position
      */
-    @Override
-    public boolean jump() {
-        // retrieve game controller
-        GameController gameController = GameController.getInstance();
-
-        // retrieve node triplets from board
-        Board board = gameController.getBoard();
-
-        // retrieve occupied node
-        ArrayList <Node> occupiedNodes = new ArrayList<>();
-        for(NodeTriplet nodeTriplet : board.getNodeTriplets()){
-            for (Node node : nodeTriplet.getNodes()) {
-                // if the token color of the node is equal to the current player
-                if(node.getTokenColor() == gameController.getCurrentPlayer().getTokenColor()){
-                    // check if any of the neighbor is empty
-                    occupiedNodes.add(node);
-                }
-            }
+    private SearchResult probeEndgame(Position position) {
+        long start = System.nanoTime();
+        short value = endgameDatabase.probe(position);
+        if (value == EndgameTable.UNKNOWN || position.isGameOver()) {
+            return null;
+        }
+        int[] variation = endgameDatabase.getPrincipalVariation(position, ENDGAME_VARIATION_LENGTH);
+        if (variation.length == 0) {
+            return null;
         }
+        int score = EndgameTable.isWin(value) ? SearchEngine.WIN_SCORE - EndgameTable.getDistance(value)
+                  : EndgameTable.isLoss(value) ? EndgameTable.getDistance(value) - SearchEngine.WIN_SCORE
+                  : SearchEngine.DRAW_SCORE;
+        return new SearchResult(variation[0], score, variation, 0, 0, (System.nanoTime() - start) / 1_000_000);
+    }
 
-        // get a random occupied node from the occupied nodes
-        // retrieve src node
-        Random rand = new Random();
-        Node src = occupiedNodes.get(rand.nextInt(occupiedNodes.size()));
-
-        // retrieve all empty neighbor nodes
-        ArrayList <Node> emptyNodes = new ArrayList<>();
-        for(NodeTriplet nodeTriplet : board.getNodeTriplets()){
-            for (Node node : nodeTriplet.getNodes()) {
-                if (node.isEmpty()){
-                    // check if the node is empty, then add to the array list
-                    emptyNodes.add(node);
-                }
-            }
+    /**
+     * Return the searchEngine of this ComputerPlayer instance, creating the configured engine on first use
+     * @return an Engine instance
+     */
+    public synchronized Engine getSearchEngine() {
+        if (searchEngine == null) {
+            searchEngine = Engine.createConfigured();
         }
+        return searchEngine;
+    }
 
-        // get a random empty node from the empty nodes
-        // retrieve src node
-        Node dest = emptyNodes.get(rand.nextInt(emptyNodes.size()));
-
-        boolean destIsEmpty = dest.isEmpty();
-        TokenColor srcTokenColor = src.getTokenColor();
-        Player currentPlayer = gameController.getCurrentPlayer();
-        TokenColor currentPlayerTokenColor = currentPlayer.getTokenColor();
-
-        // move token from src to dest
-        if (destIsEmpty && src.getTokenColor() == currentPlayerTokenColor) {
-            dest.setTokenColor(srcTokenColor);
-            src.setTokenColor(null);
-            gameController.getBoard().setSelectedNode(null);
-            gameController.getBoard().notifyObservers();
-            executedNode = dest;
-            return true;
+    /**
+     * Setter of searchEngine. The previous engine, if any, is shut down, so it must not be searching.
+     * @param searchEngine the Engine instance used to choose the moves
+     */
+    public synchronized void setSearchEngine(Engine searchEngine) {
+        if (this.searchEngine != null) {
+            this.searchEngine.shutdown();
         }
-        return false;
+        this.searchEngine = searchEngine;
     }
 
     /**
@@ -225,19 +247,44 @@ public class ComputerPlayer extends Player{
     }
 
     /**
-     * Set the newExecutedNode of this ComputerPlayer instance
-     * @param newExecutedNode a Node instance
+     * Determine if this computer player searches the predicted position on the opponent's time
+     * @return true if pondering is enabled, else false
+     */
+    public boolean isPonderEnabled() {
+        return ponderEnabled;
+    }
+
+    /**
+     * Setter of ponderEnabled
+     * @param ponderEnabled true to search the predicted position on the opponent's time, else false
+     */
+    public void setPonderEnabled(boolean ponderEnabled) {
+        this.ponderEnabled = ponderEnabled;
+    }
+
+    /**
+     * Return the searchLimits of this ComputerPlayer instance
+     * @return a SearchLimits instance
+     */
+    public SearchLimits getSearchLimits() {
+        return searchLimits;
+    }
+
+    /**
+     * Setter of searchLimits
+     * @param searchLimits the SearchLimits instance that holds the depth, node and time budget of each search
      */
-    public void setExecutedNode(Node newExecutedNode){
-        executedNode = newExecutedNode;
+    public void setSearchLimits(SearchLimits searchLimits) {
+        this.searchLimits = searchLimits;
     }
 
     /**
-     * Return the executedNode of this ComputerPlayer instance
-     * @return a Node instance
+     * Return the outcome of the last search of this ComputerPlayer instance, which reports the nodes searched
+     * and the depth reached
+     * @return a SearchResult instance, null before the first search
      */
-    public Node getExecutedNode(){
-        return executedNode;
+    public SearchResult getLastSearchResult() {
+        return lastSearchResult;
     }
 
 }
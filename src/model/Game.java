@@ -0,0 +1,298 @@
+package model;
+
+/**
+ * The Game class is the rules engine of one game: it keeps the current Position and the GameRecord of the moves
+ * played, lists the legal moves, applies them and reports the state and the result. It holds no static state and
+ * knows nothing about the view, so games can be created and played headless, e.g. by a server, a batch job or a
+ * benchmark. Moves can be applied as complete moves, the set, move or jump together with the remove of a mill, or
+ * step by step like a player clicks them: a step that closes a mill leaves the game in the REMOVE state until the
+ * remove is played, and the turn is recorded as one complete move once it is over. Every game is independent of
+ * the others and every method is synchronized, so many games can live in one process and each can be played
+ * from any thread.
+ */
+public class Game {
+    /**
+     * instance of the Position class the game started from
+     */
+    private final Position initialPosition = new Position();
+
+    /**
+     * instance of the Position class of the current game, including the half played turn in the REMOVE state
+     */
+    private final Position position = new Position();
+
+    /**
+     * instance of the GameRecord class that keeps the complete moves played in the game
+     */
+    private final GameRecord record = new GameRecord();
+
+    /**
+     * instance of the Position class the turn in progress started from, null if no step is waiting for its
+     * remove
+     */
+    private Position turnStart;
+
+    /**
+     * an integer represents the encoded set, move or jump of the turn in progress, waiting for its remove
+     */
+    private int pendingMove = Move.NULL_MOVE;
+
+    /**
+     * Constructor. Creates a game from the initial position: an empty board, white to set and both players
+     * holding all their tokens.
+     */
+    public Game() {
+    }
+
+    /**
+     * Constructor. Creates a game from a given position, e.g. a tutorial or a puzzle.
+     * @param position the Position instance to start from, copied so it can change afterwards
+     */
+    public Game(Position position) {
+        load(position);
+    }
+
+    /**
+     * Start the game again from the initial position
+     */
+    public synchronized void reset() {
+        load(new Position());
+    }
+
+    /**
+     * Start the game again from a given position, forgetting every move played
+     * @param position the Position instance to start from, copied so it can change afterwards
+     */
+    public synchronized void load(Position position) {
+        initialPosition.copyFrom(position);
+        this.position.copyFrom(position);
+        record.clear();
+        turnStart = null;
+        pendingMove = Move.NULL_MOVE;
+    }
+
+    /**
+     * Retrieve the legal moves of the side to move. In the REMOVE state these are the standalone removes.
+     * @return the encoded moves, empty if the game is over
+     */
+    public synchronized int[] getLegalMoves() {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(position, moves);
+        int[] legalMoves = new int[count];
+        System.arraycopy(moves, 0, legalMoves, 0, count);
+        return legalMoves;
+    }
+
+    /**
+     * Determine if a move is one of the legal moves of the side to move
+     * @param move the encoded move
+     * @return true if the move is legal, else false
+     */
+    public synchronized boolean isLegalMove(int move) {
+        if (move == Move.NULL_MOVE) {
+            return false;
+        }
+        for (int legalMove : getLegalMoves()) {
+            if (legalMove == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Play a complete move for the side to move: the set, move or jump and the remove of the mill it closes. In
+     * the REMOVE state the move is the standalone remove that ends the turn.
+     * @param move the encoded move
+     * @return true if the move is legal and has been played, else false
+     */
+    public synchronized boolean applyMove(int move) {
+        if (!isLegalMove(move)) {
+            return false;
+        }
+
+        // a remove that ends a turn played step by step completes the move of that turn
+        if (turnStart != null) {
+            record.add(turnStart, Move.withRemove(pendingMove, Move.getRemove(move)));
+            turnStart = null;
+            pendingMove = Move.NULL_MOVE;
+        } else {
+            record.add(position, move);
+        }
+        position.makeMove(move);
+        return true;
+    }
+
+    /**
+     * Set a token of the side to move on an empty node
+     * @param to index of the node
+     * @return true if the set is legal and has been played, else false
+     */
+    public synchronized boolean set(int to) {
+        return position.getState() == GameState.SET && playStep(Move.set(to));
+    }
+
+    /**
+     * Slide a token of the side to move to an adjacent empty node
+     * @param from index of the node of the token
+     * @param to index of the destination node
+     * @return true if the move is legal and has been played, else false
+     */
+    public synchronized boolean move(int from, int to) {
+        return position.getState() == GameState.MOVE && playStep(Move.move(from, to));
+    }
+
+    /**
+     * Jump a token of the side to move to any empty node
+     * @param from index of the node of the token
+     * @param to index of the destination node
+     * @return true if the jump is legal and has been played, else false
+     */
+    public synchronized boolean jump(int from, int to) {
+        return position.getState() == GameState.JUMP && playStep(Move.move(from, to));
+    }
+
+    /**
+     * Remove a token of the opponent after a mill has been closed
+     * @param index index of the node of the token
+     * @return true if the remove is legal and has been played, else false
+     */
+    public synchronized boolean remove(int index) {
+        return position.getState() == GameState.REMOVE && applyMove(Move.remove(index));
+    }
+
+    /**
+     * Play a set, move or jump on its own. If it closes a mill and a token can be removed, it is played on the
+     * board and the game waits in the REMOVE state for the remove, otherwise the turn is over.
+     * @param move the encoded move without a remove
+     * @return true if the step is legal and has been played, else false
+     */
+    private boolean playStep(int move) {
+        boolean needsRemove = false;
+        for (int legalMove : getLegalMoves()) {
+            if (legalMove == move) {
+                return applyMove(move);
+            }
+            needsRemove |= Move.hasRemove(legalMove) && Move.withRemove(legalMove, Move.NONE) == move;
+        }
+        if (!needsRemove) {
+            return false;
+        }
+
+        turnStart = new Position(position);
+        pendingMove = move;
+        int color = position.getSideToMove();
+        if (Move.isSet(move)) {
+            position.setTokensToSet(color, position.getTokensToSet(color) - 1);
+        } else {
+            position.clearToken(Move.getFrom(move));
+        }
+        position.putToken(Move.getTo(move), color);
+        position.setState(GameState.REMOVE);
+        return true;
+    }
+
+    /**
+     * Undo the last complete move in one step, including the remove of a mill. A turn waiting for its remove is
+     * taken back instead.
+     * @return true if a move has been undone, else false
+     */
+    public synchronized boolean undoMove() {
+        if (turnStart != null) {
+            position.copyFrom(turnStart);
+            turnStart = null;
+            pendingMove = Move.NULL_MOVE;
+            return true;
+        }
+        if (record.isEmpty()) {
+            return false;
+        }
+        position.copyFrom(record.undo());
+        return true;
+    }
+
+    /**
+     * Retrieve the current position
+     * @return a copy of the Position instance
+     */
+    public synchronized Position getPosition() {
+        return new Position(position);
+    }
+
+    /**
+     * Retrieve the position the game started from
+     * @return a copy of the Position instance
+     */
+    public synchronized Position getInitialPosition() {
+        return new Position(initialPosition);
+    }
+
+    /**
+     * Retrieve the moves played in the game
+     * @return a copy of the GameRecord instance, a turn waiting for its remove is not part of it yet
+     */
+    public synchronized GameRecord getRecord() {
+        return new GameRecord(record);
+    }
+
+    /**
+     * Retrieve the player to move
+     * @return the token color of the side to move
+     */
+    public synchronized TokenColor getSideToMove() {
+        return Position.tokenColor(position.getSideToMove());
+    }
+
+    /**
+     * Retrieve the current state of the game
+     * @return SET, MOVE or JUMP for the side to move, or REMOVE if a mill has been closed and the remove is
+     *         pending
+     */
+    public synchronized GameState getState() {
+        return position.getState();
+    }
+
+    /**
+     * Retrieve the token color on a node
+     * @param index index of the node
+     * @return the token color, null if the node is empty
+     */
+    public synchronized TokenColor getTokenColorAt(int index) {
+        int color = position.getColorAt(index);
+        return color < 0 ? null : Position.tokenColor(color);
+    }
+
+    /**
+     * Retrieve the number of tokens a player has left to set
+     * @param tokenColor token color of the player
+     * @return the number of tokens to set
+     */
+    public synchronized int getTokensToSet(TokenColor tokenColor) {
+        return position.getTokensToSet(Position.colorIndex(tokenColor));
+    }
+
+    /**
+     * Retrieve the number of tokens a player has on board
+     * @param tokenColor token color of the player
+     * @return the number of tokens on board
+     */
+    public synchronized int getTokensOnBoard(TokenColor tokenColor) {
+        return position.getTokensOnBoard(Position.colorIndex(tokenColor));
+    }
+
+    /**
+     * Determine if the game is over, i.e. the side to move has lost
+     * @return true if the game is over, else false
+     */
+    public synchronized boolean isOver() {
+        return position.isGameOver();
+    }
+
+    /**
+     * Retrieve the winner of the game
+     * @return the token color of the winner, null if the game is not over
+     */
+    public synchronized TokenColor getWinner() {
+        return isOver() ? Position.tokenColor(position.getSideToMove() ^ 1) : null;
+    }
+}
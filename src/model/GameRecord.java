@@ -0,0 +1,134 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The GameRecord class keeps the moves played in a game as complete moves, i.e. the set, move or jump together
+ * with the opponent token it removes when it closes a mill, so a mill and its remove are one entry. Each move is
+ * stored with the Position it was played from, so the last move is undone in one step by restoring that
+ * position.
+ */
+public class GameRecord {
+    /**
+     * a List to stores the encoded moves in the order they were played
+     */
+    private final List<Integer> moves = new ArrayList<>();
+
+    /**
+     * a List to stores the Position instance each move was played from
+     */
+    private final List<Position> positions = new ArrayList<>();
+
+    /**
+     * Constructor. Creates an empty record.
+     */
+    public GameRecord() {
+    }
+
+    /**
+     * Copy constructor. The positions are immutable once recorded, so they are shared with the copy.
+     * @param other the GameRecord instance to be copied
+     */
+    public GameRecord(GameRecord other) {
+        moves.addAll(other.moves);
+        positions.addAll(other.positions);
+    }
+
+    /**
+     * Record a move
+     * @param position the Position instance the move is played from, copied so it can change afterwards
+     * @param move the encoded move
+     */
+    public void add(Position position, int move) {
+        Position copy = new Position();
+        copy.copyFrom(position);
+        positions.add(copy);
+        moves.add(move);
+    }
+
+    /**
+     * Forget the last move
+     * @return the Position instance the last move was played from
+     * @throws IllegalStateException if no move has been recorded
+     */
+    public Position undo() {
+        if (moves.isEmpty()) {
+            throw new IllegalStateException("No move to undo");
+        }
+        moves.remove(moves.size() - 1);
+        return positions.remove(positions.size() - 1);
+    }
+
+    /**
+     * Forget every move
+     */
+    public void clear() {
+        moves.clear();
+        positions.clear();
+    }
+
+    /**
+     * Retrieve the number of moves recorded
+     * @return the number of moves
+     */
+    public int size() {
+        return moves.size();
+    }
+
+    /**
+     * Determine if no move has been recorded
+     * @return true if the record is empty, else false
+     */
+    public boolean isEmpty() {
+        return moves.isEmpty();
+    }
+
+    /**
+     * Retrieve a recorded move
+     * @param index the number of moves played before it
+     * @return the encoded move
+     */
+    public int getMove(int index) {
+        return moves.get(index);
+    }
+
+    /**
+     * Retrieve the position a recorded move was played from
+     * @param index the number of moves played before it
+     * @return a copy of the Position instance
+     */
+    public Position getPosition(int index) {
+        Position copy = new Position();
+        copy.copyFrom(positions.get(index));
+        return copy;
+    }
+
+    /**
+     * Retrieve the moves of the game, e.g. to replay them from the first position
+     * @return the encoded moves in the order they were played
+     */
+    public int[] getMoves() {
+        int[] copy = new int[moves.size()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = moves.get(i);
+        }
+        return copy;
+    }
+
+    /**
+     * Format the moves of the game
+     * @return the moves in the order they were played, separated by spaces
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int move : moves) {
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            builder.append(Move.toString(move));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,151 @@
+package model;
+
+/**
+ * The Move class packs a complete move into a primitive int so that moves can be generated into plain arrays
+ * without any allocation. A move holds the source node (none for a set), the destination node (none for a
+ * standalone remove) and the node of the opponent token removed when the move closes a mill (none otherwise).
+ * Bits 0-4 hold the destination, bits 5-9 the source and bits 10-14 the removed node.
+ */
+public final class Move {
+    /**
+     * an integer that marks the absence of a node in a move
+     */
+    public static final int NONE = 31;
+
+    /**
+     * an integer represents a move that is never legal, used as the "no move" value
+     */
+    public static final int NULL_MOVE = 0;
+
+    /**
+     * an integer represents the number of bits used by each node of the move
+     */
+    private static final int BITS = 5;
+
+    /**
+     * an integer represents the mask of a node in the move
+     */
+    private static final int MASK = (1 << BITS) - 1;
+
+    /**
+     * Constructor. Not meant to be instantiated.
+     */
+    private Move() {
+    }
+
+    /**
+     * Encode a move
+     * @param from index of the source node, NONE for a set
+     * @param to index of the destination node, NONE for a standalone remove
+     * @param remove index of the removed opponent token, NONE if no token is removed
+     * @return the encoded move
+     */
+    public static int of(int from, int to, int remove) {
+        return to | from << BITS | remove << 2 * BITS;
+    }
+
+    /**
+     * Encode a set
+     * @param to index of the node to set
+     * @return the encoded move
+     */
+    public static int set(int to) {
+        return of(NONE, to, NONE);
+    }
+
+    /**
+     * Encode a move or a jump
+     * @param from index of the source node
+     * @param to index of the destination node
+     * @return the encoded move
+     */
+    public static int move(int from, int to) {
+        return of(from, to, NONE);
+    }
+
+    /**
+     * Encode a standalone remove, used when the game is already in the REMOVE state
+     * @param remove index of the opponent token to remove
+     * @return the encoded move
+     */
+    public static int remove(int remove) {
+        return of(NONE, NONE, remove);
+    }
+
+    /**
+     * Attach a remove to a move that closes a mill
+     * @param move the encoded move without a remove
+     * @param remove index of the opponent token to remove
+     * @return the encoded move
+     */
+    public static int withRemove(int move, int remove) {
+        return move & ~(MASK << 2 * BITS) | remove << 2 * BITS;
+    }
+
+    /**
+     * Retrieve the source node of a move
+     * @param move the encoded move
+     * @return index of the source node, NONE for a set
+     */
+    public static int getFrom(int move) {
+        return move >>> BITS & MASK;
+    }
+
+    /**
+     * Retrieve the destination node of a move
+     * @param move the encoded move
+     * @return index of the destination node, NONE for a standalone remove
+     */
+    public static int getTo(int move) {
+        return move & MASK;
+    }
+
+    /**
+     * Retrieve the removed node of a move
+     * @param move the encoded move
+     * @return index of the removed opponent token, NONE if no token is removed
+     */
+    public static int getRemove(int move) {
+        return move >>> 2 * BITS & MASK;
+    }
+
+    /**
+     * Determine if a move places a new token on the board
+     * @param move the encoded move
+     * @return true if it is a set, else false
+     */
+    public static boolean isSet(int move) {
+        return getFrom(move) == NONE && getTo(move) != NONE;
+    }
+
+    /**
+     * Determine if a move removes an opponent token
+     * @param move the encoded move
+     * @return true if a token is removed, else false
+     */
+    public static boolean hasRemove(int move) {
+        return getRemove(move) != NONE;
+    }
+
+    /**
+     * Describe a move, e.g. "5" for a set, "4-5" for a move or jump and "4-5x17" when a token is removed
+     * @param move the encoded move
+     * @return a String that describes the move
+     */
+    public static String toString(int move) {
+        if (move == NULL_MOVE) {
+            return "none";
+        }
+        StringBuilder builder = new StringBuilder();
+        if (getFrom(move) != NONE) {
+            builder.append(getFrom(move)).append('-');
+        }
+        if (getTo(move) != NONE) {
+            builder.append(getTo(move));
+        }
+        if (hasRemove(move)) {
+            builder.append('x').append(getRemove(move));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,145 @@
+package model;
+
+/**
+ * The MoveGenerator class generates every legal move of a Position. Each move is complete: the source node,
+ * the destination node and, when the move closes a mill, the opponent token to remove, packed by the Move class.
+ * Moves are written into a caller-supplied int array, so generating moves never allocates, and each move is
+ * generated exactly once.
+ */
+public final class MoveGenerator {
+    /**
+     * an integer represents the size of a move buffer large enough for any position. At most 32 slides exist
+     * in the MOVE state (one per edge of the board) and each may remove one of up to 9 opponent tokens, which
+     * bounds every other state as well.
+     */
+    public static final int MAX_MOVES = 32 * 9;
+
+    /**
+     * Constructor. Not meant to be instantiated.
+     */
+    private MoveGenerator() {
+    }
+
+    /**
+     * Generate every legal move of the side to move
+     * @param position the Position instance to generate moves for
+     * @param moves the buffer to write the moves into, at least MAX_MOVES long
+     * @return the number of moves written
+     */
+    public static int generate(Position position, int[] moves) {
+        int color = position.getSideToMove();
+
+        // the game is already waiting for a remove
+        if (position.getState() == GameState.REMOVE) {
+            return generateRemoves(position, color, moves, 0);
+        }
+
+        // the side to move has already lost
+        if (position.getTokensToSet(color) == 0 &&
+            position.getTokensOnBoard(color) < Position.NUM_OF_TOKENS_TO_JUMP) {
+            return 0;
+        }
+
+        int own = position.getOccupancy(color);
+        int empty = position.getEmpty();
+        int removable = position.getRemovableMask(color);
+        int count = 0;
+
+        switch (position.getPhase(color)) {
+            case SET:
+                for (int targets = empty; targets != 0; targets &= targets - 1) {
+                    int to = Integer.numberOfTrailingZeros(targets);
+                    count = addMove(moves, count, Move.set(to), own | 1 << to, to, removable);
+                }
+                break;
+            case MOVE:
+                for (int sources = own & Position.adjacentTo(empty); sources != 0; sources &= sources - 1) {
+                    int from = Integer.numberOfTrailingZeros(sources);
+                    int rest = own & ~(1 << from);
+                    for (int targets = BoardTopology.getNeighborMask(from) & empty; targets != 0; targets &= targets - 1) {
+                        int to = Integer.numberOfTrailingZeros(targets);
+                        count = addMove(moves, count, Move.move(from, to), rest | 1 << to, to, removable);
+                    }
+                }
+                break;
+            case JUMP:
+                for (int sources = own; sources != 0; sources &= sources - 1) {
+                    int from = Integer.numberOfTrailingZeros(sources);
+                    int rest = own & ~(1 << from);
+                    for (int targets = empty; targets != 0; targets &= targets - 1) {
+                        int to = Integer.numberOfTrailingZeros(targets);
+                        count = addMove(moves, count, Move.move(from, to), rest | 1 << to, to, removable);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+        return count;
+    }
+
+    /**
+     * Write a move into the buffer, expanded into one move per removable opponent token if it closes a mill.
+     * If every opponent token is in a mill, the move is written without a remove.
+     * @param moves the buffer to write the moves into
+     * @param count the number of moves already in the buffer
+     * @param move the encoded move without a remove
+     * @param ownAfter the occupancy mask of the side to move after the move
+     * @param to index of the destination node
+     * @param removable the mask of removable opponent tokens
+     * @return the number of moves in the buffer
+     */
+    private static int addMove(int[] moves, int count, int move, int ownAfter, int to, int removable) {
+        if (removable == 0 || !BoardTopology.isMillAt(ownAfter, to)) {
+            moves[count++] = move;
+            return count;
+        }
+        for (; removable != 0; removable &= removable - 1) {
+            moves[count++] = Move.withRemove(move, Integer.numberOfTrailingZeros(removable));
+        }
+        return count;
+    }
+
+    /**
+     * Generate the standalone removes available in the REMOVE state
+     * @param position the Position instance to generate moves for
+     * @param color the color index of the player performing the remove
+     * @param moves the buffer to write the moves into
+     * @param count the number of moves already in the buffer
+     * @return the number of moves in the buffer
+     */
+    private static int generateRemoves(Position position, int color, int[] moves, int count) {
+        for (int removable = position.getRemovableMask(color); removable != 0; removable &= removable - 1) {
+            moves[count++] = Move.remove(Integer.numberOfTrailingZeros(removable));
+        }
+        return count;
+    }
+
+    /**
+     * Retrieve the mask of the tokens the side to move can pick up in the MOVE or JUMP state
+     * @param position the Position instance
+     * @return the mask of movable tokens
+     */
+    public static int getMovableMask(Position position) {
+        int color = position.getSideToMove();
+        int own = position.getOccupancy(color);
+        if (position.getPhase(color) == GameState.MOVE) {
+            return own & Position.adjacentTo(position.getEmpty());
+        }
+        return own;
+    }
+
+    /**
+     * Retrieve the mask of the nodes a token of the side to move can be moved or jumped to
+     * @param position the Position instance
+     * @param from index of the source node
+     * @return the mask of destination nodes
+     */
+    public static int getTargetMask(Position position, int from) {
+        int empty = position.getEmpty();
+        if (position.getPhase(position.getSideToMove()) == GameState.MOVE) {
+            return BoardTopology.getNeighborMask(from) & empty;
+        }
+        return empty;
+    }
+}
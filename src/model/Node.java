@@ -36,21 +36,16 @@ public class Node {
      */
     private ArrayList<Node> neighbors = new ArrayList<>();
 
-    /**
-     * an integer that is used as the counter for the index
-     */
-    private static int indexOnBoardCounter = 0;
-
     /**
      * Constructor
      * @param x the x coordinate of the node
      * @param y the y coordinate of the node
+     * @param indexOnBoard the index of the node on board, assigned by the board that owns the node
      */
-    public Node(int x, int y) {
+    public Node(int x, int y, int indexOnBoard) {
         this.x = x;
         this.y = y;
-        this.indexOnBoard = indexOnBoardCounter;
-        indexOnBoardCounter++;
+        this.indexOnBoard = indexOnBoard;
     }
 
     /**
@@ -140,11 +135,4 @@ public class Node {
     public boolean isOccupied() {
         return tokenColor != null;
     }
-
-    /**
-     * Reset the value for the indexOnBoardCounter
-     */
-    public static void resetIndexOnBoardCounter() {
-        Node.indexOnBoardCounter = 0;
-    }
 }
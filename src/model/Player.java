@@ -1,10 +1,9 @@
 package model;
 
 /**
- * The player is defined as an abstract class to provide abstraction. The spectrum of what a player can
- * do are fixed, this includes set, move, jump and remove. Any class that inherits this class cannot add
- * other capabilities other than the fundamental capabilities of the player. However, they can extend and
- * override abstract methods to define how different types of players will perform each action.
+ * The player is defined as an abstract class to provide abstraction. A player keeps the token counts of one
+ * side of the game, while the set, move, jump and remove themselves are rules played on the Game. Any class
+ * that inherits this class decides where its moves come from, the clicks of a user or a search.
  */
 public abstract class Player {
     /**
@@ -80,6 +79,16 @@ public abstract class Player {
         this.tokensToSet = tokensToSet;
     }
 
+    /**
+     * Sync the token counts of this player with a position
+     * @param position the Position instance to sync with
+     */
+    public void syncWithPosition(Position position) {
+        int color = Position.colorIndex(tokenColor);
+        this.tokensToSet = position.getTokensToSet(color);
+        this.tokensOnBoard = position.getTokensOnBoard(color);
+    }
+
     /**
      * Retrieve the number of tokens to set
      * @return an integer represents the number of tokens to set
@@ -119,30 +128,6 @@ public abstract class Player {
         return type;
     }
 
-    /**
-     * Perform the set logic of the Player
-     * @return true if the set command is executed, else false
-     */
-    public abstract boolean set();
-
-    /**
-     * Perform the move logic of the Player
-     * @return true if the move command is executed, else false
-     */
-    public abstract boolean move();
-
-    /**
-     * Perform the remove logic of the Player
-     * @return true if the remove command is executed, else false
-     */
-    public abstract boolean remove();
-
-    /**
-     * Perform the jump logic of the Player
-     * @return true if the jump command is executed, else false
-     */
-    public abstract boolean jump();
-
     /**
      * Determine if the player is a computer player
      * @return true if the player is a computer player, else false
@@ -0,0 +1,572 @@
+package model;
+
+/**
+ * The Position class is a compact bitboard representation of the game. Each player owns a 24-bit mask in which
+ * bit i is set when the node with index i on the Board holds a token of that player. The game state, the side to
+ * move and the number of tokens each player still has to set are kept as primitives, which turns mill detection,
+ * legal move checks and win checks into a handful of mask operations. The features the Evaluator reads are kept
+ * up to date by every change of a token: the number of tokens of each player in each mill, packed 2 bits per
+ * mill, and the mobility of each player, the number of (token, empty neighbor) pairs.
+ * 0----------1---------2
+ * |  8-------9------10 |
+ * |  |  16--17--18  |  |
+ * 7  15 23      19  11 3
+ * |  |  22--21--20  |  |
+ * |  14-----13------12 |
+ * 6----------5---------4
+ */
+public class Position {
+    /**
+     * an integer represents the color index of the white player
+     */
+    public static final int WHITE = 0;
+
+    /**
+     * an integer represents the color index of the black player
+     */
+    public static final int BLACK = 1;
+
+    /**
+     * an integer represents the number of nodes on the board
+     */
+    public static final int NUM_OF_NODES = 24;
+
+    /**
+     * an integer represents the mask with every node of the board set
+     */
+    public static final int FULL_MASK = (1 << NUM_OF_NODES) - 1;
+
+    /**
+     * an integer represents the initial number of tokens to set for each player
+     */
+    public static final int INIT_NUM_OF_TOKENS_TO_SET = 9;
+
+    /**
+     * an integer represents the number of tokens at which a player is allowed to jump
+     */
+    public static final int NUM_OF_TOKENS_TO_JUMP = 3;
+
+    /**
+     * an array of the game states, cached to avoid copying on every lookup
+     */
+    private static final GameState[] GAME_STATES = GameState.values();
+
+    /**
+     * an array that stores the occupancy mask of each player, indexed by color index
+     */
+    private final int[] occupancy = new int[2];
+
+    /**
+     * an array that stores the number of tokens left to set of each player, indexed by color index
+     */
+    private final int[] tokensToSet = new int[2];
+
+    /**
+     * an array that stores the number of tokens of each player in each mill, 2 bits per mill index
+     */
+    private final int[] millCounts = new int[2];
+
+    /**
+     * an array that stores the number of slides of each player to an empty neighbor, ignoring the phase
+     */
+    private final int[] mobility = new int[2];
+
+    /**
+     * an integer represents the color index of the player to perform the next command
+     */
+    private int sideToMove;
+
+    /**
+     * an integer represents the ordinal of the current GameState
+     */
+    private int state;
+
+    /**
+     * a long represents the Zobrist hash of this position, kept up to date by every mutator
+     */
+    private long hash;
+
+    /**
+     * Constructor. Creates the initial position of a game: an empty board, white to set and both players
+     * holding all their tokens.
+     */
+    public Position() {
+        tokensToSet[WHITE] = INIT_NUM_OF_TOKENS_TO_SET;
+        tokensToSet[BLACK] = INIT_NUM_OF_TOKENS_TO_SET;
+        sideToMove = WHITE;
+        state = GameState.SET.ordinal();
+        hash = computeHash();
+    }
+
+    /**
+     * Copy constructor
+     * @param other the position to be copied
+     */
+    public Position(Position other) {
+        copyFrom(other);
+    }
+
+    /**
+     * Overwrite this position with the content of another position
+     * @param other the position to be copied
+     */
+    public void copyFrom(Position other) {
+        occupancy[WHITE] = other.occupancy[WHITE];
+        occupancy[BLACK] = other.occupancy[BLACK];
+        millCounts[WHITE] = other.millCounts[WHITE];
+        millCounts[BLACK] = other.millCounts[BLACK];
+        mobility[WHITE] = other.mobility[WHITE];
+        mobility[BLACK] = other.mobility[BLACK];
+        tokensToSet[WHITE] = other.tokensToSet[WHITE];
+        tokensToSet[BLACK] = other.tokensToSet[BLACK];
+        sideToMove = other.sideToMove;
+        state = other.state;
+        hash = other.hash;
+    }
+
+    /**
+     * Compute the Zobrist hash of this position from scratch
+     * @return the Zobrist hash
+     */
+    public long computeHash() {
+        return Zobrist.tokens(WHITE, occupancy[WHITE]) ^ Zobrist.tokens(BLACK, occupancy[BLACK]) ^
+               Zobrist.tokensToSet(WHITE, tokensToSet[WHITE]) ^ Zobrist.tokensToSet(BLACK, tokensToSet[BLACK]) ^
+               Zobrist.sideToMove(sideToMove) ^ Zobrist.state(state);
+    }
+
+    /**
+     * Retrieve the Zobrist hash of this position
+     * @return the Zobrist hash
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Retrieve the color index of a token color
+     * @param tokenColor the token color
+     * @return WHITE or BLACK
+     */
+    public static int colorIndex(TokenColor tokenColor) {
+        return tokenColor == TokenColor.WHITE ? WHITE : BLACK;
+    }
+
+    /**
+     * Retrieve the token color of a color index
+     * @param color WHITE or BLACK
+     * @return the token color
+     */
+    public static TokenColor tokenColor(int color) {
+        return color == WHITE ? TokenColor.WHITE : TokenColor.BLACK;
+    }
+
+    /**
+     * Retrieve the neighbor mask of a node
+     * @param index index of the node
+     * @return a mask of the neighbors of the node
+     */
+    public static int neighborsOf(int index) {
+        return BoardTopology.getNeighborMask(index);
+    }
+
+    /**
+     * Retrieve the occupancy mask of a player
+     * @param color WHITE or BLACK
+     * @return the occupancy mask of the player
+     */
+    public int getOccupancy(int color) {
+        return occupancy[color];
+    }
+
+    /**
+     * Retrieve the mask of every empty node
+     * @return the mask of every empty node
+     */
+    public int getEmpty() {
+        return ~(occupancy[WHITE] | occupancy[BLACK]) & FULL_MASK;
+    }
+
+    /**
+     * Retrieve the color index of the token at a node
+     * @param index index of the node
+     * @return WHITE, BLACK or -1 if the node is empty
+     */
+    public int getColorAt(int index) {
+        int bit = 1 << index;
+        if ((occupancy[WHITE] & bit) != 0) {
+            return WHITE;
+        }
+        if ((occupancy[BLACK] & bit) != 0) {
+            return BLACK;
+        }
+        return -1;
+    }
+
+    /**
+     * Place a token of a player on a node, without touching the tokens left to set
+     * @param index index of the node
+     * @param color WHITE or BLACK
+     */
+    public void putToken(int index, int color) {
+        int bit = 1 << index;
+        if ((occupancy[color ^ 1] & bit) != 0) {
+            removeFeatures(index, color ^ 1);
+            occupancy[color ^ 1] &= ~bit;
+            hash ^= Zobrist.token(color ^ 1, index);
+        }
+        if ((occupancy[color] & bit) == 0) {
+            occupancy[color] |= bit;
+            hash ^= Zobrist.token(color, index);
+            addFeatures(index, color);
+        }
+    }
+
+    /**
+     * Remove whatever token lies on a node
+     * @param index index of the node
+     */
+    public void clearToken(int index) {
+        int bit = 1 << index;
+        if ((occupancy[WHITE] & bit) != 0) {
+            removeFeatures(index, WHITE);
+            occupancy[WHITE] &= ~bit;
+            hash ^= Zobrist.token(WHITE, index);
+        }
+        if ((occupancy[BLACK] & bit) != 0) {
+            removeFeatures(index, BLACK);
+            occupancy[BLACK] &= ~bit;
+            hash ^= Zobrist.token(BLACK, index);
+        }
+    }
+
+    /**
+     * Update the features for a token just placed on an empty node
+     * @param index index of the node, already set in the occupancy of the player
+     * @param color WHITE or BLACK
+     */
+    private void addFeatures(int index, int color) {
+        int[] mills = BoardTopology.getMillsOfNode(index);
+        millCounts[color] += (1 << 2 * mills[0]) + (1 << 2 * mills[1]);
+
+        // the node is not empty anymore for the neighbors, and the token slides to the empty neighbors
+        int neighbors = BoardTopology.getNeighborMask(index);
+        mobility[WHITE] -= Integer.bitCount(neighbors & occupancy[WHITE]);
+        mobility[BLACK] -= Integer.bitCount(neighbors & occupancy[BLACK]);
+        mobility[color] += Integer.bitCount(neighbors & getEmpty());
+    }
+
+    /**
+     * Update the features for a token about to leave a node
+     * @param index index of the node, still set in the occupancy of the player
+     * @param color WHITE or BLACK
+     */
+    private void removeFeatures(int index, int color) {
+        int[] mills = BoardTopology.getMillsOfNode(index);
+        millCounts[color] -= (1 << 2 * mills[0]) + (1 << 2 * mills[1]);
+
+        // the token does not slide anymore, and the node becomes empty for the neighbors
+        int neighbors = BoardTopology.getNeighborMask(index);
+        mobility[color] -= Integer.bitCount(neighbors & getEmpty());
+        mobility[WHITE] += Integer.bitCount(neighbors & occupancy[WHITE]);
+        mobility[BLACK] += Integer.bitCount(neighbors & occupancy[BLACK]);
+    }
+
+    /**
+     * Compute the features of both players from scratch
+     */
+    private void computeFeatures() {
+        int empty = getEmpty();
+        for (int color = WHITE; color <= BLACK; color++) {
+            millCounts[color] = 0;
+            mobility[color] = 0;
+            for (int tokens = occupancy[color]; tokens != 0; tokens &= tokens - 1) {
+                int index = Integer.numberOfTrailingZeros(tokens);
+                int[] mills = BoardTopology.getMillsOfNode(index);
+                millCounts[color] += (1 << 2 * mills[0]) + (1 << 2 * mills[1]);
+                mobility[color] += Integer.bitCount(BoardTopology.getNeighborMask(index) & empty);
+            }
+        }
+    }
+
+    /**
+     * Retrieve the number of tokens of a player in every mill
+     * @param color WHITE or BLACK
+     * @return the counts packed 2 bits per mill, the count of mill m at bits 2m and 2m + 1
+     */
+    public int getMillCounts(int color) {
+        return millCounts[color];
+    }
+
+    /**
+     * Retrieve the number of slides of a player to an empty neighbor, whatever the phase of the player
+     * @param color WHITE or BLACK
+     * @return the number of (token, empty neighbor) pairs
+     */
+    public int getMobility(int color) {
+        return mobility[color];
+    }
+
+    /**
+     * Replace the occupancy masks of both players
+     * @param white the occupancy mask of the white player
+     * @param black the occupancy mask of the black player
+     */
+    public void setOccupancy(int white, int black) {
+        hash ^= Zobrist.tokens(WHITE, occupancy[WHITE]) ^ Zobrist.tokens(BLACK, occupancy[BLACK]);
+        occupancy[WHITE] = white & FULL_MASK;
+        occupancy[BLACK] = black & FULL_MASK & ~white;
+        hash ^= Zobrist.tokens(WHITE, occupancy[WHITE]) ^ Zobrist.tokens(BLACK, occupancy[BLACK]);
+        computeFeatures();
+    }
+
+    /**
+     * Retrieve the number of tokens on board of a player
+     * @param color WHITE or BLACK
+     * @return the number of tokens on board
+     */
+    public int getTokensOnBoard(int color) {
+        return Integer.bitCount(occupancy[color]);
+    }
+
+    /**
+     * Retrieve the number of tokens left to set of a player
+     * @param color WHITE or BLACK
+     * @return the number of tokens left to set
+     */
+    public int getTokensToSet(int color) {
+        return tokensToSet[color];
+    }
+
+    /**
+     * Setter of the tokens left to set of a player
+     * @param color WHITE or BLACK
+     * @param count the number of tokens left to set
+     */
+    public void setTokensToSet(int color, int count) {
+        hash ^= Zobrist.tokensToSet(color, tokensToSet[color]) ^ Zobrist.tokensToSet(color, count);
+        tokensToSet[color] = count;
+    }
+
+    /**
+     * Retrieve the color index of the player to perform the next command
+     * @return WHITE or BLACK
+     */
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Setter of the side to move
+     * @param color WHITE or BLACK
+     */
+    public void setSideToMove(int color) {
+        hash ^= Zobrist.sideToMove(sideToMove) ^ Zobrist.sideToMove(color);
+        this.sideToMove = color;
+    }
+
+    /**
+     * Retrieve the current game state
+     * @return a GameState instance
+     */
+    public GameState getState() {
+        return GAME_STATES[state];
+    }
+
+    /**
+     * Setter of the current game state
+     * @param gameState a GameState instance
+     */
+    public void setState(GameState gameState) {
+        hash ^= Zobrist.state(state) ^ Zobrist.state(gameState.ordinal());
+        this.state = gameState.ordinal();
+    }
+
+    /**
+     * Retrieve the mask of every node that belongs to a complete mill of a player
+     * @param color WHITE or BLACK
+     * @return the mask of the nodes in a mill
+     */
+    public int getMillMask(int color) {
+        int own = occupancy[color];
+        int mask = 0;
+        for (int millIndex = 0; millIndex < BoardTopology.NUM_OF_MILLS; millIndex++) {
+            int mill = BoardTopology.getMillMask(millIndex);
+            if ((own & mill) == mill) {
+                mask |= mill;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Verify if the token of a player at a node is part of a mill
+     * @param index index of the node
+     * @param color WHITE or BLACK
+     * @return true if mill exists, else false
+     */
+    public boolean isMillAt(int index, int color) {
+        return BoardTopology.isMillAt(occupancy[color], index);
+    }
+
+    /**
+     * Retrieve the mask of the opponent tokens that a player is allowed to remove. Tokens which are part of a
+     * mill cannot be removed.
+     * @param color the color index of the player performing the remove
+     * @return the mask of removable opponent tokens
+     */
+    public int getRemovableMask(int color) {
+        int opponent = color ^ 1;
+        return occupancy[opponent] & ~getMillMask(opponent);
+    }
+
+    /**
+     * Retrieve the state a player would be in on their own turn, ignoring any pending remove
+     * @param color WHITE or BLACK
+     * @return SET, MOVE or JUMP
+     */
+    public GameState getPhase(int color) {
+        if (tokensToSet[color] > 0) {
+            return GameState.SET;
+        }
+        if (getTokensOnBoard(color) == NUM_OF_TOKENS_TO_JUMP) {
+            return GameState.JUMP;
+        }
+        return GameState.MOVE;
+    }
+
+    /**
+     * Retrieve the mask of every node that can be reached by sliding one of the tokens in a mask
+     * @param mask the mask of the tokens
+     * @return the mask of the adjacent nodes
+     */
+    public static int adjacentTo(int mask) {
+        int adjacent = 0;
+        while (mask != 0) {
+            adjacent |= BoardTopology.getNeighborMask(Integer.numberOfTrailingZeros(mask));
+            mask &= mask - 1;
+        }
+        return adjacent;
+    }
+
+    /**
+     * Verify if a player has at least one legal set, move or jump
+     * @param color WHITE or BLACK
+     * @return true if there is at least one legal move, else false
+     */
+    public boolean hasLegalMove(int color) {
+        int empty = getEmpty();
+        if (getPhase(color) != GameState.MOVE) {
+            return empty != 0;
+        }
+        return (adjacentTo(occupancy[color]) & empty) != 0;
+    }
+
+    /**
+     * Verify if a player has lost: all tokens have been set and the player either has less than three tokens
+     * on board or cannot perform any legal move
+     * @param color WHITE or BLACK
+     * @return true if the player has lost, else false
+     */
+    public boolean isLost(int color) {
+        return tokensToSet[color] == 0 &&
+               (getTokensOnBoard(color) < NUM_OF_TOKENS_TO_JUMP || !hasLegalMove(color));
+    }
+
+    /**
+     * Verify if the game is over, i.e. the side to move has lost
+     * @return true if the game is over, else false
+     */
+    public boolean isGameOver() {
+        return state != GameState.REMOVE.ordinal() && isLost(sideToMove);
+    }
+
+    /**
+     * Apply a complete move generated by the MoveGenerator for the side to move: the set, move or jump, the
+     * remove if the move closes a mill, then pass the turn to the opponent
+     * @param move the encoded move
+     */
+    public void makeMove(int move) {
+        int color = sideToMove;
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        int remove = Move.getRemove(move);
+
+        if (to != Move.NONE) {
+            if (from == Move.NONE) {
+                setTokensToSet(color, tokensToSet[color] - 1);
+            } else {
+                clearToken(from);
+            }
+            putToken(to, color);
+        }
+        if (remove != Move.NONE) {
+            clearToken(remove);
+        }
+
+        // pass the turn, the state follows from the tokens of the next player
+        setSideToMove(color ^ 1);
+        setState(getPhase(color ^ 1));
+    }
+
+    /**
+     * Parse a position in the format produced by toString(), e.g. "W.......B............... b SET 8/8"
+     * @param text the text to parse
+     * @return the Position instance
+     * @throws IllegalArgumentException if the text is not a valid position
+     */
+    public static Position parse(String text) {
+        String[] parts = text.trim().split("\\s+");
+        if (parts.length != 4 || parts[0].length() != NUM_OF_NODES) {
+            throw new IllegalArgumentException("Invalid position: " + text);
+        }
+
+        Position position = new Position();
+        for (int index = 0; index < NUM_OF_NODES; index++) {
+            switch (parts[0].charAt(index)) {
+                case 'W' -> position.putToken(index, WHITE);
+                case 'B' -> position.putToken(index, BLACK);
+                case '.' -> { }
+                default -> throw new IllegalArgumentException("Invalid node in position: " + text);
+            }
+        }
+        position.setSideToMove(parts[1].equals("b") ? BLACK : WHITE);
+        position.setState(GameState.valueOf(parts[2]));
+
+        String[] counts = parts[3].split("/");
+        if (counts.length != 2) {
+            throw new IllegalArgumentException("Invalid tokens to set in position: " + text);
+        }
+        position.setTokensToSet(WHITE, Integer.parseInt(counts[0]));
+        position.setTokensToSet(BLACK, Integer.parseInt(counts[1]));
+        return position;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Position)) {
+            return false;
+        }
+        Position other = (Position) obj;
+        return occupancy[WHITE] == other.occupancy[WHITE] && occupancy[BLACK] == other.occupancy[BLACK] &&
+               tokensToSet[WHITE] == other.tokensToSet[WHITE] && tokensToSet[BLACK] == other.tokensToSet[BLACK] &&
+               sideToMove == other.sideToMove && state == other.state;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int index = 0; index < NUM_OF_NODES; index++) {
+            int color = getColorAt(index);
+            builder.append(color == WHITE ? 'W' : color == BLACK ? 'B' : '.');
+        }
+        builder.append(sideToMove == WHITE ? " w " : " b ");
+        builder.append(getState()).append(' ');
+        builder.append(tokensToSet[WHITE]).append('/').append(tokensToSet[BLACK]);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,218 @@
+package model;
+
+/**
+ * The Symmetry class maps positions and moves through the 16 symmetries of the board: the 4 rotations, each with
+ * or without a reflection, each with or without swapping the outer and the inner ring. A symmetry keeps every
+ * mill a mill and every neighbor a neighbor, so symmetric positions have the same value and caches can store one
+ * canonical form for all of them: the image with the smallest white then black occupancy mask.
+ * A transform is numbered by its bits: bits 0-1 rotate by a quarter turn each, bit 2 reflects the board along the
+ * diagonal through node 0 and bit 3 swaps the outer and the inner ring. Nodes are mapped through permutation
+ * tables, and masks through one lookup table per byte of the mask.
+ */
+public final class Symmetry {
+    /**
+     * an integer represents the number of symmetries of the board
+     */
+    public static final int NUM_OF_TRANSFORMS = 16;
+
+    /**
+     * an integer represents the transform that leaves the board unchanged
+     */
+    public static final int IDENTITY = 0;
+
+    /**
+     * an integer represents the number of nodes in a ring on the board
+     */
+    private static final int NUM_OF_NODES_IN_A_RING = 8;
+
+    /**
+     * an integer represents the number of bytes of an occupancy mask
+     */
+    private static final int NUM_OF_MASK_BYTES = 3;
+
+    /**
+     * the image of each node under each transform
+     */
+    private static final int[][] NODES = new int[NUM_OF_TRANSFORMS][BoardTopology.NUM_OF_NODES];
+
+    /**
+     * the image of each value of each byte of a mask under each transform
+     */
+    private static final int[][][] MASKS = new int[NUM_OF_TRANSFORMS][NUM_OF_MASK_BYTES][256];
+
+    /**
+     * the transform that undoes each transform
+     */
+    private static final int[] INVERSES = new int[NUM_OF_TRANSFORMS];
+
+    static {
+        for (int transform = 0; transform < NUM_OF_TRANSFORMS; transform++) {
+            int rotation = transform & 3;
+            boolean reflect = (transform & 4) != 0;
+            boolean swapRings = (transform & 8) != 0;
+            for (int index = 0; index < BoardTopology.NUM_OF_NODES; index++) {
+                int ring = index / NUM_OF_NODES_IN_A_RING;
+                int step = index % NUM_OF_NODES_IN_A_RING;
+                if (reflect) {
+                    step = (NUM_OF_NODES_IN_A_RING - step) % NUM_OF_NODES_IN_A_RING;
+                }
+                step = (step + 2 * rotation) % NUM_OF_NODES_IN_A_RING;
+                if (swapRings) {
+                    ring = 2 - ring;
+                }
+                NODES[transform][index] = ring * NUM_OF_NODES_IN_A_RING + step;
+            }
+
+            for (int part = 0; part < NUM_OF_MASK_BYTES; part++) {
+                for (int value = 0; value < 256; value++) {
+                    int image = 0;
+                    for (int bit = 0; bit < 8; bit++) {
+                        if ((value & 1 << bit) != 0) {
+                            image |= 1 << NODES[transform][part * 8 + bit];
+                        }
+                    }
+                    MASKS[transform][part][value] = image;
+                }
+            }
+        }
+
+        for (int transform = 0; transform < NUM_OF_TRANSFORMS; transform++) {
+            for (int other = 0; other < NUM_OF_TRANSFORMS; other++) {
+                if (NODES[other][NODES[transform][0]] == 0 && NODES[other][NODES[transform][1]] == 1 &&
+                    NODES[other][NODES[transform][8]] == 8) {
+                    INVERSES[transform] = other;
+                }
+            }
+        }
+    }
+
+    /**
+     * Constructor. Not meant to be instantiated.
+     */
+    private Symmetry() {
+    }
+
+    /**
+     * Retrieve the image of a node
+     * @param transform the transform
+     * @param index index of the node
+     * @return index of the image
+     */
+    public static int transformNode(int transform, int index) {
+        return NODES[transform][index];
+    }
+
+    /**
+     * Retrieve the image of an occupancy mask
+     * @param transform the transform
+     * @param mask the occupancy mask
+     * @return the occupancy mask of the image
+     */
+    public static int transformMask(int transform, int mask) {
+        int[][] masks = MASKS[transform];
+        return masks[0][mask & 0xFF] | masks[1][(mask >>> 8) & 0xFF] | masks[2][mask >>> 16];
+    }
+
+    /**
+     * Retrieve the transform that undoes a transform
+     * @param transform the transform
+     * @return the inverse transform
+     */
+    public static int inverse(int transform) {
+        return INVERSES[transform];
+    }
+
+    /**
+     * Retrieve the image of an encoded move
+     * @param transform the transform
+     * @param move the encoded move
+     * @return the encoded image, Move.NULL_MOVE for Move.NULL_MOVE
+     */
+    public static int transformMove(int transform, int move) {
+        if (move == Move.NULL_MOVE || transform == IDENTITY) {
+            return move;
+        }
+        return Move.of(transformNodeOrNone(transform, Move.getFrom(move)),
+                       transformNodeOrNone(transform, Move.getTo(move)),
+                       transformNodeOrNone(transform, Move.getRemove(move)));
+    }
+
+    /**
+     * Retrieve the image of a node of a move, which may be absent
+     * @param transform the transform
+     * @param index index of the node or Move.NONE
+     * @return index of the image or Move.NONE
+     */
+    private static int transformNodeOrNone(int transform, int index) {
+        return index == Move.NONE ? Move.NONE : NODES[transform][index];
+    }
+
+    /**
+     * Find the transform that maps a pair of occupancy masks to its canonical form, the image with the smallest
+     * first mask and then the smallest second mask
+     * @param first the first occupancy mask, e.g. the white or the own tokens
+     * @param second the second occupancy mask
+     * @return the transform, the smallest one if several give the canonical form
+     */
+    public static int getCanonicalTransform(int first, int second) {
+        int best = IDENTITY;
+        long bestKey = (long) first << BoardTopology.NUM_OF_NODES | second;
+        for (int transform = 1; transform < NUM_OF_TRANSFORMS; transform++) {
+            long key = (long) transformMask(transform, first) << BoardTopology.NUM_OF_NODES |
+                       transformMask(transform, second);
+            if (key < bestKey) {
+                bestKey = key;
+                best = transform;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Find the transform that maps a position to its canonical form
+     * @param position the Position instance
+     * @return the transform
+     */
+    public static int getCanonicalTransform(Position position) {
+        return getCanonicalTransform(position.getOccupancy(Position.WHITE), position.getOccupancy(Position.BLACK));
+    }
+
+    /**
+     * Compute the Zobrist hash of the image of a position, without changing the position
+     * @param position the Position instance
+     * @param transform the transform
+     * @return the Zobrist hash of the image
+     */
+    public static long getHash(Position position, int transform) {
+        if (transform == IDENTITY) {
+            return position.getHash();
+        }
+        int white = position.getOccupancy(Position.WHITE);
+        int black = position.getOccupancy(Position.BLACK);
+        return position.getHash() ^ Zobrist.tokens(Position.WHITE, white) ^ Zobrist.tokens(Position.BLACK, black) ^
+               Zobrist.tokens(Position.WHITE, transformMask(transform, white)) ^
+               Zobrist.tokens(Position.BLACK, transformMask(transform, black));
+    }
+
+    /**
+     * Compute the Zobrist hash of the canonical form of a position, which is the same for every symmetric position
+     * @param position the Position instance
+     * @return the canonical Zobrist hash
+     */
+    public static long getCanonicalHash(Position position) {
+        return getHash(position, getCanonicalTransform(position));
+    }
+
+    /**
+     * Overwrite a position with the image of another position
+     * @param source the Position instance to map, left unchanged unless it is the target
+     * @param transform the transform
+     * @param target the Position instance to overwrite
+     */
+    public static void transform(Position source, int transform, Position target) {
+        int white = transformMask(transform, source.getOccupancy(Position.WHITE));
+        int black = transformMask(transform, source.getOccupancy(Position.BLACK));
+        target.copyFrom(source);
+        target.setOccupancy(white, black);
+    }
+}
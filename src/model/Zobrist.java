@@ -0,0 +1,112 @@
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * The Zobrist class holds the random keys used to hash a game position. The hash of a position is the XOR of
+ * the key of every token on board, the key of the side to move, the key of the current GameState and the keys
+ * of the number of tokens each player still has to set. Since XOR is its own inverse, every set, move, jump and
+ * remove updates the hash with a couple of XORs instead of recomputing it. The keys are generated from a fixed
+ * seed so that hashes stay stable across runs and can be stored in books and databases.
+ */
+public final class Zobrist {
+    /**
+     * a long represents the seed used to generate the keys
+     */
+    private static final long SEED = 0x4E494E454D454EL;
+
+    /**
+     * the key of a token of each player on each node
+     */
+    private static final long[][] TOKENS = new long[2][BoardTopology.NUM_OF_NODES];
+
+    /**
+     * the key of each number of tokens left to set of each player
+     */
+    private static final long[][] TOKENS_TO_SET = new long[2][Position.INIT_NUM_OF_TOKENS_TO_SET + 1];
+
+    /**
+     * the key of each GameState
+     */
+    private static final long[] STATES = new long[GameState.values().length];
+
+    /**
+     * the key XORed in when black is the side to move
+     */
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int color = 0; color < 2; color++) {
+            for (int index = 0; index < BoardTopology.NUM_OF_NODES; index++) {
+                TOKENS[color][index] = random.nextLong();
+            }
+            for (int count = 0; count <= Position.INIT_NUM_OF_TOKENS_TO_SET; count++) {
+                TOKENS_TO_SET[color][count] = random.nextLong();
+            }
+        }
+        for (int state = 0; state < STATES.length; state++) {
+            STATES[state] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    /**
+     * Constructor. Not meant to be instantiated.
+     */
+    private Zobrist() {
+    }
+
+    /**
+     * Retrieve the key of a token on a node
+     * @param color WHITE or BLACK
+     * @param index index of the node
+     * @return the key of the token
+     */
+    public static long token(int color, int index) {
+        return TOKENS[color][index];
+    }
+
+    /**
+     * Retrieve the key of every token in an occupancy mask
+     * @param color WHITE or BLACK
+     * @param mask the occupancy mask of the player
+     * @return the XOR of the keys of the tokens
+     */
+    public static long tokens(int color, int mask) {
+        long key = 0;
+        while (mask != 0) {
+            key ^= TOKENS[color][Integer.numberOfTrailingZeros(mask)];
+            mask &= mask - 1;
+        }
+        return key;
+    }
+
+    /**
+     * Retrieve the key of the number of tokens left to set of a player
+     * @param color WHITE or BLACK
+     * @param count the number of tokens left to set
+     * @return the key of the count
+     */
+    public static long tokensToSet(int color, int count) {
+        return TOKENS_TO_SET[color][count];
+    }
+
+    /**
+     * Retrieve the key of a game state
+     * @param stateOrdinal ordinal of the GameState
+     * @return the key of the game state
+     */
+    public static long state(int stateOrdinal) {
+        return STATES[stateOrdinal];
+    }
+
+    /**
+     * Retrieve the key of the side to move
+     * @param color WHITE or BLACK
+     * @return the key of the side to move
+     */
+    public static long sideToMove(int color) {
+        return color == Position.BLACK ? BLACK_TO_MOVE : 0L;
+    }
+}
@@ -0,0 +1,217 @@
+package tournament;
+
+import engine.Difficulty;
+import engine.Engine;
+import engine.EvaluationWeights;
+import engine.Evaluator;
+import engine.MctsSearch;
+import engine.SearchEngine;
+import engine.SearchLimits;
+import engine.TranspositionTable;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * The EngineSettings class describes one side of a Tournament: the type of engine, its budget per move and its
+ * evaluation. Settings are parsed from a comma separated list of key=value pairs, e.g.
+ * "engine=alphabeta,depth=8,nodes=200000,weights=tuned.properties" or "engine=mcts,nodes=20000,heavy=true".
+ * The keys are engine (alphabeta or mcts), difficulty (a Difficulty level that sets depth, nodes and noise),
+ * depth, nodes, millis (the hard time per move, the soft time being half of it), qnodes (the quiescence budget
+ * per leaf), noise (the evaluation noise), hash (the transposition table size in MB), symmetric (a symmetric
+ * transposition table), weights (a properties file of EvaluationWeights), heavy and treeNodes (for mcts) and
+ * name. mcts ignores depth, so it needs nodes or millis. Every engine searches on a single thread, so the games
+ * of a tournament can run in parallel.
+ */
+public class EngineSettings {
+    /**
+     * a long represents the default maximum number of nodes per move
+     */
+    public static final long DEFAULT_MAX_NODES = 100_000;
+
+    /**
+     * a String represents the name of the side in the report
+     */
+    private String name;
+
+    /**
+     * a String represents the type of engine, Engine.ALPHA_BETA or Engine.MCTS
+     */
+    private String type = Engine.ALPHA_BETA;
+
+    /**
+     * an integer represents the deepest iteration per move
+     */
+    private int maxDepth = SearchLimits.DEFAULT_MAX_DEPTH;
+
+    /**
+     * a long represents the maximum number of nodes per move, the playouts for mcts, zero for no limit
+     */
+    private long maxNodes = DEFAULT_MAX_NODES;
+
+    /**
+     * a long represents the time per move in milliseconds, zero for no limit
+     */
+    private long millis;
+
+    /**
+     * an integer represents the maximum number of nodes of the quiescence search below a leaf
+     */
+    private int maxQuiescenceNodes = SearchLimits.DEFAULT_MAX_QUIESCENCE_NODES;
+
+    /**
+     * an integer represents the largest noise added to or subtracted from the evaluation
+     */
+    private int evaluationNoise;
+
+    /**
+     * an integer represents the size of the transposition table in MB
+     */
+    private int hashSizeInMb = TranspositionTable.DEFAULT_SIZE_IN_MB;
+
+    /**
+     * a boolean to indicate if the transposition table stores the canonical form of the positions
+     */
+    private boolean symmetricHash;
+
+    /**
+     * instance of the EvaluationWeights class that weights the evaluation of the alpha-beta engine
+     */
+    private EvaluationWeights weights = new EvaluationWeights();
+
+    /**
+     * a boolean to indicate if the mcts playouts prefer mills
+     */
+    private boolean heavyPlayouts;
+
+    /**
+     * an integer represents the maximum number of mcts tree nodes
+     */
+    private int maxTreeNodes = MctsSearch.DEFAULT_MAX_TREE_NODES;
+
+    /**
+     * Constructor. Creates the default settings: an alpha-beta engine with the default budget of nodes.
+     * @param name the name of the side in the report
+     */
+    public EngineSettings(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Parse settings from a comma separated list of key=value pairs
+     * @param name the name of the side in the report, unless the settings name it
+     * @param text the settings, empty for the default settings
+     * @return the EngineSettings instance
+     * @throws IllegalArgumentException if a key is unknown, a value is invalid or the settings have no limit
+     */
+    public static EngineSettings parse(String name, String text) {
+        EngineSettings settings = new EngineSettings(name);
+        for (String pair : text.split(",")) {
+            if (pair.isBlank()) {
+                continue;
+            }
+            int equals = pair.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Invalid engine setting: " + pair);
+            }
+            String key = pair.substring(0, equals).trim();
+            String value = pair.substring(equals + 1).trim();
+            switch (key) {
+                case "name" -> settings.name = value;
+                case "engine" -> {
+                    if (!value.equals(Engine.ALPHA_BETA) && !value.equals(Engine.MCTS)) {
+                        throw new IllegalArgumentException("Unknown engine type: " + value);
+                    }
+                    settings.type = value;
+                }
+                case "difficulty" -> {
+                    Difficulty difficulty = Difficulty.valueOf(value.toUpperCase(Locale.ROOT));
+                    settings.maxDepth = difficulty.getMaxDepth();
+                    settings.maxNodes = difficulty.getMaxNodes();
+                    settings.evaluationNoise = difficulty.getEvaluationNoise();
+                }
+                case "depth" -> settings.maxDepth = Integer.parseInt(value);
+                case "nodes" -> settings.maxNodes = Long.parseLong(value);
+                case "millis" -> settings.millis = Long.parseLong(value);
+                case "qnodes" -> settings.maxQuiescenceNodes = Integer.parseInt(value);
+                case "noise" -> settings.evaluationNoise = Integer.parseInt(value);
+                case "hash" -> settings.hashSizeInMb = Integer.parseInt(value);
+                case "symmetric" -> settings.symmetricHash = Boolean.parseBoolean(value);
+                case "weights" -> {
+                    try {
+                        settings.weights = EvaluationWeights.load(Paths.get(value));
+                    } catch (IOException e) {
+                        throw new IllegalArgumentException("Cannot read evaluation weights: " + value, e);
+                    }
+                }
+                case "heavy" -> settings.heavyPlayouts = Boolean.parseBoolean(value);
+                case "treeNodes" -> settings.maxTreeNodes = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown engine setting: " + key);
+            }
+        }
+        if (settings.maxNodes == 0 && settings.millis == 0 && settings.maxDepth >= SearchLimits.DEFAULT_MAX_DEPTH) {
+            throw new IllegalArgumentException("The settings of " + settings.name + " have no depth, node or " +
+                                               "time limit");
+        }
+        // MctsSearch grows its tree until a node or time limit, whatever the depth
+        if (settings.type.equals(Engine.MCTS) && settings.maxNodes == 0 && settings.millis == 0) {
+            throw new IllegalArgumentException("The settings of " + settings.name + " have no node or time " +
+                                               "limit, which " + Engine.MCTS + " needs");
+        }
+        return settings;
+    }
+
+    /**
+     * Create a single thread engine of these settings, used by one game at a time
+     * @return a new Engine instance
+     */
+    public Engine createEngine() {
+        if (type.equals(Engine.MCTS)) {
+            return new MctsSearch(1, heavyPlayouts, maxTreeNodes);
+        }
+        return new SearchEngine(new TranspositionTable(hashSizeInMb, symmetricHash), new Evaluator(weights));
+    }
+
+    /**
+     * Create the limits of one move
+     * @param noiseSeed the seed that decides the evaluation noise of each position, e.g. one per game
+     * @return a new SearchLimits instance
+     */
+    public SearchLimits newSearchLimits(long noiseSeed) {
+        SearchLimits limits = new SearchLimits(maxDepth, maxNodes, millis / 2, millis);
+        limits.setMaxQuiescenceNodes(maxQuiescenceNodes);
+        limits.setEvaluationNoise(evaluationNoise, noiseSeed);
+        return limits;
+    }
+
+    /**
+     * Retrieve the name of the side in the report
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Describe the settings
+     * @return the type and the budget per move
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(name).append(": ").append(type);
+        if (maxDepth < SearchLimits.DEFAULT_MAX_DEPTH) {
+            builder.append(" depth ").append(maxDepth);
+        }
+        if (maxNodes > 0) {
+            builder.append(type.equals(Engine.MCTS) ? " playouts " : " nodes ").append(maxNodes);
+        }
+        if (millis > 0) {
+            builder.append(" millis ").append(millis);
+        }
+        if (evaluationNoise > 0) {
+            builder.append(" noise ").append(evaluationNoise);
+        }
+        return builder.toString();
+    }
+}
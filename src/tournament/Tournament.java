@@ -0,0 +1,402 @@
+package tournament;
+
+import engine.Engine;
+import engine.SearchEngine;
+import engine.SearchResult;
+import model.Move;
+import model.MoveGenerator;
+import model.Position;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The Tournament class plays engine against engine games without any user interface and reports the result of
+ * the first engine with its Elo difference and error bars. Games run in parallel, one game per worker thread
+ * at a time, each worker with its own pair of single thread engines. Every opening is a few random plies from
+ * the empty board and is played twice with swapped colors, so the luck of the openings cancels out. A game is
+ * a draw on the third repetition of a position or after the maximum number of plies. Budgets in nodes or
+ * depth give the same results on every machine, while time budgets depend on how busy the processor is.
+ */
+public class Tournament {
+    /**
+     * an integer represents the default number of games
+     */
+    public static final int DEFAULT_GAMES = 100;
+
+    /**
+     * an integer represents the default number of random plies of an opening
+     */
+    public static final int DEFAULT_RANDOM_PLIES = 4;
+
+    /**
+     * an integer represents the default number of plies after which a game is a draw
+     */
+    public static final int DEFAULT_MAX_PLIES = 300;
+
+    /**
+     * a double represents the quantile of the normal distribution of a 95% confidence interval
+     */
+    private static final double CONFIDENCE_QUANTILE = 1.959964;
+
+    /**
+     * an integer represents the number of times a position occurs before the game is a draw
+     */
+    private static final int REPETITIONS_TO_DRAW = 3;
+
+    /**
+     * an integer represents the number of progress reports during a tournament
+     */
+    private static final int NUM_OF_REPORTS = 10;
+
+    /**
+     * instance of the EngineSettings class of the first engine, whose results are reported
+     */
+    private final EngineSettings first;
+
+    /**
+     * instance of the EngineSettings class of the second engine
+     */
+    private final EngineSettings second;
+
+    /**
+     * an integer represents the number of random plies of an opening
+     */
+    private final int randomPlies;
+
+    /**
+     * an integer represents the number of plies after which a game is a draw
+     */
+    private final int maxPlies;
+
+    /**
+     * a long represents the seed of the openings and the evaluation noise
+     */
+    private final long seed;
+
+    /**
+     * an AtomicInteger instance that counts the wins of the first engine
+     */
+    private final AtomicInteger wins = new AtomicInteger();
+
+    /**
+     * an AtomicInteger instance that counts the draws
+     */
+    private final AtomicInteger draws = new AtomicInteger();
+
+    /**
+     * an AtomicInteger instance that counts the losses of the first engine
+     */
+    private final AtomicInteger losses = new AtomicInteger();
+
+    /**
+     * an AtomicInteger instance that counts the plies of every game played
+     */
+    private final AtomicInteger plies = new AtomicInteger();
+
+    /**
+     * a ThreadLocal that holds the engines of each worker thread, the first engine then the second engine
+     */
+    private final ThreadLocal<Engine[]> engines;
+
+    /**
+     * a List to stores the engines of every worker thread, so they can be shut down
+     */
+    private final List<Engine> createdEngines = new ArrayList<>();
+
+    /**
+     * Constructor
+     * @param first the EngineSettings instance of the first engine, whose results are reported
+     * @param second the EngineSettings instance of the second engine
+     * @param randomPlies the number of random plies of an opening
+     * @param maxPlies the number of plies after which a game is a draw
+     * @param seed the seed of the openings and the evaluation noise
+     */
+    public Tournament(EngineSettings first, EngineSettings second, int randomPlies, int maxPlies, long seed) {
+        this.first = first;
+        this.second = second;
+        this.randomPlies = randomPlies;
+        this.maxPlies = maxPlies;
+        this.seed = seed;
+        this.engines = ThreadLocal.withInitial(() -> {
+            Engine[] pair = {first.createEngine(), second.createEngine()};
+            synchronized (createdEngines) {
+                createdEngines.add(pair[0]);
+                createdEngines.add(pair[1]);
+            }
+            return pair;
+        });
+    }
+
+    /**
+     * Play the games of the tournament and print the progress and the final report
+     * @param games the number of games, rounded up to an even number so every opening is played with both colors
+     * @param threads the number of games played in parallel
+     */
+    public void run(int games, int threads) {
+        int numOfGames = games + (games & 1);
+        AtomicInteger workerCounter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "tournament-" + workerCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(threads, threadFactory);
+        long start = System.nanoTime();
+        AtomicInteger finished = new AtomicInteger();
+        int reportInterval = Math.max(1, numOfGames / NUM_OF_REPORTS);
+
+        System.out.println(first);
+        System.out.println(second);
+        System.out.println(numOfGames + " games on " + threads + " threads, " + randomPlies + " random plies, " +
+                           "seed " + seed);
+
+        List<Future<?>> results = new ArrayList<>();
+        for (int game = 0; game < numOfGames; game++) {
+            int index = game;
+            results.add(executor.submit(() -> {
+                playGame(index);
+                int count = finished.incrementAndGet();
+                if (count % reportInterval == 0 && count < numOfGames) {
+                    System.out.println(formatLine(count, start));
+                }
+            }));
+        }
+        try {
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("A game failed", e);
+        } finally {
+            executor.shutdownNow();
+            synchronized (createdEngines) {
+                for (Engine engine : createdEngines) {
+                    engine.shutdown();
+                }
+            }
+        }
+
+        System.out.println(formatLine(numOfGames, start));
+        System.out.println(formatReport(numOfGames, start));
+    }
+
+    /**
+     * Play one game. Games 2k and 2k + 1 share their opening, the first engine playing white in the first one
+     * and black in the second one.
+     * @param index the number of the game
+     */
+    private void playGame(int index) {
+        Engine[] pair = engines.get();
+        for (Engine engine : pair) {
+            if (engine instanceof SearchEngine searchEngine) {
+                searchEngine.getTranspositionTable().clear();
+            }
+        }
+
+        // both games of an opening start from the same random plies
+        Random random = new Random(seed ^ (index / 2) * 0x9E3779B97F4A7C15L);
+        Position position = new Position();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int ply = 0; ply < randomPlies && !position.isGameOver(); ply++) {
+            int count = MoveGenerator.generate(position, moves);
+            position.makeMove(moves[random.nextInt(count)]);
+        }
+
+        // the first engine plays the side to move after the opening in even games
+        int firstColor = (index & 1) == 0 ? position.getSideToMove() : position.getSideToMove() ^ 1;
+        long noiseSeed = random.nextLong();
+        Map<Long, Integer> occurrences = new HashMap<>();
+        int ply = 0;
+        int result = 0;
+        while (ply < maxPlies) {
+            if (position.isGameOver()) {
+                result = position.getSideToMove() == firstColor ? -1 : 1;
+                break;
+            }
+            if (occurrences.merge(position.getHash(), 1, Integer::sum) >= REPETITIONS_TO_DRAW) {
+                break;
+            }
+            boolean firstToMove = position.getSideToMove() == firstColor;
+            EngineSettings settings = firstToMove ? first : second;
+            SearchResult searchResult = pair[firstToMove ? 0 : 1].search(position,
+                    settings.newSearchLimits(noiseSeed ^ position.getSideToMove()));
+            if (searchResult.getBestMove() == Move.NULL_MOVE) {
+                throw new IllegalStateException("No move in " + position);
+            }
+            position.makeMove(searchResult.getBestMove());
+            ply++;
+        }
+
+        plies.addAndGet(ply);
+        (result > 0 ? wins : result < 0 ? losses : draws).incrementAndGet();
+    }
+
+    /**
+     * Format the progress of the tournament
+     * @param games the number of games finished
+     * @param start the System.nanoTime() at which the tournament started
+     * @return the results of the first engine so far
+     */
+    private String formatLine(int games, long start) {
+        int win = wins.get();
+        int draw = draws.get();
+        int loss = losses.get();
+        return String.format("%6d games  +%d =%d -%d  score %.1f%%  %.2f games/s", games, win, draw, loss,
+                             100 * getScore(win, draw, loss), games / getElapsedSeconds(start));
+    }
+
+    /**
+     * Format the final report of the tournament
+     * @param games the number of games played
+     * @param start the System.nanoTime() at which the tournament started
+     * @return the table of results, the Elo difference with its 95% error bars and the speed
+     */
+    private String formatReport(int games, long start) {
+        int win = wins.get();
+        int draw = draws.get();
+        int loss = losses.get();
+        int n = win + draw + loss;
+        double score = getScore(win, draw, loss);
+
+        // the standard error of the mean score of a game, from the spread of wins, draws and losses
+        double variance = (win * Math.pow(1 - score, 2) + draw * Math.pow(0.5 - score, 2) +
+                           loss * Math.pow(score, 2)) / n;
+        double margin = CONFIDENCE_QUANTILE * Math.sqrt(variance / n);
+        double elo = toElo(score);
+        double lower = toElo(Math.max(0, score - margin));
+        double upper = toElo(Math.min(1, score + margin));
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%n%-24s %6s %6s %6s %7s%n", "Engine", "Wins", "Draws", "Losses", "Score"));
+        report.append(String.format("%-24s %6d %6d %6d %6.1f%%%n", first.getName(), win, draw, loss, 100 * score));
+        report.append(String.format("%-24s %6d %6d %6d %6.1f%%%n", second.getName(), loss, draw, win,
+                                    100 * (1 - score)));
+        report.append(String.format("%nElo difference: %s (95%%: %s to %s)%n", formatElo(elo), formatElo(lower),
+                                    formatElo(upper)));
+        report.append(String.format("Likelihood of superiority: %.1f%%%n", 100 * getLikelihoodOfSuperiority(win,
+                                                                                                          loss)));
+        double seconds = getElapsedSeconds(start);
+        report.append(String.format("%d games in %.1f s: %.2f games/s, %.1f plies per game", games, seconds,
+                                    games / seconds, (double) plies.get() / Math.max(1, games)));
+        return report.toString();
+    }
+
+    /**
+     * Compute the mean score of a game, a win counting 1 and a draw one half
+     * @param win the number of wins
+     * @param draw the number of draws
+     * @param loss the number of losses
+     * @return the mean score, one half without games
+     */
+    static double getScore(int win, int draw, int loss) {
+        int n = win + draw + loss;
+        return n == 0 ? 0.5 : (win + 0.5 * draw) / n;
+    }
+
+    /**
+     * Convert a mean score into the Elo difference that predicts it
+     * @param score the mean score between 0 and 1
+     * @return the Elo difference, infinite for a score of 0 or 1
+     */
+    static double toElo(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    /**
+     * Compute the probability that the first engine is the stronger one, from its wins and losses
+     * @param win the number of wins
+     * @param loss the number of losses
+     * @return the probability between 0 and 1, one half without decisive games
+     */
+    static double getLikelihoodOfSuperiority(int win, int loss) {
+        if (win + loss == 0) {
+            return 0.5;
+        }
+        return 0.5 * (1 + erf((win - loss) / Math.sqrt(2.0 * (win + loss))));
+    }
+
+    /**
+     * Approximate the error function, with an error below 1.5e-7 (Abramowitz and Stegun 7.1.26)
+     * @param x the argument
+     * @return the error function of x
+     */
+    private static double erf(double x) {
+        double t = 1 / (1 + 0.3275911 * Math.abs(x));
+        double polynomial = t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 +
+                            t * 1.061405429))));
+        double value = 1 - polynomial * Math.exp(-x * x);
+        return x >= 0 ? value : -value;
+    }
+
+    /**
+     * Format an Elo difference with its sign
+     * @param elo the Elo difference
+     * @return the formatted difference, e.g. "+35.2" or "-inf"
+     */
+    private static String formatElo(double elo) {
+        if (Double.isInfinite(elo)) {
+            return elo > 0 ? "+inf" : "-inf";
+        }
+        return String.format("%+.1f", elo);
+    }
+
+    /**
+     * Compute the time elapsed since a start time
+     * @param start the start time in nanoseconds
+     * @return the time elapsed in seconds, never zero
+     */
+    private static double getElapsedSeconds(long start) {
+        return Math.max(1, System.nanoTime() - start) / 1e9;
+    }
+
+    /**
+     * The command line entry point
+     * @param args -first and -second for the EngineSettings of each engine, -games for the number of games,
+     *             -threads for the number of games played in parallel, -random for the number of random plies
+     *             of an opening, -maxPlies for the number of plies after which a game is a draw and -seed for
+     *             the seed of the openings
+     */
+    public static void main(String[] args) {
+        String firstSettings = "";
+        String secondSettings = "";
+        int games = DEFAULT_GAMES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int randomPlies = DEFAULT_RANDOM_PLIES;
+        int maxPlies = DEFAULT_MAX_PLIES;
+        long seed = System.nanoTime();
+
+        // parse arguments
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-first" -> firstSettings = args[++i];
+                case "-second" -> secondSettings = args[++i];
+                case "-games" -> games = Integer.parseInt(args[++i]);
+                case "-threads" -> threads = Integer.parseInt(args[++i]);
+                case "-random" -> randomPlies = Integer.parseInt(args[++i]);
+                case "-maxPlies" -> maxPlies = Integer.parseInt(args[++i]);
+                case "-seed" -> seed = Long.parseLong(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        Tournament tournament = new Tournament(EngineSettings.parse("first", firstSettings),
+                                               EngineSettings.parse("second", secondSettings), randomPlies,
+                                               maxPlies, seed);
+        tournament.run(games, threads);
+    }
+}
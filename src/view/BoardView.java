@@ -88,15 +88,23 @@ public abstract class BoardView extends JPanel implements Observer {
      */
     private boolean click;
 
+    /**
+     * instance of the GameController class of the game shown by this board view
+     */
+    private final GameController gameController;
+
     /**
      * Constructor
+     * @param gameController the GameController instance of the game to show
      */
-    public BoardView() {
+    public BoardView(GameController gameController) {
+        this.gameController = gameController;
+
         // handle size
         setPreferredSize(new Dimension(WIDTH, HEIGHT));
 
         // attach board view to board model
-        GameController.getInstance().getBoard().attach(this);
+        gameController.getBoard().attach(this);
     }
 
     /**
@@ -117,8 +125,8 @@ public abstract class BoardView extends JPanel implements Observer {
             }
 
             // change the opacity of the selected node
-            if (GameController.getInstance().getBoard().getSelectedNode() == node &&
-            GameController.getInstance().getCurrentPlayer().getTokenColor() == node.getTokenColor()){
+            if (gameController.getBoard().getSelectedNode() == node &&
+            gameController.getCurrentPlayer().getTokenColor() == node.getTokenColor()){
 
                 // Create a new AlphaComposite with the desired opacity value (0.0 - 1.0)
                 float opacity = 0.5f; // 50% opacity
@@ -144,10 +152,10 @@ public abstract class BoardView extends JPanel implements Observer {
 
         }
 
-        Player firstPlayer = GameController.getInstance().getFirstPlayer();
-        Player secondPlayer = GameController.getInstance().getSecondPlayer();
+        Player firstPlayer = gameController.getFirstPlayer();
+        Player secondPlayer = gameController.getSecondPlayer();
 
-        for (NodeTriplet nodeTriplet : GameController.getInstance().getBoard().getNodeTriplets()) {
+        for (NodeTriplet nodeTriplet : gameController.getBoard().getNodeTriplets()) {
             if (nodeTriplet.getPlayerColorIfMill() == firstPlayer.getTokenColor() && nodeTriplet.containsNode(node)) {
                 // Create a new AlphaComposite with the desired opacity value (0.0 - 1.0)
 
@@ -170,7 +178,7 @@ public abstract class BoardView extends JPanel implements Observer {
             }
         }
 
-        for (NodeTriplet nodeTriplet : GameController.getInstance().getBoard().getNodeTriplets()) {
+        for (NodeTriplet nodeTriplet : gameController.getBoard().getNodeTriplets()) {
             if (nodeTriplet.getPlayerColorIfMill() == secondPlayer.getTokenColor() && nodeTriplet.containsNode(node)) {
                 g.drawImage(currentImg, node.getX() * SCALE + OFFSET - 40 / 2,
                         node.getY() * SCALE + OFFSET - 35 / 2,
@@ -217,7 +225,7 @@ public abstract class BoardView extends JPanel implements Observer {
      */
     private void renderBoardWithTokens(Graphics2D g) {
         // retrieve node triplets from board
-        NodeTriplet[] nodeTriplets = GameController.getInstance().getBoard().getNodeTriplets();
+        NodeTriplet[] nodeTriplets = gameController.getBoard().getNodeTriplets();
 
         // draw board
         for (NodeTriplet nodeTriplet : nodeTriplets) {
@@ -246,9 +254,6 @@ public abstract class BoardView extends JPanel implements Observer {
      */
     private void renderTokensBelowGrid(Graphics2D g){
 
-        // retrieve game controller
-        GameController gameController = GameController.getInstance();
-
         // retrieve the image of star
         try {
             imgStar = ImageIO.read(getClass().getResource("/images/star.png"));
@@ -333,4 +338,12 @@ public abstract class BoardView extends JPanel implements Observer {
     public void setClick(boolean click) {
         this.click = click;
     }
+
+    /**
+     * Return the gameController of this BoardView instance
+     * @return a GameController instance
+     */
+    protected GameController getGameController() {
+        return gameController;
+    }
 }
@@ -1,7 +1,11 @@
 package view;
 
+import controller.GameController;
+
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 
 /**
  * The GameView class is responsible for creating the user interface using Java Swing. It combines the
@@ -33,16 +37,25 @@ public class GameView {
      */
     private MessageView messageView;
 
+    /**
+     * instance of the GameController class of the game shown by this view
+     */
+    private final GameController gameController;
+
     /**
      * Constructor
+     * @param gameController the GameController instance of the game to show
+     * @param isTutorial true to show a tutorial, else false
      */
-    public GameView(boolean isTutorial) {
+    public GameView(GameController gameController, boolean isTutorial) {
+        this.gameController = gameController;
+
         // create board and message view
         if (isTutorial) {
-            boardView = new TutorialBoardView();
+            boardView = new TutorialBoardView(gameController);
         }
         else {
-            boardView = new NormalBoardView();
+            boardView = new NormalBoardView(gameController);
         }
         messageView = new MessageView();
 
@@ -64,10 +77,18 @@ public class GameView {
 
         // other properties
         frame.pack();
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         frame.setLocationRelativeTo(null);
         frame.setTitle("Nine Men Morris");
 
+        // closing the window ends the game and releases its threads
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                gameController.dispose();
+            }
+        });
+
         // show frame
         frame.setVisible(true);
     }
@@ -80,7 +101,19 @@ public class GameView {
         messageView.setText(text);
     }
 
+    /**
+     * Show or hide the thinking indicator on the message panel
+     * @param thinking true if the computer is thinking, else false
+     */
+    public void setThinking(boolean thinking) {
+        messageView.setThinking(thinking);
+    }
+
+    /**
+     * Close the window and stop showing the board
+     */
     public void close() {
+        gameController.getBoard().detach(boardView);
         frame.dispose();
     }
 }
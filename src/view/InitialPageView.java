@@ -1,6 +1,7 @@
 package view;
 
 import controller.GameController;
+import engine.Difficulty;
 
 import javax.imageio.ImageIO;
 import javax.swing.*;
@@ -13,7 +14,7 @@ import java.io.IOException;
 /**
  * The initial page view of the Nine Man Morris game. This view displays the title label, buttons, and graphical user
  * interface for the initial page of the game. It allows the user to start a normal game, a game against the computer,
- * or access the tutorial mode.
+ * or access the tutorial mode. Before a game against the computer starts, the user picks its Difficulty level.
  */
 public class InitialPageView extends JFrame {
 
@@ -162,21 +163,27 @@ public class InitialPageView extends JFrame {
         normalGameStart.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                openGameView(false);
+                openGameView(false, null);
             }
         });
 
         tutorialMode.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                GameController.getInstance().startTutorial();
+                new GameController().startTutorial();
             }
         });
 
         vsComputerGameStart.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                openGameView(true);
+                // let the user pick the level of the computer, closing the dialog stays on this page
+                Difficulty difficulty = (Difficulty) JOptionPane.showInputDialog(InitialPageView.this,
+                        "Choose the level of the computer:", "Difficulty", JOptionPane.QUESTION_MESSAGE, null,
+                        Difficulty.values(), Difficulty.MEDIUM);
+                if (difficulty != null) {
+                    openGameView(true, difficulty);
+                }
             }
         });
 
@@ -200,10 +207,12 @@ public class InitialPageView extends JFrame {
     /**
      * Opens the game view and starts the game.
      * @param playWithComputer true if the game should be played against the computer, false otherwise
+     * @param difficulty the Difficulty level of the computer, null for the default time-managed play
      */
-    private void openGameView(boolean playWithComputer) {
-        // start game
-        GameController gameController = GameController.getInstance();
+    private void openGameView(boolean playWithComputer, Difficulty difficulty) {
+        // start game with a controller of its own
+        GameController gameController = new GameController();
+        gameController.setDifficulty(difficulty);
         gameController.startGame(playWithComputer);
 
         close();
@@ -25,6 +25,11 @@ public class MessageView extends JPanel {
      */
     private JLabel label;
 
+    /**
+     * a JLabel instance represents the label shown while the computer is thinking
+     */
+    private JLabel thinkingLabel;
+
     /**
      * Constructor
      */
@@ -45,6 +50,16 @@ public class MessageView extends JPanel {
         label.setFont(new Font("Sans Serif", Font.PLAIN, 16));
         label.setForeground(Color.WHITE);
         add(label, SwingConstants.CENTER);
+
+        // create thinking indicator below the label, hidden until the computer thinks
+        thinkingLabel = new JLabel("Computer is thinking...");
+        thinkingLabel.setFont(new Font("Sans Serif", Font.ITALIC, 13));
+        thinkingLabel.setForeground(Color.LIGHT_GRAY);
+        thinkingLabel.setVisible(false);
+        GridBagConstraints constraints = new GridBagConstraints();
+        constraints.gridx = 0;
+        constraints.gridy = 1;
+        add(thinkingLabel, constraints);
     }
 
     /**
@@ -55,5 +70,13 @@ public class MessageView extends JPanel {
         label.setText(text);
     }
 
+    /**
+     * Show or hide the thinking indicator
+     * @param thinking true if the computer is thinking, else false
+     */
+    public void setThinking(boolean thinking) {
+        thinkingLabel.setVisible(thinking);
+    }
+
 }
 
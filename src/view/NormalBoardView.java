@@ -1,9 +1,12 @@
 package view;
 
 import controller.GameController;
-import model.GameState;
+import engine.SearchEngine;
+import engine.SearchResult;
+import model.Board;
+import model.Move;
 import model.Node;
-import model.ValidGenerator;
+import model.Player;
 
 import javax.swing.*;
 import java.awt.*;
@@ -11,22 +14,28 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Represents a view for the normal board, which extends the BoardView class
  */
 public class NormalBoardView extends BoardView{
 
+    /**
+     * a JButton instance represents the hint button
+     */
+    private JButton hint;
+
     /**
      * Constructs a new instance of the NormalBoardView class. Initializes the normal board view when start the game.
+     * @param gameController the GameController instance of the game to show
      */
-    public NormalBoardView() {
+    public NormalBoardView(GameController gameController) {
         // call super constructor
-        super();
+        super(gameController);
 
         // add hint button
-        JButton hint = new JButton("Hint");
+        hint = new JButton("Hint");
         hint.setBounds(220,230,60,40);
         hint.setFocusable(false);
         add(hint);
@@ -42,63 +51,24 @@ public class NormalBoardView extends BoardView{
                 setClick(true);
 
                 // reset previously highlighted nodes
-                GameController.getInstance().getBoard().resetSelectedNodes();
+                gameController.getBoard().resetSelectedNodes();
 
                 // print coordinates of click
                 System.out.println("Click Coordinates: (" + e.getX() + ", " + e.getY() + ")");
 
                 // pass to game controller for handling click event
-                GameController.getInstance().processClick(e);
+                gameController.processClick(e);
 
-                // disable hint button
-                if (GameController.getInstance().isPlayWithComputer()) {
-                    if (GameController.getInstance().getCurrentPlayer() == GameController.getInstance().getSecondPlayer()) {
-                        hint.setEnabled(false);
-                    }
-                }
+                // render the latest state of board
+                update();
 
-                // Create a timer with a delay of 5 seconds
-                Timer timer = new Timer(1000, new ActionListener() {
+                // let the computer answer once the board has been repainted, it thinks on the engine thread
+                SwingUtilities.invokeLater(new Runnable() {
                     @Override
-                    public void actionPerformed(ActionEvent evt) {
-
-
-                        // This code will be executed after the delay
-                        GameController.getInstance().processComputerCommand();
-
-                        // enable back hint button
-                        hint.setEnabled(true);
+                    public void run() {
+                        gameController.processComputerCommand();
                     }
                 });
-
-                // Start the timer
-                timer.setRepeats(false); // Execute only once
-                timer.start();
-
-                // render the latest state of board
-                update();
-
-                if (GameController.getInstance().getCurrentPlayer().isComputer() && GameController.getInstance().getCurrentState() == GameState.REMOVE){
-                    // Create a timer with a delay of 5 seconds
-                    Timer timer2 = new Timer(1000, new ActionListener() {
-                        @Override
-                        public void actionPerformed(ActionEvent evt) {
-
-
-                            // This code will be executed after the delay
-                            GameController.getInstance().processComputerCommand();
-
-                            // enable back hint button
-                            hint.setEnabled(true);
-                        }
-                    });
-                    // Start the timer
-                    timer2.setRepeats(false); // Execute only once
-                    timer2.start();
-
-                    // render the latest state of board
-                    update();
-                }
             }
         });
 
@@ -110,9 +80,6 @@ public class NormalBoardView extends BoardView{
 
             @Override
             public void actionPerformed(ActionEvent e) {
-                // retrieve game controller
-                GameController gameController = GameController.getInstance();
-
                 // reset hint toggle
                 toggle = !toggle;
                 if (getClick()) {
@@ -122,42 +89,78 @@ public class NormalBoardView extends BoardView{
 
                 // reset previously highlighted nodes
                 gameController.getBoard().resetSelectedNodes();
-
-                // retrieve current game state
-                GameState currentState = gameController.getCurrentState();
-
-                // store nodes to be highlighted
-                ArrayList<Node> nodesToBeHighlighted = new ArrayList<>();
-
-                // respond according to current game state
-                switch (currentState) {
-                    case SET:
-                        // highlight node for set
-                        nodesToBeHighlighted = ValidGenerator.getNodesForSet();
-                        break;
-                    case REMOVE:
-                        // highlight node for remove
-                        nodesToBeHighlighted = ValidGenerator.getNodesForRemove();
-                        break;
-                    case MOVE:
-                        // highlight node for move
-                        nodesToBeHighlighted = ValidGenerator.getNodesForMove();
-                        break;
-                    case JUMP:
-                        // highlight node for jump
-                        nodesToBeHighlighted = ValidGenerator.getNodesForJump();
-                        break;
+                update();
+                if (!toggle) {
+                    return;
                 }
 
-                // highlight nodes
-                if (toggle) {
-                    for (Node node : nodesToBeHighlighted) {
-                        node.setSelected(true);
-                    }
+                // the analysis is usually ready, it started in the background when the position was reached
+                long hash = gameController.getPosition().getHash();
+                CompletableFuture<SearchResult[]> analysis = gameController.getHint();
+                if (!analysis.isDone()) {
+                    gameController.getGameView().setMessage("Looking for a hint...");
                 }
-                update();
-
+                analysis.thenAccept(lines -> SwingUtilities.invokeLater(() -> {
+                    // drop a hint that arrives after the position changed or the hint was hidden
+                    if (toggle && !getClick() && gameController.getPosition().getHash() == hash) {
+                        showHint(lines);
+                    }
+                }));
             }
         });
     }
+
+    /**
+     * Highlight the nodes of the moves of a hint and list the moves with their scores
+     * @param lines the SearchResult instance of each move of the hint, best first
+     */
+    private void showHint(SearchResult[] lines) {
+        // retrieve game controller
+        GameController gameController = getGameController();
+        Board board = gameController.getBoard();
+
+        StringBuilder message = new StringBuilder("<html>Hint:");
+        for (int i = 0; i < lines.length; i++) {
+            int move = lines[i].getBestMove();
+            for (int index : new int[] {Move.getFrom(move), Move.getTo(move), Move.getRemove(move)}) {
+                Node node = board.getNodeFromIndex(index);
+                if (node != null) {
+                    node.setSelected(true);
+                }
+            }
+            message.append(i == 0 ? " " : ", ").append(Move.toString(move))
+                   .append(" (").append(formatScore(lines[i].getScore())).append(')');
+        }
+        if (lines.length == 0) {
+            message.append(" no move available");
+        }
+        gameController.getGameView().setMessage(message.append("</html>").toString());
+        update();
+    }
+
+    /**
+     * Format the score of a move of a hint from the point of view of the player to move
+     * @param score the score of the move
+     * @return the formatted score, e.g. "+120" or "win in 5"
+     */
+    private static String formatScore(int score) {
+        if (score >= SearchEngine.WIN_THRESHOLD) {
+            return "win in " + (SearchEngine.WIN_SCORE - score);
+        }
+        if (score <= -SearchEngine.WIN_THRESHOLD) {
+            return "loss in " + (SearchEngine.WIN_SCORE + score);
+        }
+        return score > 0 ? "+" + score : String.valueOf(score);
+    }
+
+    /**
+     * Invoked when the state of board changes. The hint button is disabled while it is the computer's turn.
+     */
+    @Override
+    public void update() {
+        super.update();
+        GameController gameController = getGameController();
+        Player currentPlayer = gameController.getCurrentPlayer();
+        hint.setEnabled(currentPlayer == null || !currentPlayer.isComputer() || !gameController.isPlayWithComputer());
+    }
 }
@@ -1,6 +1,7 @@
 package view;
 
 import controller.GameController;
+import model.Position;
 import model.Tutorial;
 
 import javax.swing.*;
@@ -22,10 +23,11 @@ public class TutorialBoardView extends BoardView{
     /**
      * Constructs a new instance of the TutorialBoardView class. Initializes the tutorial ID and adds a hint button to
      * the view.
+     * @param gameController the GameController instance of the tutorial to show
      */
-    public TutorialBoardView() {
+    public TutorialBoardView(GameController gameController) {
         // call super constructor
-        super();
+        super(gameController);
         Tutorial tutorial = new Tutorial();
         tutorialID = 0;
 
@@ -46,31 +48,24 @@ public class TutorialBoardView extends BoardView{
                 setClick(true);
 
                 // reset previously highlighted nodes
-                GameController.getInstance().getBoard().resetSelectedNodes();
+                gameController.getBoard().resetSelectedNodes();
 
                 // print coordinates of click
                 System.out.println("Click Coordinates: (" + e.getX() + ", " + e.getY() + ")");
 
                 // pass to game controller for handling click event
-                GameController.getInstance().processClick(e);
+                gameController.processClick(e);
 
-                // Create a timer with a delay of 1 seconds
-                Timer timer = new Timer(1000, new ActionListener() {
-                    @Override
-                    public void actionPerformed(ActionEvent evt) {
-
-                        // This code will be executed after the delay
-                        GameController.getInstance().processComputerCommand();
+                // render the latest state of board
+                update();
 
+                // let the computer answer once the board has been repainted, it thinks on the engine thread
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        gameController.processComputerCommand();
                     }
                 });
-
-                // Start the timer
-                timer.setRepeats(false); // Execute only once
-                timer.start();
-
-                // render the latest state of board
-                update();
             }
         });
 
@@ -80,14 +75,22 @@ public class TutorialBoardView extends BoardView{
             @Override
             public void actionPerformed(ActionEvent e) {
                 // retrieve gameView
-                GameView gameView = GameController.getInstance().getGameView();
+                GameView gameView = gameController.getGameView();
 
                 // loop though all tutorial
                 if (tutorialID < Tutorial.getTutorialCount()) {
                     // print tutorial id
                     System.out.println("Tutorial " + tutorialID);
 
-                    // run tutorial and retrieve messages from tutorial
+                    // load the position of the tutorial, the ending case asks for a real match instead
+                    Position position = Tutorial.getTutorialPosition(tutorialID);
+                    if (position != null) {
+                        gameController.loadPosition(position);
+                    } else {
+                        askForMatch(gameController);
+                    }
+
+                    // retrieve messages from tutorial
                     String msg = tutorial.runTutorial(tutorialID);
                     gameView.setMessage(msg);
                 }
@@ -98,4 +101,30 @@ public class TutorialBoardView extends BoardView{
             }
         });
     }
+
+    /**
+     * Ask the player if he or she wants to start a real match after learning from the tutorial. There are two
+     * options, to play with a computer or play with humans.
+     * @param gameController the GameController instance that starts the match
+     */
+    private void askForMatch(GameController gameController) {
+        String[] options = {"Play Computer", "Play Human"};
+        int input = JOptionPane.showOptionDialog(
+                null,
+                "Do you want to play with human or computer?",
+                "Tutorial ends.",
+                JOptionPane.YES_NO_OPTION,
+                JOptionPane.QUESTION_MESSAGE,
+                null,
+                options,
+                options[0]);
+
+        if (input == JOptionPane.YES_OPTION) {
+            gameController.restart();
+            gameController.rebuild(true);
+        } else if (input == JOptionPane.NO_OPTION) {
+            gameController.restart();
+            gameController.rebuild(false);
+        }
+    }
 }